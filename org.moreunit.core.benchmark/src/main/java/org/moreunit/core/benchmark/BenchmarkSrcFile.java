@@ -0,0 +1,170 @@
+package org.moreunit.core.benchmark;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.moreunit.core.matching.DoesNotMatchConfigurationException;
+import org.moreunit.core.matching.FileNameEvaluation;
+import org.moreunit.core.matching.MatchResult;
+import org.moreunit.core.matching.MatchingFile;
+import org.moreunit.core.matching.SourceFolderPath;
+import org.moreunit.core.matching.TestFileNamePattern;
+import org.moreunit.core.matching.TestFolderPathPattern;
+import org.moreunit.core.preferences.ProjectPreferences;
+import org.moreunit.core.resources.File;
+import org.moreunit.core.resources.Path;
+import org.moreunit.core.resources.Project;
+import org.moreunit.core.resources.ResourceContainer;
+import org.moreunit.core.resources.SrcFile;
+
+/**
+ * A {@link SrcFile} evaluated against the given patterns, instead of against
+ * the ones of the preferences of its project as ConcreteSrcFile does.
+ * <p>
+ * This is a partial test double for {@link org.moreunit.core.matching.FileMatcher
+ * FileMatcher}, which only calls {@link #evaluateName()},
+ * {@link #findCorrespondingSrcFolder()} and {@link #getExtension()}. The other
+ * accessors delegate to the in-memory file, while the methods reading
+ * preferences or searching for matches are not supported: the benchmarks run
+ * the FileMatcher themselves.
+ * </p>
+ */
+class BenchmarkSrcFile implements SrcFile
+{
+    private final File file;
+    private final TestFileNamePattern fileNamePattern;
+    private final TestFolderPathPattern folderPathPattern;
+    private FileNameEvaluation nameEvaluation;
+
+    BenchmarkSrcFile(File file, TestFileNamePattern fileNamePattern, TestFolderPathPattern folderPathPattern)
+    {
+        this.file = file;
+        this.fileNamePattern = fileNamePattern;
+        this.folderPathPattern = folderPathPattern;
+    }
+
+    public FileNameEvaluation evaluateName()
+    {
+        if(nameEvaluation == null)
+        {
+            nameEvaluation = fileNamePattern.evaluate(file.getBaseNameWithoutExtension());
+        }
+        return nameEvaluation;
+    }
+
+    public SourceFolderPath findCorrespondingSrcFolder() throws DoesNotMatchConfigurationException
+    {
+        Path folderPath = getParent().getPath();
+        if(isTestFile())
+        {
+            return folderPathPattern.getSrcPathFor(folderPath);
+        }
+        return folderPathPattern.getTestPathFor(folderPath);
+    }
+
+    public boolean isTestFile()
+    {
+        return evaluateName().isTestFile();
+    }
+
+    public String getExtension()
+    {
+        return file.getExtension();
+    }
+
+    public String getBaseNameWithoutExtension()
+    {
+        return file.getBaseNameWithoutExtension();
+    }
+
+    public boolean hasExtension()
+    {
+        return file.hasExtension();
+    }
+
+    public Project getProject()
+    {
+        return file.getProject();
+    }
+
+    public String getName()
+    {
+        return file.getName();
+    }
+
+    public Path getPath()
+    {
+        return file.getPath();
+    }
+
+    public ResourceContainer getParent()
+    {
+        return file.getParent();
+    }
+
+    public boolean exists()
+    {
+        return file.exists();
+    }
+
+    public void create()
+    {
+        file.create();
+    }
+
+    public void delete()
+    {
+        file.delete();
+    }
+
+    public ProjectPreferences getProjectPreferences()
+    {
+        throw notSupported();
+    }
+
+    public IFile getUnderlyingPlatformFile()
+    {
+        return null;
+    }
+
+    public IResource getUnderlyingPlatformResource()
+    {
+        return null;
+    }
+
+    public MatchResult findMatches(IProgressMonitor monitor)
+    {
+        throw notSupported();
+    }
+
+    public MatchingFile findUniqueMatch()
+    {
+        throw notSupported();
+    }
+
+    public boolean hasCorrespondingFiles()
+    {
+        throw notSupported();
+    }
+
+    public boolean hasDefaultSupport()
+    {
+        return true;
+    }
+
+    public boolean isSupported()
+    {
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return file.toString();
+    }
+
+    private static UnsupportedOperationException notSupported()
+    {
+        return new UnsupportedOperationException("not needed to benchmark FileMatcher");
+    }
+}
@@ -0,0 +1,73 @@
+package org.moreunit.core.benchmark;
+
+import org.moreunit.core.log.Logger;
+
+/**
+ * A logger ignoring messages, except for warnings and errors: the search
+ * engine reports failures this way, which would make the benchmarks measure
+ * something else than a search. Such messages are thrown instead.
+ */
+class FailingLogger implements Logger
+{
+    public boolean traceEnabled()
+    {
+        return false;
+    }
+
+    public void trace(Object message)
+    {
+    }
+
+    public boolean debugEnabled()
+    {
+        return false;
+    }
+
+    public void debug(Object message)
+    {
+    }
+
+    public boolean infoEnabled()
+    {
+        return false;
+    }
+
+    public void info(Object message)
+    {
+    }
+
+    public boolean warnEnabled()
+    {
+        return true;
+    }
+
+    public void warn(Object message)
+    {
+        throw new IllegalStateException(String.valueOf(message));
+    }
+
+    public void warn(Object message, Throwable throwable)
+    {
+        throw new IllegalStateException(String.valueOf(message), throwable);
+    }
+
+    public boolean errorEnabled()
+    {
+        return true;
+    }
+
+    public void error(Object message)
+    {
+        throw new IllegalStateException(String.valueOf(message));
+    }
+
+    public void error(Throwable throwable)
+    {
+        throw new IllegalStateException(throwable);
+    }
+
+    public void error(Object message, Throwable throwable)
+    {
+        throw new IllegalStateException(String.valueOf(message), throwable);
+    }
+}
@@ -0,0 +1,142 @@
+package org.moreunit.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.moreunit.core.CoreTestModule;
+import org.moreunit.core.matching.DoesNotMatchConfigurationException;
+import org.moreunit.core.matching.FileMatchSelector;
+import org.moreunit.core.matching.FileMatcher;
+import org.moreunit.core.matching.FileNameIndex;
+import org.moreunit.core.matching.MatchResult;
+import org.moreunit.core.matching.MatchSelection;
+import org.moreunit.core.matching.MatchStrategy;
+import org.moreunit.core.matching.SearchEngine;
+import org.moreunit.core.matching.TestFileNamePattern;
+import org.moreunit.core.matching.TestFolderPathPattern;
+import org.moreunit.core.resources.File;
+import org.moreunit.core.resources.InMemoryPath;
+import org.moreunit.core.resources.InMemoryWorkspace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the search for the files corresponding to a file, as done when
+ * jumping from a source file to its test files and the other way round. The
+ * searched project lives in an {@link InMemoryWorkspace}, so that the
+ * measures are not disturbed by the file system. The search is the one of the
+ * plug-in, which either walks the file tree or looks files up in a
+ * {@link FileNameIndex}, applied to stubs of the platform resources (see
+ * {@link StubbedResourcesSearchEngine}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FileMatcherBenchmark
+{
+    private static final String PROJECT = "shop";
+    private static final String EXTENSION = "java";
+    private static final int PACKAGE_COUNT = 64;
+    private static final int FILES_PER_PACKAGE = 32;
+    private static final int TESTED_FILE_SHARE = 60;
+
+    @Param({ "PLAIN", "WILDCARD" })
+    public FolderTemplate folderTemplate;
+
+    @Param({ "SUFFIX", "WILDCARDS_AND_ALTERNATIVES" })
+    public NameTemplate nameTemplate;
+
+    @Param({ "false", "true" })
+    public boolean indexed;
+
+    private SearchEngine searchEngine;
+    private final FileMatchSelector matchSelector = new FileMatchSelector()
+    {
+        public MatchSelection select(Collection<IFile> files, IFile preferredFile)
+        {
+            return MatchSelection.none();
+        }
+    };
+
+    private TestFileNamePattern fileNamePattern;
+    private TestFolderPathPattern folderPathPattern;
+    // source and test files, in creation order
+    private File[] files;
+    private int idx;
+
+    @Setup
+    public void setUp()
+    {
+        InMemoryWorkspace workspace = new InMemoryWorkspace();
+        new CoreTestModule().workspace.overrideWith(workspace);
+
+        fileNamePattern = new TestFileNamePattern(nameTemplate.template, "");
+        folderPathPattern = new TestFolderPathPattern(folderTemplate.srcTemplate, folderTemplate.testTemplate);
+
+        NameDistribution distribution = new NameDistribution();
+        List<File> createdFiles = new ArrayList<File>();
+        for (int i = 0; i < PACKAGE_COUNT; i++)
+        {
+            String packagePath = distribution.nextPackagePath();
+            String module = folderTemplate.nextModule(distribution);
+            String srcFolder = folderTemplate.srcFolder(PROJECT, packagePath, module);
+            String testFolder = folderTemplate.testFolder(PROJECT, packagePath, module);
+
+            for (int j = 0; j < FILES_PER_PACKAGE; j++)
+            {
+                String name = distribution.nextName("");
+                createdFiles.add(createFile(workspace, srcFolder, name));
+                if(distribution.nextChance(TESTED_FILE_SHARE))
+                {
+                    createdFiles.add(createFile(workspace, testFolder, nameTemplate.testFileName(name, distribution)));
+                }
+            }
+        }
+        files = createdFiles.toArray(new File[createdFiles.size()]);
+
+        PlatformResourceStubs stubs = new PlatformResourceStubs(workspace);
+        // the index of the project is built by the first search, during
+        // warmup, then only looked up
+        searchEngine = new StubbedResourcesSearchEngine(stubs, indexed ? new FileNameIndex(new FailingLogger()) : null);
+    }
+
+    private static File createFile(InMemoryWorkspace workspace, String folder, String baseName)
+    {
+        File file = workspace.getFile(new InMemoryPath(folder + "/" + baseName + "." + EXTENSION));
+        file.create();
+        return file;
+    }
+
+    @Benchmark
+    public MatchResult match_all_matches() throws DoesNotMatchConfigurationException
+    {
+        return createMatcher().match(MatchStrategy.ALL_MATCHES);
+    }
+
+    @Benchmark
+    public MatchResult match_any_match() throws DoesNotMatchConfigurationException
+    {
+        return createMatcher().match(MatchStrategy.ANY_MATCH);
+    }
+
+    private FileMatcher createMatcher()
+    {
+        idx = (idx + 1) % files.length;
+        return new FileMatcher(new BenchmarkSrcFile(files[idx], fileNamePattern, folderPathPattern), searchEngine, matchSelector);
+    }
+}
@@ -0,0 +1,43 @@
+package org.moreunit.core.benchmark;
+
+/**
+ * Test folder path templates of increasing complexity, together with the
+ * layout of the folders matching them.
+ */
+public enum FolderTemplate
+{
+    PLAIN("${srcProject}/src/main/java", "${srcProject}/src/test/java", "%1$s/src/main/java/%2$s", "%1$s/src/test/java/%2$s"),
+    TEST_PROJECT("${srcProject}/src", "${srcProject}-test/src", "%1$s/src/%2$s", "%1$s-test/src/%2$s"),
+    WILDCARD("${srcProject}/src/*/java", "${srcProject}/test/java", "%1$s/src/%3$s/java/%2$s", "%1$s/test/java/%2$s"),
+    GROUPS("${srcProject}/modules/(*)/src/main", "${srcProject}/modules/\\1/src/test", "%1$s/modules/%3$s/src/main/%2$s", "%1$s/modules/%3$s/src/test/%2$s");
+
+    private static final String[] MODULES = { "api", "core", "web", "batch" };
+
+    final String srcTemplate;
+    final String testTemplate;
+    private final String srcFolderFormat;
+    private final String testFolderFormat;
+
+    private FolderTemplate(String srcTemplate, String testTemplate, String srcFolderFormat, String testFolderFormat)
+    {
+        this.srcTemplate = srcTemplate;
+        this.testTemplate = testTemplate;
+        this.srcFolderFormat = srcFolderFormat;
+        this.testFolderFormat = testFolderFormat;
+    }
+
+    String srcFolder(String projectName, String packagePath, String module)
+    {
+        return String.format(srcFolderFormat, projectName, packagePath, module);
+    }
+
+    String testFolder(String projectName, String packagePath, String module)
+    {
+        return String.format(testFolderFormat, projectName, packagePath, module);
+    }
+
+    String nextModule(NameDistribution distribution)
+    {
+        return distribution.nextOf(MODULES);
+    }
+}
@@ -0,0 +1,112 @@
+package org.moreunit.core.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generates file and package names resembling those found in real code bases:
+ * names are made of one to four words taken from a vocabulary of common
+ * identifiers, most of them having two or three words. Generation is seeded,
+ * so that successive runs work on the same names.
+ */
+final class NameDistribution
+{
+    private static final String[] WORDS = { "Abstract", "Account", "Action", "Adapter", "Api", "Async", "Auth", "Base", "Batch", "Builder", "Cache", "Config", "Context", "Controller", "Customer", "Data", "Default", "Delegate", "Document", "Event", "Factory", "File", "Filter", "Handler", "Http", "Id", "Impl", "Index", "Invoice", "Item", "Job", "Json", "Listener", "Loader", "Manager", "Mapper", "Message", "Model", "Node", "Order", "Parser", "Path", "Payment", "Policy", "Provider", "Query", "Reader", "Registry", "Repository", "Request", "Resource", "Response", "Rule", "Scheduler", "Service", "Session", "Simple", "Store", "Stream", "Task", "Token", "Url", "User", "Util", "Validator", "Value", "View", "Writer", "Xml" };
+
+    private static final String[] PACKAGE_WORDS = { "api", "auth", "billing", "cache", "catalog", "common", "config", "core", "domain", "event", "http", "impl", "internal", "io", "model", "order", "payment", "persistence", "report", "rest", "search", "security", "service", "shipping", "ui", "user", "util", "web" };
+
+    // share of names made of 1, 2, 3 and 4 words, in percent
+    private static final int[] WORD_COUNT_SHARES = { 15, 40, 30, 15 };
+
+    static final long DEFAULT_SEED = 42;
+
+    private final Random random;
+
+    NameDistribution()
+    {
+        this(DEFAULT_SEED);
+    }
+
+    NameDistribution(long seed)
+    {
+        random = new Random(seed);
+    }
+
+    /**
+     * Returns a name which words are joined with the given separator, or
+     * capitalized and concatenated when the separator is empty.
+     */
+    String nextName(String separator)
+    {
+        int wordCount = nextWordCount();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < wordCount; i++)
+        {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if(separator.length() == 0)
+            {
+                sb.append(word);
+            }
+            else
+            {
+                if(i != 0)
+                {
+                    sb.append(separator);
+                }
+                sb.append(word.toLowerCase());
+            }
+        }
+        return sb.toString();
+    }
+
+    String[] nextNames(int count, String separator)
+    {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++)
+        {
+            names[i] = nextName(separator);
+        }
+        return names;
+    }
+
+    /**
+     * Returns a package path such as <tt>com/acme/billing/impl</tt>.
+     */
+    String nextPackagePath()
+    {
+        StringBuilder sb = new StringBuilder("com/acme");
+        int depth = 1 + random.nextInt(3);
+        for (int i = 0; i < depth; i++)
+        {
+            sb.append('/').append(PACKAGE_WORDS[random.nextInt(PACKAGE_WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns true with the given probability, in percent.
+     */
+    boolean nextChance(int percent)
+    {
+        return random.nextInt(100) < percent;
+    }
+
+    <T> T nextOf(T[] values)
+    {
+        return values[random.nextInt(values.length)];
+    }
+
+    private int nextWordCount()
+    {
+        int draw = random.nextInt(100);
+        int cumulatedShare = 0;
+        for (int i = 0; i < WORD_COUNT_SHARES.length; i++)
+        {
+            cumulatedShare += WORD_COUNT_SHARES[i];
+            if(draw < cumulatedShare)
+            {
+                return i + 1;
+            }
+        }
+        return WORD_COUNT_SHARES.length;
+    }
+}
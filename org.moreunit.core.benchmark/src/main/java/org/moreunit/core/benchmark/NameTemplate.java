@@ -0,0 +1,32 @@
+package org.moreunit.core.benchmark;
+
+/**
+ * Test file name templates of increasing complexity, together with the
+ * prefixes and suffixes used to build test file names matching them.
+ */
+public enum NameTemplate
+{
+    SUFFIX("${srcFile}Test", new String[] { "" }, new String[] { "Test" }),
+    ALTERNATIVE_SUFFIXES("${srcFile}(Test|Tests)", new String[] { "" }, new String[] { "Test", "Tests" }),
+    WILDCARDS_AND_ALTERNATIVES("(Pre1|Pre2)*${srcFile}*(Suf1|Suf2)", new String[] { "Pre1", "Pre2", "Pre1Integration" }, new String[] { "Suf1", "Suf2", "ItSuf2" });
+
+    final String template;
+    private final String[] prefixes;
+    private final String[] suffixes;
+
+    private NameTemplate(String template, String[] prefixes, String[] suffixes)
+    {
+        this.template = template;
+        this.prefixes = prefixes;
+        this.suffixes = suffixes;
+    }
+
+    /**
+     * Returns the name of a test file for the given source file name (in camel
+     * case).
+     */
+    String testFileName(String srcFileName, NameDistribution distribution)
+    {
+        return distribution.nextOf(prefixes) + srcFileName + distribution.nextOf(suffixes);
+    }
+}
@@ -0,0 +1,63 @@
+package org.moreunit.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.moreunit.core.matching.CamelCaseNameTokenizer;
+import org.moreunit.core.matching.NameTokenizer;
+import org.moreunit.core.matching.NameTokenizer.TokenizationResult;
+import org.moreunit.core.matching.SeparatorNameTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the tokenization of file names, by the camel case tokenizer and by
+ * the separator tokenizer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NameTokenizerBenchmark
+{
+    // a power of two
+    private static final int NAME_COUNT = 4096;
+    private static final String SEPARATOR = "_";
+
+    private final NameTokenizer camelCaseTokenizer = new CamelCaseNameTokenizer();
+    private final NameTokenizer separatorTokenizer = new SeparatorNameTokenizer(SEPARATOR);
+
+    private String[] camelCaseNames;
+    private String[] separatedNames;
+    private int idx;
+
+    @Setup
+    public void setUp()
+    {
+        camelCaseNames = new NameDistribution().nextNames(NAME_COUNT, "");
+        separatedNames = new NameDistribution().nextNames(NAME_COUNT, SEPARATOR);
+    }
+
+    @Benchmark
+    public TokenizationResult tokenize_camel_case()
+    {
+        idx = (idx + 1) & (NAME_COUNT - 1);
+        return camelCaseTokenizer.tokenize(camelCaseNames[idx]);
+    }
+
+    @Benchmark
+    public TokenizationResult tokenize_with_separator()
+    {
+        idx = (idx + 1) & (NAME_COUNT - 1);
+        return separatorTokenizer.tokenize(separatedNames[idx]);
+    }
+}
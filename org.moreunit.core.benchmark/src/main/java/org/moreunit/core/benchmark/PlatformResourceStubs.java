@@ -0,0 +1,224 @@
+package org.moreunit.core.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.moreunit.core.resources.File;
+import org.moreunit.core.resources.Folder;
+import org.moreunit.core.resources.InMemoryWorkspace;
+import org.moreunit.core.resources.Path;
+import org.moreunit.core.resources.Project;
+import org.moreunit.core.resources.Resource;
+import org.moreunit.core.resources.ResourceContainer;
+
+/**
+ * Stubs of the platform resources (projects, folders and files) backed by the
+ * resources of an {@link InMemoryWorkspace}, so that the production
+ * {@link org.moreunit.core.matching.SearchEngine SearchEngine} and
+ * {@link org.moreunit.core.matching.FileNameIndex FileNameIndex} can walk
+ * them. Those are partial test doubles: besides the methods of Object, they
+ * only answer the methods that walking, indexing, and collecting matches
+ * rely on, none of the resources being derived, hidden or team private.
+ */
+class PlatformResourceStubs
+{
+    private final InMemoryWorkspace workspace;
+    private final Map<Resource, IResource> stubs = new HashMap<Resource, IResource>();
+
+    PlatformResourceStubs(InMemoryWorkspace workspace)
+    {
+        this.workspace = workspace;
+    }
+
+    /**
+     * Returns a resource delegating to the given one, except that its
+     * underlying platform resource is a stub.
+     */
+    Resource withPlatformResource(final Resource resource)
+    {
+        final IResource platformResource = get(resource);
+        return new Resource()
+        {
+            public void create()
+            {
+                resource.create();
+            }
+
+            public void delete()
+            {
+                resource.delete();
+            }
+
+            public boolean exists()
+            {
+                return resource.exists();
+            }
+
+            public String getName()
+            {
+                return resource.getName();
+            }
+
+            public Path getPath()
+            {
+                return resource.getPath();
+            }
+
+            public ResourceContainer getParent()
+            {
+                return resource.getParent();
+            }
+
+            public IResource getUnderlyingPlatformResource()
+            {
+                return platformResource;
+            }
+        };
+    }
+
+    IResource get(Resource resource)
+    {
+        IResource stub = stubs.get(resource);
+        if(stub == null)
+        {
+            stub = createStub(resource);
+            stubs.put(resource, stub);
+        }
+        return stub;
+    }
+
+    private IResource createStub(final Resource resource)
+    {
+        final IPath fullPath = IPath.fromPortableString(resource.getPath().toString()).makeAbsolute();
+        final int type = typeOf(resource);
+
+        InvocationHandler handler = new InvocationHandler()
+        {
+            public Object invoke(Object stub, Method method, Object[] args) throws Throwable
+            {
+                switch (method.getName())
+                {
+                case "getFullPath":
+                    return fullPath;
+                case "getName":
+                    return resource.getName();
+                case "getType":
+                    return type;
+                case "getFileExtension":
+                    return resource instanceof File ? ((File) resource).getExtension() : null;
+                case "getProject":
+                    return get(workspace.getProject(resource.getPath().getProjectName()));
+                case "exists":
+                case "isAccessible":
+                    return resource.exists();
+                case "isDerived":
+                    return false;
+                case "accept":
+                    if(args.length == 2 && args[0] instanceof IResourceProxyVisitor)
+                    {
+                        accept(resource, (IResourceProxyVisitor) args[0]);
+                        return null;
+                    }
+                    break;
+                case "equals":
+                    return stub == args[0];
+                case "hashCode":
+                    return System.identityHashCode(stub);
+                case "toString":
+                    return fullPath.toString();
+                default:
+                    break;
+                }
+                // fails loudly if the search starts to rely on another
+                // method, which the benchmark should then support
+                throw new UnsupportedOperationException(method.getName() + " is not supported by benchmark resources");
+            }
+        };
+        return (IResource) Proxy.newProxyInstance(IResource.class.getClassLoader(), new Class< ? >[] { interfaceOf(type) }, handler);
+    }
+
+    private void accept(Resource resource, IResourceProxyVisitor visitor) throws CoreException
+    {
+        if(! visitor.visit(createProxy(resource)) || ! (resource instanceof ResourceContainer))
+        {
+            return;
+        }
+
+        ResourceContainer container = (ResourceContainer) resource;
+        for (File file : container.listFiles())
+        {
+            accept(file, visitor);
+        }
+        for (Folder folder : container.listFolders())
+        {
+            accept(folder, visitor);
+        }
+    }
+
+    private IResourceProxy createProxy(final Resource resource)
+    {
+        InvocationHandler handler = new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] args)
+            {
+                switch (method.getName())
+                {
+                case "getName":
+                    return resource.getName();
+                case "getType":
+                    return typeOf(resource);
+                case "isAccessible":
+                    return resource.exists();
+                case "isDerived":
+                case "isHidden":
+                case "isTeamPrivateMember":
+                case "isLinked":
+                case "isPhantom":
+                    return false;
+                case "requestFullPath":
+                    return get(resource).getFullPath();
+                case "requestResource":
+                    return get(resource);
+                case "toString":
+                    return resource.toString();
+                default:
+                    throw new UnsupportedOperationException(method.getName() + " is not supported by benchmark resource proxies");
+                }
+            }
+        };
+        return (IResourceProxy) Proxy.newProxyInstance(IResourceProxy.class.getClassLoader(), new Class< ? >[] { IResourceProxy.class }, handler);
+    }
+
+    private static int typeOf(Resource resource)
+    {
+        if(resource instanceof File)
+        {
+            return IResource.FILE;
+        }
+        return resource instanceof Project ? IResource.PROJECT : IResource.FOLDER;
+    }
+
+    private static Class< ? > interfaceOf(int type)
+    {
+        switch (type)
+        {
+        case IResource.FILE:
+            return IFile.class;
+        case IResource.PROJECT:
+            return IProject.class;
+        default:
+            return IFolder.class;
+        }
+    }
+}
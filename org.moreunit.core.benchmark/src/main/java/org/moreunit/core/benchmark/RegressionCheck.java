@@ -0,0 +1,149 @@
+package org.moreunit.core.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the results of a benchmark run with the ones of a baseline run,
+ * both in JMH CSV format, and fails if some benchmarks got slower than the
+ * given tolerance allows. Benchmarks that are not part of both runs are
+ * ignored.
+ * <p>
+ * Arguments: baseline file, result file, and tolerance in percent.
+ */
+public class RegressionCheck
+{
+    private static final String BENCHMARK_COLUMN = "Benchmark";
+    private static final String MODE_COLUMN = "Mode";
+    private static final String SCORE_COLUMN = "Score";
+    private static final String UNIT_COLUMN = "Unit";
+    private static final String PARAM_COLUMN_PREFIX = "Param: ";
+    private static final String THROUGHPUT_MODE = "thrpt";
+
+    public static void main(String[] args) throws IOException
+    {
+        if(args.length != 3)
+        {
+            throw new IllegalArgumentException("Usage: RegressionCheck <baseline.csv> <result.csv> <tolerance in percent>");
+        }
+
+        Map<String, Score> baseline = readScores(args[0]);
+        Map<String, Score> result = readScores(args[1]);
+        double tolerance = Double.parseDouble(args[2]) / 100;
+
+        List<String> regressions = new ArrayList<String>();
+        for (Map.Entry<String, Score> entry : result.entrySet())
+        {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if(before == null || ! before.unit.equals(after.unit) || ! before.mode.equals(after.mode))
+            {
+                continue;
+            }
+
+            double change = (after.value - before.value) / before.value;
+            // the lower the better, except for throughput
+            boolean regression = THROUGHPUT_MODE.equals(after.mode) ? - change > tolerance : change > tolerance;
+
+            String line = String.format("%-100s %12.3f %12.3f %-8s %+7.1f%%", entry.getKey(), before.value, after.value, after.unit, change * 100);
+            System.out.println(regression ? line + "  <- REGRESSION" : line);
+            if(regression)
+            {
+                regressions.add(entry.getKey());
+            }
+        }
+
+        if(! regressions.isEmpty())
+        {
+            throw new IllegalStateException(regressions.size() + " benchmark(s) regressed by more than " + args[2] + "%: " + regressions);
+        }
+    }
+
+    private static Map<String, Score> readScores(String file) throws IOException
+    {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        Map<String, Score> scores = new LinkedHashMap<String, Score>();
+        if(lines.isEmpty())
+        {
+            return scores;
+        }
+
+        List<String> header = splitCsvLine(lines.get(0));
+        for (String line : lines.subList(1, lines.size()))
+        {
+            if(line.trim().length() == 0)
+            {
+                continue;
+            }
+
+            List<String> values = splitCsvLine(line);
+            StringBuilder key = new StringBuilder();
+            Score score = new Score();
+            for (int i = 0; i < header.size() && i < values.size(); i++)
+            {
+                String column = header.get(i);
+                String value = values.get(i);
+                if(BENCHMARK_COLUMN.equals(column))
+                {
+                    key.insert(0, value);
+                }
+                else if(column.startsWith(PARAM_COLUMN_PREFIX))
+                {
+                    key.append(' ').append(column.substring(PARAM_COLUMN_PREFIX.length())).append('=').append(value);
+                }
+                else if(MODE_COLUMN.equals(column))
+                {
+                    score.mode = value;
+                }
+                else if(SCORE_COLUMN.equals(column))
+                {
+                    score.value = Double.parseDouble(value);
+                }
+                else if(UNIT_COLUMN.equals(column))
+                {
+                    score.unit = value;
+                }
+            }
+            scores.put(key.toString(), score);
+        }
+        return scores;
+    }
+
+    private static List<String> splitCsvLine(String line)
+    {
+        List<String> values = new ArrayList<String>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (char c : line.toCharArray())
+        {
+            if(c == '"')
+            {
+                quoted = ! quoted;
+            }
+            else if(c == ',' && ! quoted)
+            {
+                values.add(value.toString());
+                value.setLength(0);
+            }
+            else
+            {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static class Score
+    {
+        String mode = "";
+        double value;
+        String unit = "";
+    }
+}
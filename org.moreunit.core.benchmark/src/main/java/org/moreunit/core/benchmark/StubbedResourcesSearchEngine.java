@@ -0,0 +1,32 @@
+package org.moreunit.core.benchmark;
+
+import java.util.Collection;
+
+import org.moreunit.core.matching.FileMatchCollector;
+import org.moreunit.core.matching.FileNameIndex;
+import org.moreunit.core.matching.SearchEngine;
+import org.moreunit.core.resources.Resource;
+
+/**
+ * The production {@link SearchEngine}, either walking the file tree or
+ * looking files up in a {@link FileNameIndex}, applied to stubs of the
+ * platform resources (see {@link PlatformResourceStubs}): in-memory resources
+ * have no underlying platform resource, hence the search root is swapped for
+ * a stub before searching.
+ */
+class StubbedResourcesSearchEngine extends SearchEngine
+{
+    private final PlatformResourceStubs stubs;
+
+    StubbedResourcesSearchEngine(PlatformResourceStubs stubs, FileNameIndex fileNameIndex)
+    {
+        super(null, fileNameIndex, new FailingLogger());
+        this.stubs = stubs;
+    }
+
+    @Override
+    public void searchFiles(Resource rootResource, Collection<String> fileBaseNamePatterns, String extension, FileMatchCollector collector)
+    {
+        super.searchFiles(stubs.withPlatformResource(rootResource), fileBaseNamePatterns, extension, collector);
+    }
+}
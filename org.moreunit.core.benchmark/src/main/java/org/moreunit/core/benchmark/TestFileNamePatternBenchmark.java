@@ -0,0 +1,94 @@
+package org.moreunit.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.moreunit.core.matching.FileNameEvaluation;
+import org.moreunit.core.matching.TestFileNamePattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of file names against test file name templates, on
+ * a mix of source and test file names:
+ * <ul>
+ * <li>with a pattern evaluating again and again the same names, as when
+ * jumping around in a project,</li>
+ * <li>with a pattern evaluating names it never saw,</li>
+ * <li>with a new pattern for each evaluation, which also includes the cost of
+ * parsing the template.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TestFileNamePatternBenchmark
+{
+    // powers of two
+    private static final int RECURRING_NAME_COUNT = 1024;
+    private static final int DISTINCT_NAME_COUNT = 256 * 1024;
+    private static final int TEST_FILE_SHARE = 40;
+
+    @Param({ "SUFFIX", "ALTERNATIVE_SUFFIXES", "WILDCARDS_AND_ALTERNATIVES" })
+    public NameTemplate template;
+
+    private String[] recurringNames;
+    private String[] distinctNames;
+    private TestFileNamePattern pattern;
+    private int recurringIdx;
+    private int distinctIdx;
+
+    @Setup
+    public void setUp()
+    {
+        NameDistribution distribution = new NameDistribution();
+        recurringNames = fileNames(distribution, RECURRING_NAME_COUNT);
+        distinctNames = fileNames(distribution, DISTINCT_NAME_COUNT);
+        pattern = new TestFileNamePattern(template.template, "");
+    }
+
+    private String[] fileNames(NameDistribution distribution, int count)
+    {
+        String[] names = distribution.nextNames(count, "");
+        for (int i = 0; i < names.length; i++)
+        {
+            if(distribution.nextChance(TEST_FILE_SHARE))
+            {
+                names[i] = template.testFileName(names[i], distribution);
+            }
+        }
+        return names;
+    }
+
+    @Benchmark
+    public FileNameEvaluation evaluate_recurring_names()
+    {
+        recurringIdx = (recurringIdx + 1) & (RECURRING_NAME_COUNT - 1);
+        return pattern.evaluate(recurringNames[recurringIdx]);
+    }
+
+    @Benchmark
+    public FileNameEvaluation evaluate_distinct_names()
+    {
+        distinctIdx = (distinctIdx + 1) & (DISTINCT_NAME_COUNT - 1);
+        return pattern.evaluate(distinctNames[distinctIdx]);
+    }
+
+    @Benchmark
+    public FileNameEvaluation evaluate_with_new_pattern()
+    {
+        recurringIdx = (recurringIdx + 1) & (RECURRING_NAME_COUNT - 1);
+        return new TestFileNamePattern(template.template, "").evaluate(recurringNames[recurringIdx]);
+    }
+}
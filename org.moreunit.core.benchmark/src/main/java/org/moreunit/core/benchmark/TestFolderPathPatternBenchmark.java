@@ -0,0 +1,82 @@
+package org.moreunit.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.moreunit.core.CoreTestModule;
+import org.moreunit.core.matching.DoesNotMatchConfigurationException;
+import org.moreunit.core.matching.SourceFolderPath;
+import org.moreunit.core.matching.TestFolderPathPattern;
+import org.moreunit.core.resources.InMemoryPath;
+import org.moreunit.core.resources.InMemoryWorkspace;
+import org.moreunit.core.resources.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the computation of the test folder of source folders and of the
+ * source folder of test folders, for folder templates of increasing
+ * complexity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TestFolderPathPatternBenchmark
+{
+    // a power of two
+    private static final int FOLDER_COUNT = 1024;
+    private static final String[] PROJECTS = { "shop", "shop-backend", "billing", "common-utils" };
+
+    @Param({ "PLAIN", "TEST_PROJECT", "WILDCARD", "GROUPS" })
+    public FolderTemplate template;
+
+    private TestFolderPathPattern pattern;
+    private Path[] srcFolders;
+    private Path[] testFolders;
+    private int idx;
+
+    @Setup
+    public void setUp()
+    {
+        new CoreTestModule().workspace.overrideWith(new InMemoryWorkspace());
+
+        pattern = new TestFolderPathPattern(template.srcTemplate, template.testTemplate);
+
+        NameDistribution distribution = new NameDistribution();
+        srcFolders = new Path[FOLDER_COUNT];
+        testFolders = new Path[FOLDER_COUNT];
+        for (int i = 0; i < FOLDER_COUNT; i++)
+        {
+            String project = distribution.nextOf(PROJECTS);
+            String packagePath = distribution.nextPackagePath();
+            String module = template.nextModule(distribution);
+            srcFolders[i] = new InMemoryPath(template.srcFolder(project, packagePath, module));
+            testFolders[i] = new InMemoryPath(template.testFolder(project, packagePath, module));
+        }
+    }
+
+    @Benchmark
+    public SourceFolderPath getTestPathFor() throws DoesNotMatchConfigurationException
+    {
+        idx = (idx + 1) & (FOLDER_COUNT - 1);
+        return pattern.getTestPathFor(srcFolders[idx]);
+    }
+
+    @Benchmark
+    public SourceFolderPath getSrcPathFor() throws DoesNotMatchConfigurationException
+    {
+        idx = (idx + 1) & (FOLDER_COUNT - 1);
+        return pattern.getSrcPathFor(testFolders[idx]);
+    }
+}
@@ -0,0 +1,112 @@
+package org.moreunit.core.extension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtensionDelta;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryChangeEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.core.log.Logger;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+
+public class LanguageExtensionManagerTest
+{
+    private final IExtensionRegistry extensionRegistry = mock(IExtensionRegistry.class);
+
+    private LanguageExtensionManager manager;
+
+    @Before
+    public void createManager() throws Exception
+    {
+        BundleContext bundleContext = mock(BundleContext.class);
+        when(bundleContext.getBundles()).thenReturn(new Bundle[0]);
+
+        manager = new LanguageExtensionManager(bundleContext, extensionRegistry, mock(Logger.class));
+    }
+
+    @Test
+    public void should_reuse_snapshot_while_registry_does_not_change() throws Exception
+    {
+        registerLanguages("foo");
+
+        assertThat(manager.extensionExistsForLanguage("foo")).isTrue();
+        assertThat(manager.extensionExistsForLanguage("bar")).isFalse();
+
+        verify(extensionRegistry, times(1)).getConfigurationElementsFor(ExtensionPoints.LANGUAGES);
+    }
+
+    @Test
+    public void should_rebuild_snapshot_when_languages_extension_point_changes() throws Exception
+    {
+        registerLanguages("foo");
+        assertThat(manager.extensionExistsForLanguage("bar")).isFalse();
+
+        registerLanguages("foo", "bar");
+        manager.registryChanged(registryChangeOf(ExtensionPoints.LANGUAGES));
+
+        assertThat(manager.extensionExistsForLanguage("bar")).isTrue();
+        verify(extensionRegistry, times(2)).getConfigurationElementsFor(ExtensionPoints.LANGUAGES);
+    }
+
+    @Test
+    public void should_not_rebuild_snapshot_when_other_extension_point_changes() throws Exception
+    {
+        registerLanguages("foo");
+        manager.extensionExistsForLanguage("foo");
+
+        manager.registryChanged(registryChangeOf("some.other.point"));
+
+        assertThat(manager.extensionExistsForLanguage("foo")).isTrue();
+        verify(extensionRegistry, times(1)).getConfigurationElementsFor(ExtensionPoints.LANGUAGES);
+    }
+
+    @Test
+    public void should_not_keep_snapshot_built_while_registry_changed() throws Exception
+    {
+        registerLanguages("foo");
+        IConfigurationElement[] elementsBeforeChange = extensionRegistry.getConfigurationElementsFor(ExtensionPoints.LANGUAGES);
+        when(extensionRegistry.getConfigurationElementsFor(ExtensionPoints.LANGUAGES)).thenAnswer(invocation -> {
+            // the registry changes while the snapshot is being built
+            manager.registryChanged(registryChangeOf(ExtensionPoints.LANGUAGES));
+            return elementsBeforeChange;
+        });
+
+        assertThat(manager.extensionExistsForLanguage("foo")).isTrue();
+
+        registerLanguages("foo", "bar");
+
+        assertThat(manager.extensionExistsForLanguage("bar")).isTrue();
+    }
+
+    private void registerLanguages(String... fileExtensions)
+    {
+        IConfigurationElement[] elements = new IConfigurationElement[fileExtensions.length];
+        for (int i = 0; i < fileExtensions.length; i++)
+        {
+            elements[i] = mock(IConfigurationElement.class);
+            when(elements[i].getAttribute("fileExtension")).thenReturn(fileExtensions[i]);
+        }
+        when(extensionRegistry.getConfigurationElementsFor(ExtensionPoints.LANGUAGES)).thenReturn(elements);
+    }
+
+    private static IRegistryChangeEvent registryChangeOf(String extensionPointId)
+    {
+        IExtensionPoint extensionPoint = mock(IExtensionPoint.class);
+        when(extensionPoint.getUniqueIdentifier()).thenReturn(extensionPointId);
+
+        IExtensionDelta delta = mock(IExtensionDelta.class);
+        when(delta.getExtensionPoint()).thenReturn(extensionPoint);
+
+        IRegistryChangeEvent event = mock(IRegistryChangeEvent.class);
+        when(event.getExtensionDeltas()).thenReturn(new IExtensionDelta[] { delta });
+        return event;
+    }
+}
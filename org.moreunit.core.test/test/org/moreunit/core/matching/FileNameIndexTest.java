@@ -0,0 +1,213 @@
+package org.moreunit.core.matching;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collection;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.core.commands.TmpProjectTestCase;
+import org.moreunit.core.log.Logger;
+
+public class FileNameIndexTest extends TmpProjectTestCase
+{
+    private final FileNameIndex index = new FileNameIndex(mock(Logger.class));
+
+    @Before
+    public void startIndex() throws Exception
+    {
+        index.start();
+    }
+
+    @After
+    public void stopIndex() throws Exception
+    {
+        index.stop();
+    }
+
+    @Test
+    public void should_find_files_by_literal_base_name_and_extension() throws Exception
+    {
+        // given
+        IFile testFile = createFile("test/SomeConceptTest.js");
+        createFile("test/SomeConceptTest.py");
+        createFile("test/OtherConceptTest.js");
+
+        // when
+        Collection<IFile> files = index.findFiles(project, asList("\\QSomeConceptTest\\E"), "js");
+
+        // then
+        assertThat(files).containsExactly(testFile);
+    }
+
+    @Test
+    public void should_find_files_by_base_name_pattern() throws Exception
+    {
+        // given
+        IFile testFile1 = createFile("test/SomeConceptTest.js");
+        IFile testFile2 = createFile("test/SomeConceptSpec.js");
+        createFile("test/OtherConceptTest.js");
+
+        // when
+        Collection<IFile> files = index.findFiles(project, asList("\\QSomeConcept\\E.*"), "js");
+
+        // then
+        assertThat(files).containsOnly(testFile1, testFile2);
+    }
+
+    @Test
+    public void should_only_return_files_located_under_root_resource() throws Exception
+    {
+        // given
+        IFile testFile = createFile("test/SomeConceptTest.js");
+        createFile("src/SomeConceptTest.js");
+
+        // when
+        Collection<IFile> files = index.findFiles(getFolder("test"), asList("\\QSomeConceptTest\\E"), "js");
+
+        // then
+        assertThat(files).containsExactly(testFile);
+    }
+
+    @Test
+    public void should_accept_lower_and_upper_case_extensions() throws Exception
+    {
+        // given
+        IFile testFile1 = createFile("test/SomeConceptTest.js");
+        IFile testFile2 = createFile("test/OtherConceptTest.JS");
+        createFile("test/ThirdConceptTest.Js");
+
+        // when
+        Collection<IFile> files = index.findFiles(project, asList("\\QSomeConceptTest\\E", "\\QOtherConceptTest\\E", "\\QThirdConceptTest\\E"), "js");
+
+        // then
+        assertThat(files).containsExactly(testFile1, testFile2);
+    }
+
+    @Test
+    public void should_be_updated_when_files_are_added_or_removed() throws Exception
+    {
+        // given
+        IFile testFile = createFile("test/SomeConceptTest.js");
+        assertThat(index.findFiles(project, asList("\\QSomeConceptTest\\E"), "js")).containsExactly(testFile);
+
+        // when
+        IFile otherFile = createFile("test/SomeConceptSpec.js");
+        testFile.delete(true, null);
+
+        // then
+        assertThat(index.findFiles(project, asList("\\QSomeConceptTest\\E", "\\QSomeConceptSpec\\E"), "js")).containsExactly(otherFile);
+    }
+
+    @Test
+    public void should_ignore_derived_files() throws Exception
+    {
+        // given
+        IFile testFile = createFile("test/SomeConceptTest.js");
+        assertThat(index.findFiles(project, asList("\\QSomeConceptTest\\E"), "js")).containsExactly(testFile);
+
+        // when
+        testFile.setDerived(true, null);
+
+        // then
+        assertThat(index.findFiles(project, asList("\\QSomeConceptTest\\E"), "js")).isEmpty();
+    }
+
+    @Test
+    public void should_ignore_hidden_files() throws Exception
+    {
+        // given
+        IFile testFile = createFile("test/SomeConceptTest.js");
+        IFile hiddenFile = createFile("test/.hidden/SomeConceptTest.js");
+        hiddenFile.getParent().setHidden(true);
+
+        // then
+        assertThat(index.findFiles(project, asList("\\QSomeConceptTest\\E"), "js")).containsExactly(testFile);
+    }
+
+    @Test
+    public void should_keep_project_index_when_markers_or_contents_change() throws Exception
+    {
+        // given
+        IFile testFile = createFile("test/SomeConceptTest.js");
+        index.findFiles(project, asList("\\QSomeConceptTest\\E"), "js");
+        assertThat(index.isIndexed(project)).isTrue();
+
+        // when
+        testFile.createMarker(IMarker.PROBLEM);
+        testFile.setContents(new ByteArrayInputStream("changed".getBytes()), true, false, null);
+
+        // then
+        assertThat(index.isIndexed(project)).isTrue();
+    }
+
+    @Test
+    public void should_keep_project_index_when_build_output_changes() throws Exception
+    {
+        // given
+        IFolder outputFolder = createFolder("bin");
+        outputFolder.setDerived(true, null);
+        IFile testFile = createFile("test/SomeConceptTest.js");
+        index.findFiles(project, asList("\\QSomeConceptTest\\E"), "js");
+        assertThat(index.isIndexed(project)).isTrue();
+
+        // when
+        createFile("bin/SomeConceptTest.js");
+
+        // then
+        assertThat(index.isIndexed(project)).isTrue();
+        assertThat(index.findFiles(project, asList("\\QSomeConceptTest\\E"), "js")).containsExactly(testFile);
+    }
+
+    @Test
+    public void should_only_consider_deltas_adding_or_removing_indexed_files_as_changes() throws Exception
+    {
+        IResource file = resource(IResource.FILE, false);
+        IResource derivedFile = resource(IResource.FILE, true);
+        IResource folder = resource(IResource.FOLDER, false);
+        IResource derivedFolder = resource(IResource.FOLDER, true);
+
+        assertThat(FileNameIndex.changesIndexedFiles(delta(file, IResourceDelta.CHANGED, IResourceDelta.MARKERS))).isFalse();
+        assertThat(FileNameIndex.changesIndexedFiles(delta(file, IResourceDelta.CHANGED, IResourceDelta.CONTENT))).isFalse();
+        assertThat(FileNameIndex.changesIndexedFiles(delta(file, IResourceDelta.ADDED, 0))).isTrue();
+        assertThat(FileNameIndex.changesIndexedFiles(delta(file, IResourceDelta.REMOVED, IResourceDelta.MOVED_TO))).isTrue();
+        assertThat(FileNameIndex.changesIndexedFiles(delta(file, IResourceDelta.CHANGED, IResourceDelta.DERIVED_CHANGED))).isTrue();
+        assertThat(FileNameIndex.changesIndexedFiles(delta(derivedFile, IResourceDelta.ADDED, 0))).isFalse();
+
+        assertThat(FileNameIndex.changesIndexedFiles(delta(folder, IResourceDelta.CHANGED, 0, //
+                                                           delta(file, IResourceDelta.CHANGED, IResourceDelta.MARKERS)))).isFalse();
+        assertThat(FileNameIndex.changesIndexedFiles(delta(folder, IResourceDelta.CHANGED, 0, //
+                                                           delta(file, IResourceDelta.CHANGED, IResourceDelta.MARKERS), //
+                                                           delta(file, IResourceDelta.ADDED, 0)))).isTrue();
+        assertThat(FileNameIndex.changesIndexedFiles(delta(derivedFolder, IResourceDelta.CHANGED, 0, //
+                                                           delta(file, IResourceDelta.ADDED, 0)))).isFalse();
+    }
+
+    private static IResource resource(int type, boolean derived)
+    {
+        IResource resource = mock(IResource.class);
+        when(resource.getType()).thenReturn(type);
+        when(resource.isDerived(IResource.CHECK_ANCESTORS)).thenReturn(derived);
+        return resource;
+    }
+
+    private static IResourceDelta delta(IResource resource, int kind, int flags, IResourceDelta... children)
+    {
+        IResourceDelta delta = mock(IResourceDelta.class);
+        when(delta.getResource()).thenReturn(resource);
+        when(delta.getKind()).thenReturn(kind);
+        when(delta.getFlags()).thenReturn(flags);
+        when(delta.getAffectedChildren()).thenReturn(children);
+        return delta;
+    }
+}
@@ -0,0 +1,107 @@
+package org.moreunit.core.matching;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+import org.moreunit.core.resources.InMemoryWorkspace;
+
+public class MatchStrategyTest
+{
+    private final SourceFolderPath srcFolder = new SourceFolderPath("project/src/.*/test", new InMemoryWorkspace());
+
+    @Test
+    public void any_match_collector_should_cancel_its_monitor_on_first_match() throws Exception
+    {
+        // given
+        FileMatchCollector collector = MatchStrategy.ANY_MATCH.createMatchCollector(srcFolder);
+
+        // when
+        collector.acceptFile(file("project/src/main/SomeClass.java"));
+
+        // then
+        assertThat(collector.getProgressMonitor().isCanceled()).isFalse();
+
+        // when
+        collector.acceptFile(file("project/src/main/test/SomeClass.java"));
+
+        // then
+        assertThat(collector.getProgressMonitor().isCanceled()).isTrue();
+        assertThat(collector.getVisitedFileCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void any_match_collector_should_stop_collecting_indexed_files_on_first_match() throws Exception
+    {
+        // given
+        FileMatchCollector collector = MatchStrategy.ANY_MATCH.createMatchCollector(srcFolder);
+        IFile match = file("project/src/main/test/SomeClass.java");
+
+        // when
+        collector.collect(asList(match, file("project/src/other/test/SomeClass.java"), file("project/src/SomeClass.java")));
+
+        // then
+        assertThat(collector.getResults()).containsOnly(match);
+        assertThat(collector.getVisitedFileCount()).isEqualTo(1);
+        assertThat(collector.getProgressMonitor().isCanceled()).isTrue();
+    }
+
+    @Test
+    public void all_matches_collector_should_never_cancel_its_monitor() throws Exception
+    {
+        // given
+        FileMatchCollector collector = MatchStrategy.ALL_MATCHES.createMatchCollector(srcFolder);
+
+        // when
+        collector.collect(asList(file("project/src/main/test/SomeClass.java"), file("project/src/other/test/SomeClass.java"), file("project/src/SomeClass.java")));
+
+        // then
+        assertThat(collector.getResults()).hasSize(2);
+        assertThat(collector.getVisitedFileCount()).isEqualTo(3);
+        assertThat(collector.getProgressMonitor().isCanceled()).isFalse();
+    }
+
+    @Test
+    public void collector_should_stop_collecting_when_search_monitor_is_canceled() throws Exception
+    {
+        // given
+        NullProgressMonitor searchMonitor = new NullProgressMonitor();
+        FileMatchCollector collector = MatchStrategy.ALL_MATCHES.createMatchCollector(srcFolder, searchMonitor);
+
+        // when
+        searchMonitor.setCanceled(true);
+        collector.collect(asList(file("project/src/main/test/SomeClass.java"), file("project/src/other/test/SomeClass.java")));
+
+        // then
+        assertThat(collector.getProgressMonitor().isCanceled()).isTrue();
+        assertThat(collector.getResults()).isEmpty();
+        assertThat(collector.getVisitedFileCount()).isZero();
+    }
+
+    @Test
+    public void any_match_collector_should_not_cancel_search_monitor_on_first_match() throws Exception
+    {
+        // given
+        NullProgressMonitor searchMonitor = new NullProgressMonitor();
+        FileMatchCollector collector = MatchStrategy.ANY_MATCH.createMatchCollector(srcFolder, searchMonitor);
+
+        // when
+        collector.collect(asList(file("project/src/main/test/SomeClass.java")));
+
+        // then
+        assertThat(collector.getProgressMonitor().isCanceled()).isTrue();
+        assertThat(searchMonitor.isCanceled()).isFalse();
+    }
+
+    private static IFile file(String path)
+    {
+        IFile file = mock(IFile.class);
+        when(file.getFullPath()).thenReturn(new Path(path));
+        return file;
+    }
+}
@@ -99,6 +99,46 @@ public class SourceFolderPathTest
         assertThat(p.matches(f)).withFailMessage("should ignore leading separator").isTrue();
     }
 
+    @Test
+    public void should_tell_whether_folder_or_subfolders_may_match() throws Exception
+    {
+        // given
+        SourceFolderPath p = sourceFolderPath("project/src/.*/variable[^/]*segment/.*/other-segment");
+
+        // then
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project"))).isTrue();
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/src"))).isTrue();
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/src/java/variable-segment"))).isTrue();
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/src/java/variable-segment/path/to/other-segment"))).isTrue();
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("project/src/java"))).withFailMessage("should ignore missing leading separator").isTrue();
+
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/node_modules"))).isFalse();
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/target/classes"))).isFalse();
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/other-project/src"))).isFalse();
+    }
+
+    @Test
+    public void should_tell_that_subfolders_of_matching_folder_do_not_match() throws Exception
+    {
+        // given
+        SourceFolderPath p = sourceFolderPath("project/src/[^/]*/java");
+
+        // then
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/src/main/java"))).isTrue();
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/src/main/java/org"))).isFalse();
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/src/main/resources"))).isFalse();
+    }
+
+    @Test
+    public void should_not_skip_folders_when_path_can_not_be_split_into_segments() throws Exception
+    {
+        // given
+        SourceFolderPath p = sourceFolderPath("project/(a|b)/.*");
+
+        // then
+        assertThat(p.mayMatchFolderOrSubfolder(new Path("/project/target"))).isTrue();
+    }
+
     private SourceFolderPath sourceFolderPath(String path)
     {
         return new SourceFolderPath(path, new InMemoryWorkspace());
@@ -647,4 +647,33 @@ public class TestFileNamePatternTest
         assertThat(result.getOtherCorrespondingFilePatterns()) //
         .hasSize(2).contains("\\Qsome*file\\E", "\\Qsome\\E");
     }
+
+    @Test
+    public void should_reuse_evaluation_of_same_file_name() throws Exception
+    {
+        TestFileNamePattern pattern = new TestFileNamePattern("${srcFile}(Test|Spec)", camelCaseTokenizer);
+
+        FileNameEvaluation evaluation = pattern.evaluate("MyFileTest");
+
+        assertThat(pattern.evaluate("MyFile").isTestFile()).isFalse();
+        assertThat(pattern.evaluate("MyFileTest")).isSameAs(evaluation);
+        assertThat(evaluation.getPreferredCorrespondingFilePatterns()).containsOnly("\\QMyFile\\E");
+    }
+
+    @Test
+    public void should_evaluate_consistently_once_evaluation_cache_is_full() throws Exception
+    {
+        TestFileNamePattern pattern = new TestFileNamePattern("${srcFile}Test", camelCaseTokenizer);
+
+        FileNameEvaluation firstEvaluation = pattern.evaluate("FirstTest");
+        for (int i = 0; i < TestFileNamePattern.MAX_CACHED_EVALUATIONS; i++)
+        {
+            pattern.evaluate("File" + i);
+        }
+
+        FileNameEvaluation newEvaluation = pattern.evaluate("FirstTest");
+        assertThat(newEvaluation.isTestFile()).isTrue();
+        assertThat(newEvaluation.getPreferredCorrespondingFileName()).isEqualTo(firstEvaluation.getPreferredCorrespondingFileName());
+        assertThat(newEvaluation.getPreferredCorrespondingFilePatterns()).containsExactlyElementsOf(firstEvaluation.getPreferredCorrespondingFilePatterns());
+    }
 }
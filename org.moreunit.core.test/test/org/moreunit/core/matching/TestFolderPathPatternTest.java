@@ -316,6 +316,18 @@ public class TestFolderPathPatternTest
         assertThat(p.getTestPathFor(path("com.example/src/dir/with [rangelike-123]")).toString()).isEqualTo("com.example/test/dir/with [rangelike-123]");
     }
 
+    @Test
+    public void getTestPathFor_should_memoize_results_per_folder() throws Exception
+    {
+        TestFolderPathPattern p = new TestFolderPathPattern("${srcProject}/src-(*)/code", "${srcProject}/test-\\1/code");
+
+        SourceFolderPath testPath = p.getTestPathFor(path("myproject/src-java/code/org"));
+
+        assertThat(p.getTestPathFor(path("myproject/src-java/code/org"))).isSameAs(testPath);
+        assertThat(p.getTestPathFor(path("myproject/src-js/code/org")).toString()).isEqualTo("myproject/test-js/code/org");
+        assertThat(p.getTestPathFor(path("otherproject/src-java/code")).toString()).isEqualTo("otherproject/test-java/code");
+    }
+
     @Test
     public void getSrcPathFor_should_find_src_path_when_no_variable_part() throws Exception
     {
@@ -457,6 +469,17 @@ public class TestFolderPathPatternTest
         assertThat(p.getSrcPathFor(path("com.example/test/dir/with [rangelike-123]")).toString()).isEqualTo("com.example/src/dir/with [rangelike-123]");
     }
 
+    @Test
+    public void getSrcPathFor_should_memoize_results_per_folder() throws Exception
+    {
+        TestFolderPathPattern p = new TestFolderPathPattern("${srcProject}/src-(*)/code", "${srcProject}/test-\\1/code");
+
+        SourceFolderPath srcPath = p.getSrcPathFor(path("myproject/test-java/code/org"));
+
+        assertThat(p.getSrcPathFor(path("myproject/test-java/code/org"))).isSameAs(srcPath);
+        assertThat(p.getSrcPathFor(path("myproject/test-js/code/org")).toString()).isEqualTo("myproject/src-js/code/org");
+    }
+
     private Path path(String pathStr)
     {
         return new InMemoryPath(pathStr);
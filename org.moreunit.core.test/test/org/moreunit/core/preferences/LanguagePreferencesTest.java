@@ -6,6 +6,7 @@ import static org.mockito.Mockito.mock;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.junit.Test;
 import org.moreunit.core.matching.TestFileNamePattern;
+import org.moreunit.core.matching.TestFolderPathPattern;
 
 public class LanguagePreferencesTest
 {
@@ -42,6 +43,63 @@ public class LanguagePreferencesTest
             .isSameAs(prefs.getTestFileNamePattern());
     }
 
+    @Test
+    public void should_cache_test_folder_path_patterns_and_share_them_between_instances() throws Exception
+    {
+        // given
+        LanguagePreferences prefs = preferencesWithFolderPathTemplates("${srcProject}/src", "${srcProject}/test");
+        LanguagePreferences otherPrefsWithSamePattern = preferencesWithFolderPathTemplates("${srcProject}/src", "${srcProject}/test");
+        LanguagePreferences otherPrefsWithDifferentPattern = preferencesWithFolderPathTemplates("${srcProject}/src", "${srcProject}-test/src");
+
+        TestFolderPathPattern pattern = prefs.getTestFolderPathPattern();
+
+        // then
+        assertThat(pattern).isSameAs(otherPrefsWithSamePattern.getTestFolderPathPattern());
+        assertThat(pattern).isNotSameAs(otherPrefsWithDifferentPattern.getTestFolderPathPattern());
+
+        // when
+        prefs.setValue("foo", "bar");
+
+        // then
+        assertThat(prefs.getTestFolderPathPattern()).isNotSameAs(pattern);
+    }
+
+    private LanguagePreferences preferencesWithFolderPathTemplates(final String srcTemplate, final String testTemplate)
+    {
+        return new LanguagePreferences(null, null)
+        {
+            @Override
+            public String getSrcFolderPathTemplate()
+            {
+                return srcTemplate;
+            }
+
+            @Override
+            public String getTestFolderPathTemplate()
+            {
+                return testTemplate;
+            }
+
+            @Override
+            public IPreferenceStore getStore()
+            {
+                return mock(IPreferenceStore.class);
+            }
+
+            @Override
+            public String getTestFileNameTemplate()
+            {
+                throw new UnsupportedOperationException("test implementation");
+            }
+
+            @Override
+            public String getFileWordSeparator()
+            {
+                throw new UnsupportedOperationException("test implementation");
+            }
+        };
+    }
+
     private LanguagePreferences preferencesWithTestFileNameTemplateAndSeparator(final String template, final String separator)
     {
         return new LanguagePreferences(null, null)
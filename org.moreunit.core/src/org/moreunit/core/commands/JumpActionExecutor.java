@@ -1,11 +1,18 @@
 package org.moreunit.core.commands;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.moreunit.core.extension.JumperExtensionManager;
 import org.moreunit.core.extension.jump.JumpResult;
 import org.moreunit.core.matching.DoesNotMatchConfigurationException;
+import org.moreunit.core.matching.MatchResult;
 import org.moreunit.core.matching.MatchingFile;
 import org.moreunit.core.resources.FolderCreationException;
+import org.moreunit.core.resources.SrcFile;
 import org.moreunit.core.ui.UserInterface;
 
 public class JumpActionExecutor
@@ -22,7 +29,7 @@ public class JumpActionExecutor
         execute(context.getSelection(), context.getUserInterface());
     }
 
-    private void execute(Selection selection, UserInterface ui)
+    private void execute(Selection selection, UserInterface ui) throws ExecutionException
     {
         SelectedSrcFile selectedFile = selection.getUniqueSrcFile();
         if(! selectedFile.isSupported())
@@ -39,7 +46,13 @@ public class JumpActionExecutor
         try
         {
             // TODO Nicolas refactor this part (listeners?)
-            MatchingFile match = selectedFile.getSrcFile().findUniqueMatch();
+            MatchResult matches = findMatches(selectedFile.getSrcFile(), ui);
+            if(matches == null)
+            {
+                return;
+            }
+
+            MatchingFile match = matches.getUniqueMatchingFile();
             if(match.isSearchCancelled())
             {
                 return;
@@ -66,4 +79,54 @@ public class JumpActionExecutor
             ui.showInfo(e.getPath() + " does not match your source folder preferences");
         }
     }
+
+    /**
+     * Searches for the files corresponding to the given one outside of the UI
+     * thread, so that a slow search does not freeze the workbench. Returns
+     * null if the user canceled the search.
+     */
+    private MatchResult findMatches(final SrcFile srcFile, UserInterface ui) throws DoesNotMatchConfigurationException, ExecutionException
+    {
+        final AtomicReference<MatchResult> result = new AtomicReference<MatchResult>();
+        try
+        {
+            ui.runInBackground(new IRunnableWithProgress()
+            {
+                public void run(IProgressMonitor monitor) throws InvocationTargetException, InterruptedException
+                {
+                    monitor.beginTask("Searching files corresponding to " + srcFile.getName(), IProgressMonitor.UNKNOWN);
+                    try
+                    {
+                        result.set(srcFile.findMatches(monitor));
+                    }
+                    catch (DoesNotMatchConfigurationException e)
+                    {
+                        throw new InvocationTargetException(e);
+                    }
+                    finally
+                    {
+                        monitor.done();
+                    }
+
+                    if(monitor.isCanceled())
+                    {
+                        throw new InterruptedException();
+                    }
+                }
+            });
+        }
+        catch (InvocationTargetException e)
+        {
+            if(e.getCause() instanceof DoesNotMatchConfigurationException)
+            {
+                throw (DoesNotMatchConfigurationException) e.getCause();
+            }
+            throw new ExecutionException("Could not search for files corresponding to " + srcFile.getName(), e.getCause());
+        }
+        catch (InterruptedException e)
+        {
+            return null;
+        }
+        return result.get();
+    }
 }
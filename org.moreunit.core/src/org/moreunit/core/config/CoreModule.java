@@ -17,6 +17,7 @@ import org.moreunit.core.log.Logger;
 import org.moreunit.core.matching.DefaultFileMatchSelector;
 import org.moreunit.core.matching.FileMatchSelector;
 import org.moreunit.core.matching.FileMatcher;
+import org.moreunit.core.matching.FileNameIndex;
 import org.moreunit.core.matching.SearchEngine;
 import org.moreunit.core.preferences.LanguagePageManager;
 import org.moreunit.core.preferences.Preferences;
@@ -44,6 +45,7 @@ public class CoreModule extends Module<CoreModule>
     private MainLanguageRepository languageRepository;
     private Preferences preferences;
     private ImageRegistry imageRegistry;
+    private FileNameIndex fileNameIndex;
 
     protected CoreModule(boolean override)
     {
@@ -80,6 +82,7 @@ public class CoreModule extends Module<CoreModule>
         imageRegistry = new ImageRegistry();
 
         languageExtensionManager = new LanguageExtensionManager(getContext(), logger);
+        registerService(languageExtensionManager);
 
         languageRepository = new MainLanguageRepository(preferences, languageExtensionManager);
         registerService(languageRepository);
@@ -87,11 +90,15 @@ public class CoreModule extends Module<CoreModule>
         pageManager = new LanguagePageManager(languageRepository, preferences, logger);
         registerService(pageManager);
         languageRepository.addListener(pageManager);
+
+        fileNameIndex = new FileNameIndex(logger);
+        registerService(fileNameIndex);
     }
 
     @Override
     protected void clean()
     {
+        fileNameIndex = null;
         pageManager = null;
         languageRepository = null;
         languageExtensionManager = null;
@@ -115,6 +122,11 @@ public class CoreModule extends Module<CoreModule>
         return new FileMatcher(srcFile, getSearchEngine(), getFileMatchSelector());
     }
 
+    public FileNameIndex getFileNameIndex()
+    {
+        return fileNameIndex;
+    }
+
     public FileMatchSelector getFileMatchSelector()
     {
         return new DefaultFileMatchSelector(getLogger());
@@ -162,7 +174,7 @@ public class CoreModule extends Module<CoreModule>
 
     public SearchEngine getSearchEngine()
     {
-        return new SearchEngine(TextSearchEngine.create(), getLogger());
+        return new SearchEngine(TextSearchEngine.create(), getFileNameIndex(), getLogger());
     }
 
     public UserInterface getUserInterface(IWorkbench workbench, IWorkbenchPage activePage, Shell activeShell)
@@ -2,23 +2,42 @@ package org.moreunit.core.extension;
 
 import static java.util.Arrays.asList;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtensionDelta;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryChangeEvent;
+import org.eclipse.core.runtime.IRegistryChangeListener;
+import org.eclipse.core.runtime.InvalidRegistryObjectException;
 import org.eclipse.core.runtime.Platform;
+import org.moreunit.core.config.Service;
 import org.moreunit.core.extension.jump.IJumper;
 import org.moreunit.core.languages.Language;
 import org.moreunit.core.log.Logger;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
-
-// TODO Nicolas: handle extension addition/removal
-public class LanguageExtensionManager
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+
+/**
+ * Gives access to the language extensions contributed to the point
+ * {@link ExtensionPoints#LANGUAGES}. The active extensions (the ones which
+ * conditions are met) are computed once and held in an immutable snapshot,
+ * which is only rebuilt after the extension registry or the installed bundles
+ * change.
+ */
+public class LanguageExtensionManager implements Service, IRegistryChangeListener, BundleListener
 {
     private static final String DEPENDENCY_COND_TYPE = "dependency";
     private static final String CLASS_ATTR = "class";
@@ -30,30 +49,119 @@ public class LanguageExtensionManager
     private static final String VALUE_ATTR = "value";
 
     private final BundleContext bundleContext;
+    private final IExtensionRegistry extensionRegistry;
     private final Logger logger;
+    private volatile Snapshot snapshot;
+    // incremented on invalidation, so that a snapshot being built meanwhile
+    // is not kept
+    private final AtomicLong generation = new AtomicLong();
 
     public LanguageExtensionManager(BundleContext bundleContext, Logger logger)
+    {
+        this(bundleContext, Platform.getExtensionRegistry(), logger);
+    }
+
+    // package-private for testing purposes
+    LanguageExtensionManager(BundleContext bundleContext, IExtensionRegistry extensionRegistry, Logger logger)
     {
         this.bundleContext = bundleContext;
+        this.extensionRegistry = extensionRegistry;
         this.logger = logger;
     }
 
+    public void start()
+    {
+        extensionRegistry.addRegistryChangeListener(this);
+        bundleContext.addBundleListener(this);
+    }
+
+    public void stop()
+    {
+        bundleContext.removeBundleListener(this);
+        extensionRegistry.removeRegistryChangeListener(this);
+        invalidate();
+    }
+
+    public void registryChanged(IRegistryChangeEvent event)
+    {
+        for (IExtensionDelta delta : event.getExtensionDeltas())
+        {
+            if(ExtensionPoints.LANGUAGES.equals(delta.getExtensionPoint().getUniqueIdentifier()))
+            {
+                invalidate();
+                return;
+            }
+        }
+    }
+
+    public void bundleChanged(BundleEvent event)
+    {
+        // conditions only depend on the presence of bundles
+        int type = event.getType();
+        if(type == BundleEvent.INSTALLED || type == BundleEvent.UNINSTALLED || type == BundleEvent.UPDATED)
+        {
+            invalidate();
+        }
+    }
+
+    private void invalidate()
+    {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
     public boolean extensionExistsForLanguage(String langId)
     {
-        return getLanguages().contains(new Language(langId));
+        return getSnapshot().languages.contains(new Language(langId));
     }
 
-    private Collection<Language> getLanguages()
+    private Snapshot getSnapshot()
     {
-        Collection<Language> languages = new HashSet<Language>();
+        Snapshot currentSnapshot = snapshot;
+        if(currentSnapshot != null)
+        {
+            return currentSnapshot;
+        }
 
-        for (IConfigurationElement cfg : Platform.getExtensionRegistry().getConfigurationElementsFor(ExtensionPoints.LANGUAGES))
+        synchronized (this)
+        {
+            currentSnapshot = snapshot;
+            if(currentSnapshot == null)
+            {
+                long generationBeforeBuild = generation.get();
+                currentSnapshot = buildSnapshot();
+                if(generation.get() == generationBeforeBuild)
+                {
+                    snapshot = currentSnapshot;
+                }
+            }
+            return currentSnapshot;
+        }
+    }
+
+    private Snapshot buildSnapshot()
+    {
+        Set<String> bundleNames = new HashSet<String>();
+        for (Bundle bundle : bundleContext.getBundles())
+        {
+            bundleNames.add(bundle.getSymbolicName());
+        }
+
+        Set<Language> languages = new HashSet<Language>();
+        Map<String, List<IConfigurationElement>> extensionsByFileExtension = new HashMap<String, List<IConfigurationElement>>();
+
+        for (IConfigurationElement cfg : extensionRegistry.getConfigurationElementsFor(ExtensionPoints.LANGUAGES))
         {
             try
             {
-                if(conditionsAreMet(cfg.getChildren(CONDITION_EL)))
+                if(conditionsAreMet(cfg.getChildren(CONDITION_EL), bundleNames))
                 {
-                    languages.add(new Language(cfg.getAttribute(FILE_EXTENSION_ATTR), cfg.getAttribute(NAME_ATTR)));
+                    String fileExtension = cfg.getAttribute(FILE_EXTENSION_ATTR);
+                    languages.add(new Language(fileExtension, cfg.getAttribute(NAME_ATTR)));
+                    if(fileExtension != null)
+                    {
+                        extensionsByFileExtension.computeIfAbsent(fileExtension.toLowerCase(), e -> new ArrayList<IConfigurationElement>(1)).add(cfg);
+                    }
                 }
             }
             catch (Exception e)
@@ -63,10 +171,10 @@ public class LanguageExtensionManager
             }
         }
 
-        return languages;
+        return new Snapshot(languages, extensionsByFileExtension);
     }
 
-    private boolean conditionsAreMet(IConfigurationElement[] conditionElements)
+    private static boolean conditionsAreMet(IConfigurationElement[] conditionElements, Set<String> bundleNames)
     {
         if(conditionElements == null)
         {
@@ -79,7 +187,7 @@ public class LanguageExtensionManager
             {
                 return false; // condition type is unknown
             }
-            if(! isDependencyPresent(condition.getAttribute(VALUE_ATTR)))
+            if(! bundleNames.contains(condition.getAttribute(VALUE_ATTR)))
             {
                 return false;
             }
@@ -88,32 +196,34 @@ public class LanguageExtensionManager
         return true;
     }
 
-    private boolean isDependencyPresent(String bundleId)
+    /**
+     * Returns the jumpers provided by the active language extensions matching
+     * the given file extension. Jumpers are instantiated lazily, as they are
+     * iterated on.
+     */
+    public Iterable<IJumper> getJumpersFor(String extension)
     {
-        Bundle[] bundles = bundleContext.getBundles();
-        for (int i = 0; i < bundles.length; i++)
+        List<IConfigurationElement> languageExtensions = extension == null ? null : getSnapshot().extensionsByFileExtension.get(extension.toLowerCase());
+        if(languageExtensions == null)
         {
-            Bundle bundle = bundles[i];
-            if(bundleId.equals(bundle.getSymbolicName()))
-            {
-                return true;
-            }
+            languageExtensions = Collections.emptyList();
         }
-        return false;
+        return new JumperIterable(new JumperIterator(languageExtensions.iterator(), this));
     }
 
-    public Iterable<IJumper> getJumpersFor(String extension)
+    /**
+     * The active language extensions, at a given time.
+     */
+    private static final class Snapshot
     {
-        // "Never join already wrapped lines"
-        return new JumperIterable( //
-        /**/new JumperIterator( //
-        /* * */new FilteredActiveLanguageExtensionIterator( //
-        /* * * */new ActiveLanguageExtensionIterator( //
-        /* * * * */new LanguageExtensionIterator() //
-        /* * * */, this) //
-        /* * */, extension) //
-        /**/, this) //
-        );
+        final Set<Language> languages;
+        final Map<String, List<IConfigurationElement>> extensionsByFileExtension;
+
+        Snapshot(Set<Language> languages, Map<String, List<IConfigurationElement>> extensionsByFileExtension)
+        {
+            this.languages = Collections.unmodifiableSet(languages);
+            this.extensionsByFileExtension = Collections.unmodifiableMap(extensionsByFileExtension);
+        }
     }
 
     private static class JumperIterable implements Iterable<IJumper>
@@ -207,7 +317,7 @@ public class LanguageExtensionManager
                     setCurrent((IJumper) jumper);
                     return true;
                 }
-                catch (CoreException e)
+                catch (CoreException | InvalidRegistryObjectException e)
                 {
                     mgr.logger.warn("Could not create instance of class defined by attribute " + CLASS_ATTR + " of element " + el.getName() + " from plug-in \"" + el.getContributor().getName() + "\" for point \"" + ExtensionPoints.LANGUAGES + "\": " + e.getMessage());
                     continue;
@@ -218,95 +328,6 @@ public class LanguageExtensionManager
         }
     }
 
-    /**
-     * Only returns language extensions matching the given file extension from
-     * the given iterator.
-     */
-    private static class FilteredActiveLanguageExtensionIterator extends AbstractIterator<IConfigurationElement>
-    {
-        private final Iterator<IConfigurationElement> languageExtensions;
-        private final String fileExtensionToConsider;
-
-        public FilteredActiveLanguageExtensionIterator(Iterator<IConfigurationElement> languageExtensions, String fileExtensionToConsider)
-        {
-            this.languageExtensions = languageExtensions;
-            this.fileExtensionToConsider = fileExtensionToConsider;
-        }
-
-        @Override
-        protected boolean doHasNext()
-        {
-            while (languageExtensions.hasNext())
-            {
-                setCurrent(languageExtensions.next());
-                if(fileExtensionToConsider.equalsIgnoreCase(current.getAttribute(FILE_EXTENSION_ATTR)))
-                {
-                    return true;
-                }
-            }
-            return false;
-        }
-    }
-
-    /**
-     * Only returns active language extensions from the given iterator.
-     */
-    private static class ActiveLanguageExtensionIterator extends AbstractIterator<IConfigurationElement>
-    {
-        private final LanguageExtensionManager mgr;
-        private final Iterator<IConfigurationElement> languageExtensions;
-
-        public ActiveLanguageExtensionIterator(Iterator<IConfigurationElement> languageExtensions, LanguageExtensionManager mgr)
-        {
-            this.languageExtensions = languageExtensions;
-            this.mgr = mgr;
-        }
-
-        @Override
-        protected boolean doHasNext()
-        {
-            while (languageExtensions.hasNext())
-            {
-                setCurrent(languageExtensions.next());
-                if(mgr.conditionsAreMet(current.getChildren(CONDITION_EL)))
-                {
-                    return true;
-                }
-            }
-            return false;
-        }
-    }
-
-    /**
-     * Starting point: asks the platform for extensions on point
-     * {@link ExtensionPoints#LANGUAGES}.
-     */
-    private static class LanguageExtensionIterator extends AbstractIterator<IConfigurationElement>
-    {
-        private IConfigurationElement[] languageCfgElements;
-        private int currentIdx;
-
-        @Override
-        protected boolean doHasNext()
-        {
-            if(languageCfgElements == null)
-            {
-                languageCfgElements = Platform.getExtensionRegistry().getConfigurationElementsFor(ExtensionPoints.LANGUAGES);
-                if(languageCfgElements == null)
-                {
-                    return false;
-                }
-            }
-            return currentIdx + 1 <= languageCfgElements.length;
-        }
-
-        @Override
-        protected IConfigurationElement doNext()
-        {
-            return languageCfgElements[currentIdx++];
-        }
-    }
-
     /**
      * Implements {@link #remove()}, caches the result of {@link #hasNext()}
      * between two calls to {@link #next()}, and caches the current item when
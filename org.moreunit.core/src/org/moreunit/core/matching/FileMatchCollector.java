@@ -5,19 +5,35 @@ import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
 import org.eclipse.search.core.text.TextSearchRequestor;
 
 public abstract class FileMatchCollector extends TextSearchRequestor
 {
     private final Set<IFile> results = new LinkedHashSet<IFile>();
+    private final IProgressMonitor monitor;
+    private int visitedFileCount;
 
     private final SourceFolderPath correspondingSrcFolder;
     private final boolean checkFolder;
 
     protected FileMatchCollector(SourceFolderPath correspondingSrcFolder)
+    {
+        this(correspondingSrcFolder, new NullProgressMonitor());
+    }
+
+    /**
+     * Creates a collector which search also stops when the given monitor is
+     * canceled (typically by the user).
+     */
+    protected FileMatchCollector(SourceFolderPath correspondingSrcFolder, IProgressMonitor searchMonitor)
     {
         this.correspondingSrcFolder = correspondingSrcFolder;
         checkFolder = ! correspondingSrcFolder.isResolved();
+        monitor = new CollectorMonitor(searchMonitor);
     }
 
     @Override
@@ -28,16 +44,52 @@ public abstract class FileMatchCollector extends TextSearchRequestor
             return true;
         }
 
+        collect(file);
+        return false;
+    }
+
+    /**
+     * Collects the given candidate files (typically found in a
+     * {@link FileNameIndex}), until the search is over.
+     */
+    public void collect(Iterable<IFile> files)
+    {
+        for (IFile file : files)
+        {
+            if(searchIsOver() || monitor.isCanceled())
+            {
+                return;
+            }
+            collect(file);
+        }
+    }
+
+    private void collect(IFile file)
+    {
+        visitedFileCount++;
         if(matches(file))
         {
             matchFound(file);
             results.add(file);
+
+            if(searchIsOver())
+            {
+                monitor.setCanceled(true);
+            }
         }
-        return false;
     }
 
     protected abstract boolean searchIsOver();
 
+    /**
+     * Returns false if no file collected from the given folder or from its
+     * subfolders can match, so that searches may skip it.
+     */
+    public boolean mayContainMatches(IPath folderPath)
+    {
+        return ! checkFolder || correspondingSrcFolder.mayMatchFolderOrSubfolder(folderPath);
+    }
+
     private boolean matches(IFile file)
     {
         return ! checkFolder || correspondingSrcFolder.matches(file);
@@ -50,8 +102,52 @@ public abstract class FileMatchCollector extends TextSearchRequestor
     {
     }
 
+    /**
+     * Returns a monitor that gets canceled as soon as the search is over, or
+     * when the monitor given at creation time is canceled, so that searches may
+     * stop walking the file tree.
+     */
+    public IProgressMonitor getProgressMonitor()
+    {
+        return monitor;
+    }
+
+    /**
+     * Returns the number of files that were handed over to this collector.
+     */
+    public int getVisitedFileCount()
+    {
+        return visitedFileCount;
+    }
+
     public Set<IFile> getResults()
     {
         return results;
     }
+
+    /**
+     * Canceling this monitor when the search is over must not cancel the
+     * wrapped one, which would look like a cancellation by the user.
+     */
+    private static final class CollectorMonitor extends ProgressMonitorWrapper
+    {
+        private volatile boolean canceled;
+
+        CollectorMonitor(IProgressMonitor monitor)
+        {
+            super(monitor);
+        }
+
+        @Override
+        public boolean isCanceled()
+        {
+            return canceled || super.isCanceled();
+        }
+
+        @Override
+        public void setCanceled(boolean canceled)
+        {
+            this.canceled = canceled;
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package org.moreunit.core.matching;
 
 import java.util.Collection;
-import java.util.regex.Pattern;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 
 import org.moreunit.core.resources.Resource;
 import org.moreunit.core.resources.SrcFile;
@@ -20,11 +22,20 @@ public class FileMatcher
     }
 
     public MatchResult match(MatchStrategy strategy) throws DoesNotMatchConfigurationException
+    {
+        return match(strategy, new NullProgressMonitor());
+    }
+
+    /**
+     * Same as {@link #match(MatchStrategy)}, stopping the search when the
+     * given monitor is canceled.
+     */
+    public MatchResult match(MatchStrategy strategy, IProgressMonitor monitor) throws DoesNotMatchConfigurationException
     {
         FileNameEvaluation nameEvaluation = file.evaluateName();
         SourceFolderPath correspondingSrcFolder = file.findCorrespondingSrcFolder();
 
-        FileMatchCollector matchCollector = strategy.createMatchCollector(correspondingSrcFolder);
+        FileMatchCollector matchCollector = strategy.createMatchCollector(correspondingSrcFolder, monitor);
         Resource searchFolder = correspondingSrcFolder.getResolvedPartAsResource();
 
         searchFor(nameEvaluation.getAllCorrespondingFilePatterns(), searchFolder, matchCollector);
@@ -34,49 +45,11 @@ public class FileMatcher
 
     private void searchFor(Collection<String> filePatterns, Resource searchFolder, FileMatchCollector matchCollector)
     {
-        if(filePatterns.isEmpty())
-            return;
-
-        Pattern fileNamePattern2 = createFileNamePattern(file, filePatterns);
-        searchEngine.searchFiles(searchFolder, fileNamePattern2, matchCollector);
+        searchEngine.searchFiles(searchFolder, filePatterns, file.getExtension(), matchCollector);
     }
 
     private String createPreferredFileName(FileNameEvaluation evaluation)
     {
         return evaluation.getPreferredCorrespondingFileName() + "." + file.getExtension();
     }
-
-    private Pattern createFileNamePattern(SrcFile file, Collection<String> correspondingFileNames)
-    {
-        StringBuilder sb = null;
-        // creates an OR pattern with file names
-        for (String fileName : correspondingFileNames)
-        {
-            if(sb == null)
-            {
-                sb = new StringBuilder("(");
-            }
-            else
-            {
-                sb.append("|");
-            }
-            sb.append(fileName);
-        }
-
-        sb.append(")");
-
-        String extension = file.getExtension();
-
-        // creates an OR pattern with the file extension: same case OR lower
-        // case OR upper case (so a file having an extension with a mixed case
-        // different to the one of the current file won't be found, unless we
-        // discover how to specify that only a pattern part should be case
-        // insensitive)
-        sb.append("\\.(").append(extension) //
-        .append("|").append(extension.toLowerCase()) //
-        .append("|").append(extension.toUpperCase()) //
-        .append(")");
-
-        return Pattern.compile(sb.toString());
-    }
 }
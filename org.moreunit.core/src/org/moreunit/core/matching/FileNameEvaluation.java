@@ -2,14 +2,15 @@ package org.moreunit.core.matching;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
 import org.moreunit.core.util.StringConstants;
 
 /**
- * The result of a file name evaluation by a {@link TestFileNamePattern pattern}
- * . It contains answers to the following questions:
+ * The (immutable) result of a file name evaluation by a
+ * {@link TestFileNamePattern pattern}. It contains answers to the following questions:
  * <ul>
  * <li>Does the evaluated file name correspond to a <strong>source file</strong>
  * or a <strong>test file</strong>, according to the pattern?</li>
@@ -47,7 +48,8 @@ public final class FileNameEvaluation
         {
             result.add(SUCCESSIVE_QUOTE_SEPARATORS.matcher(pattern).replaceAll(""));
         }
-        return result;
+        // evaluations may be shared
+        return Collections.unmodifiableList(result);
     }
 
     /**
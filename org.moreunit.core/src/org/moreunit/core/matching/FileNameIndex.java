@@ -0,0 +1,383 @@
+package org.moreunit.core.matching;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.moreunit.core.config.Service;
+import org.moreunit.core.log.Logger;
+
+/**
+ * An index of the files of each project, keyed by file extension and base
+ * name, allowing for finding files by name without walking the file tree.
+ * <p>
+ * The index of a project is built the first time it is queried, then kept up
+ * to date from resource deltas. As with the text search it replaces, derived
+ * resources are not indexed, nor are team private and hidden ones. An index built while files of its project were
+ * added, removed or moved is only used for the current query; other changes
+ * (markers, file contents, build output) do not affect it.
+ */
+public class FileNameIndex implements Service, IResourceChangeListener
+{
+    private static final Pattern QUOTED_LITERAL = Pattern.compile("^\\\\Q((?:(?!\\\\E).)*)\\\\E$");
+
+    private final Map<String, ProjectIndex> projectIndexes = new ConcurrentHashMap<String, ProjectIndex>();
+    // project name -> generation, incremented when indexed files change
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<String, AtomicLong>();
+    private final Logger logger;
+
+    public FileNameIndex(Logger logger)
+    {
+        this.logger = logger;
+    }
+
+    @Override
+    public void start()
+    {
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+    }
+
+    @Override
+    public void stop()
+    {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        projectIndexes.clear();
+    }
+
+    /**
+     * Returns the files located under the given root resource, which extension
+     * is the given one - either with the same case, in lower case or in upper
+     * case - and which base name matches any of the given patterns. Files are
+     * returned in pattern order.
+     *
+     * @return the matching files, or <code>null</code> if the root resource
+     *         can not be looked up in the index (inaccessible project for
+     *         instance)
+     */
+    public Collection<IFile> findFiles(IResource rootResource, Collection<String> baseNamePatterns, String extension)
+    {
+        ProjectIndex projectIndex = getProjectIndex(rootResource.getProject());
+        if(projectIndex == null)
+        {
+            return null;
+        }
+
+        Map<String, Set<IFile>> filesByBaseName = projectIndex.getFilesByBaseName(extension);
+        Set<IFile> result = new LinkedHashSet<IFile>();
+        if(filesByBaseName == null)
+        {
+            return result;
+        }
+
+        for (String baseNamePattern : baseNamePatterns)
+        {
+            Matcher literalMatcher = QUOTED_LITERAL.matcher(baseNamePattern);
+            if(literalMatcher.matches())
+            {
+                addFiles(result, filesByBaseName.get(literalMatcher.group(1)), rootResource, extension);
+            }
+            else
+            {
+                Pattern pattern = Pattern.compile(baseNamePattern);
+                for (Map.Entry<String, Set<IFile>> entry : filesByBaseName.entrySet())
+                {
+                    if(pattern.matcher(entry.getKey()).matches())
+                    {
+                        addFiles(result, entry.getValue(), rootResource, extension);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addFiles(Set<IFile> result, Set<IFile> files, IResource rootResource, String extension)
+    {
+        if(files == null)
+        {
+            return;
+        }
+
+        for (IFile file : files)
+        {
+            if(hasExtension(file, extension) && rootResource.getFullPath().isPrefixOf(file.getFullPath()))
+            {
+                result.add(file);
+            }
+        }
+    }
+
+    private static boolean hasExtension(IFile file, String extension)
+    {
+        String fileExtension = file.getFileExtension();
+        return extension.equals(fileExtension) || extension.toLowerCase().equals(fileExtension) || extension.toUpperCase().equals(fileExtension);
+    }
+
+    private ProjectIndex getProjectIndex(IProject project)
+    {
+        if(project == null || ! project.isAccessible())
+        {
+            return null;
+        }
+
+        ProjectIndex projectIndex = projectIndexes.get(project.getName());
+        if(projectIndex != null)
+        {
+            return projectIndex;
+        }
+
+        AtomicLong generation = generations.computeIfAbsent(project.getName(), n -> new AtomicLong());
+        long generationBeforeBuild = generation.get();
+        projectIndex = new ProjectIndex();
+        try
+        {
+            projectIndex.build(project);
+        }
+        catch (CoreException e)
+        {
+            logger.error("Could not index files of project " + project.getName(), e);
+            return null;
+        }
+
+        // if files of the project changed while indexing, the index may miss
+        // some of them: it is only used for the current query
+        if(generation.get() == generationBeforeBuild)
+        {
+            projectIndexes.put(project.getName(), projectIndex);
+            if(generation.get() != generationBeforeBuild)
+            {
+                projectIndexes.remove(project.getName(), projectIndex);
+            }
+        }
+        return projectIndex;
+    }
+
+    // package-private for testing purposes
+    boolean isIndexed(IProject project)
+    {
+        return projectIndexes.containsKey(project.getName());
+    }
+
+    /**
+     * Returns true if the given delta adds, removes or moves files that are
+     * indexed, or changes the derived flag of resources. Changes of markers or
+     * of file contents, as well as changes in derived folders (typically build
+     * output), return false.
+     */
+    static boolean changesIndexedFiles(IResourceDelta delta)
+    {
+        if((delta.getFlags() & IResourceDelta.DERIVED_CHANGED) != 0)
+        {
+            return true;
+        }
+
+        IResource resource = delta.getResource();
+        boolean addedOrRemoved = delta.getKind() == IResourceDelta.ADDED || delta.getKind() == IResourceDelta.REMOVED;
+        switch (resource.getType())
+        {
+        case IResource.FILE:
+            return addedOrRemoved && ! resource.isDerived(IResource.CHECK_ANCESTORS);
+        case IResource.PROJECT:
+            if(addedOrRemoved || (delta.getFlags() & IResourceDelta.OPEN) != 0)
+            {
+                return true;
+            }
+            break;
+        default:
+            if(resource.isDerived(IResource.CHECK_ANCESTORS))
+            {
+                return false;
+            }
+            break;
+        }
+
+        for (IResourceDelta child : delta.getAffectedChildren())
+        {
+            if(changesIndexedFiles(child))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event)
+    {
+        IResourceDelta delta = event.getDelta();
+        if(delta == null)
+        {
+            return;
+        }
+
+        for (IResourceDelta projectDelta : delta.getAffectedChildren())
+        {
+            if(! changesIndexedFiles(projectDelta))
+            {
+                continue;
+            }
+
+            IProject project = (IProject) projectDelta.getResource();
+            AtomicLong generation = generations.get(project.getName());
+            if(generation != null)
+            {
+                generation.incrementAndGet();
+            }
+
+            ProjectIndex projectIndex = projectIndexes.get(project.getName());
+            if(projectIndex == null)
+            {
+                continue;
+            }
+
+            if(projectDelta.getKind() == IResourceDelta.REMOVED || (projectDelta.getFlags() & IResourceDelta.OPEN) != 0)
+            {
+                projectIndexes.remove(project.getName());
+                generations.remove(project.getName());
+                continue;
+            }
+
+            try
+            {
+                projectDelta.accept(projectIndex);
+                if(projectIndex.stale)
+                {
+                    projectIndexes.remove(project.getName());
+                }
+            }
+            catch (CoreException e)
+            {
+                projectIndexes.remove(project.getName());
+                logger.error("Could not update file index of project " + project.getName(), e);
+            }
+        }
+    }
+
+    private static final class ProjectIndex implements IResourceProxyVisitor, IResourceDeltaVisitor
+    {
+        // extension (lower case) -> base name -> files
+        private final Map<String, Map<String, Set<IFile>>> files = new ConcurrentHashMap<String, Map<String, Set<IFile>>>();
+        private boolean stale;
+
+        void build(IProject project) throws CoreException
+        {
+            project.accept(this, IResource.NONE);
+        }
+
+        Map<String, Set<IFile>> getFilesByBaseName(String extension)
+        {
+            return files.get(extension.toLowerCase());
+        }
+
+        @Override
+        public boolean visit(IResourceProxy proxy)
+        {
+            // build output, SCM metadata (.git, .svn...) and hidden
+            // resources never contain files to match
+            if(proxy.isDerived() || proxy.isTeamPrivateMember() || proxy.isHidden())
+            {
+                return false;
+            }
+            if(proxy.getType() == IResource.FILE)
+            {
+                add((IFile) proxy.requestResource());
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean visit(IResourceDelta delta)
+        {
+            IResource resource = delta.getResource();
+            if(resource.isTeamPrivateMember() || resource.isHidden())
+            {
+                return false;
+            }
+            if(resource.getType() != IResource.FILE)
+            {
+                // the derived flag of a folder applies to its whole content:
+                // simpler to rebuild the index
+                if((delta.getFlags() & IResourceDelta.DERIVED_CHANGED) != 0)
+                {
+                    stale = true;
+                    return false;
+                }
+                // derived folders are not indexed
+                return ! resource.isDerived(IResource.CHECK_ANCESTORS);
+            }
+
+            IFile file = (IFile) resource;
+            if(delta.getKind() == IResourceDelta.REMOVED)
+            {
+                remove(file);
+            }
+            else if(delta.getKind() == IResourceDelta.ADDED || (delta.getFlags() & IResourceDelta.DERIVED_CHANGED) != 0)
+            {
+                if(file.isDerived(IResource.CHECK_ANCESTORS))
+                {
+                    remove(file);
+                }
+                else
+                {
+                    add(file);
+                }
+            }
+            return false;
+        }
+
+        private void add(IFile file)
+        {
+            String extension = file.getFileExtension();
+            if(extension == null)
+            {
+                return;
+            }
+
+            files.computeIfAbsent(extension.toLowerCase(), e -> new ConcurrentHashMap<String, Set<IFile>>()) //
+                    .computeIfAbsent(baseNameOf(file), n -> ConcurrentHashMap.newKeySet()) //
+                    .add(file);
+        }
+
+        private void remove(IFile file)
+        {
+            String extension = file.getFileExtension();
+            if(extension == null)
+            {
+                return;
+            }
+
+            Map<String, Set<IFile>> filesByBaseName = files.get(extension.toLowerCase());
+            if(filesByBaseName != null)
+            {
+                Set<IFile> filesWithSameName = filesByBaseName.get(baseNameOf(file));
+                if(filesWithSameName != null)
+                {
+                    filesWithSameName.remove(file);
+                }
+            }
+        }
+
+        private static String baseNameOf(IFile file)
+        {
+            String name = file.getName();
+            return name.substring(0, name.length() - file.getFileExtension().length() - 1);
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package org.moreunit.core.matching;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 
 public enum MatchStrategy
 {
     ALL_MATCHES
     {
         @Override
-        public FileMatchCollector createMatchCollector(SourceFolderPath correspondingSrcFolder)
+        public FileMatchCollector createMatchCollector(SourceFolderPath correspondingSrcFolder, IProgressMonitor monitor)
         {
-            return new FileMatchCollector(correspondingSrcFolder)
+            return new FileMatchCollector(correspondingSrcFolder, monitor)
             {
                 @Override
                 protected boolean searchIsOver()
@@ -22,9 +24,9 @@ public enum MatchStrategy
     ANY_MATCH
     {
         @Override
-        public FileMatchCollector createMatchCollector(SourceFolderPath correspondingSrcFolder)
+        public FileMatchCollector createMatchCollector(SourceFolderPath correspondingSrcFolder, IProgressMonitor monitor)
         {
-            return new FileMatchCollector(correspondingSrcFolder)
+            return new FileMatchCollector(correspondingSrcFolder, monitor)
             {
                 private volatile boolean oneMatchFound;
 
@@ -42,5 +44,14 @@ public enum MatchStrategy
         }
     };
 
-    public abstract FileMatchCollector createMatchCollector(SourceFolderPath correspondingSrcFolder);
+    public FileMatchCollector createMatchCollector(SourceFolderPath correspondingSrcFolder)
+    {
+        return createMatchCollector(correspondingSrcFolder, new NullProgressMonitor());
+    }
+
+    /**
+     * Creates a collector which search stops when the given monitor is
+     * canceled.
+     */
+    public abstract FileMatchCollector createMatchCollector(SourceFolderPath correspondingSrcFolder, IProgressMonitor monitor);
 }
@@ -1,9 +1,16 @@
 package org.moreunit.core.matching;
 
+import java.util.Collection;
 import java.util.regex.Pattern;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.search.core.text.TextSearchEngine;
 import org.eclipse.search.core.text.TextSearchRequestor;
 import org.eclipse.search.core.text.TextSearchScope;
@@ -15,19 +22,69 @@ public class SearchEngine
     private static final Pattern ANY_CONTENT = Pattern.compile("");
 
     private final TextSearchEngine searchEngine;
+    private final FileNameIndex fileNameIndex;
     private final Logger logger;
 
     public SearchEngine(TextSearchEngine searchEngine, Logger logger)
+    {
+        this(searchEngine, null, logger);
+    }
+
+    public SearchEngine(TextSearchEngine searchEngine, FileNameIndex fileNameIndex, Logger logger)
     {
         this.searchEngine = searchEngine;
+        this.fileNameIndex = fileNameIndex;
         this.logger = logger;
     }
 
+    /**
+     * Searches for files located under the given root resource, which base
+     * name matches any of the given patterns and which extension is the given
+     * one (either with the same case, in lower case or in upper case). The
+     * {@link FileNameIndex} is used when available, otherwise the file tree is
+     * walked, skipping the folders in which the collector can not find matches
+     * and stopping as soon as the
+     * {@link FileMatchCollector#getProgressMonitor() monitor of the collector}
+     * is canceled.
+     */
+    public void searchFiles(Resource rootResource, Collection<String> fileBaseNamePatterns, String extension, FileMatchCollector collector)
+    {
+        if(fileBaseNamePatterns.isEmpty())
+        {
+            return;
+        }
+
+        IResource platformResource = rootResource.getUnderlyingPlatformResource();
+        if(fileNameIndex != null && platformResource != null)
+        {
+            try
+            {
+                Collection<IFile> files = fileNameIndex.findFiles(platformResource, fileBaseNamePatterns, extension);
+                if(files != null)
+                {
+                    collector.collect(files);
+                    return;
+                }
+            }
+            catch (Exception e)
+            {
+                logger.error("Index lookup failed, falling back to file search", e);
+            }
+        }
+
+        walkFiles(platformResource, createFileNamePattern(fileBaseNamePatterns, extension), collector);
+
+        if(logger.debugEnabled())
+        {
+            logger.debug("Searched " + rootResource + ": " + collector.getVisitedFileCount() + " file(s) visited" + (collector.getProgressMonitor().isCanceled() ? ", search stopped early" : ""));
+        }
+    }
+
     public void searchFiles(Resource rootResource, Pattern fileNamePattern, TextSearchRequestor requestor)
     {
         try
         {
-            TextSearchScope scope = createScope(rootResource.getUnderlyingPlatformResource(), fileNamePattern);
+            TextSearchScope scope = TextSearchScope.newSearchScope(new IResource[] { rootResource.getUnderlyingPlatformResource() }, fileNamePattern, false);
             IStatus searchStatus = searchEngine.search(scope, requestor, ANY_CONTENT, null);
 
             if(searchStatus.getCode() != IStatus.OK)
@@ -41,8 +98,89 @@ public class SearchEngine
         }
     }
 
-    private TextSearchScope createScope(IResource rootResource, Pattern fileNamePattern)
+    /**
+     * Walks the file tree instead of delegating to the text search engine,
+     * which lists all the files in scope before handing over the first one:
+     * files are handed over to the collector as soon as they are found.
+     */
+    private void walkFiles(IResource rootResource, Pattern fileNamePattern, final FileMatchCollector collector)
     {
-        return TextSearchScope.newSearchScope(new IResource[] { rootResource }, fileNamePattern, false);
+        final IProgressMonitor monitor = collector.getProgressMonitor();
+        try
+        {
+            if(! rootResource.isAccessible())
+            {
+                return;
+            }
+
+            final TextSearchScope scope = TextSearchScope.newSearchScope(new IResource[] { rootResource }, fileNamePattern, false);
+
+            rootResource.accept(new IResourceProxyVisitor()
+            {
+                public boolean visit(IResourceProxy proxy) throws CoreException
+                {
+                    if(monitor.isCanceled())
+                    {
+                        throw new OperationCanceledException();
+                    }
+
+                    if(proxy.getType() == IResource.FOLDER && ! collector.mayContainMatches(proxy.requestFullPath()))
+                    {
+                        return false;
+                    }
+                    if(! scope.contains(proxy))
+                    {
+                        return false;
+                    }
+
+                    if(proxy.getType() == IResource.FILE)
+                    {
+                        collector.acceptFile((IFile) proxy.requestResource());
+                        return false;
+                    }
+                    return true;
+                }
+            }, IResource.NONE);
+        }
+        catch (OperationCanceledException e)
+        {
+            // the search is over
+        }
+        catch (Exception e)
+        {
+            logger.error("Search failed", e);
+        }
+    }
+
+    private static Pattern createFileNamePattern(Collection<String> fileBaseNamePatterns, String extension)
+    {
+        StringBuilder sb = null;
+        // creates an OR pattern with file names
+        for (String fileName : fileBaseNamePatterns)
+        {
+            if(sb == null)
+            {
+                sb = new StringBuilder("(");
+            }
+            else
+            {
+                sb.append("|");
+            }
+            sb.append(fileName);
+        }
+
+        sb.append(")");
+
+        // creates an OR pattern with the file extension: same case OR lower
+        // case OR upper case (so a file having an extension with a mixed case
+        // different to the one of the current file won't be found, unless we
+        // discover how to specify that only a pattern part should be case
+        // insensitive)
+        sb.append("\\.(").append(extension) //
+        .append("|").append(extension.toLowerCase()) //
+        .append("|").append(extension.toUpperCase()) //
+        .append(")");
+
+        return Pattern.compile(sb.toString());
     }
 }
@@ -2,17 +2,35 @@ package org.moreunit.core.matching;
 
 import static org.moreunit.core.config.CoreModule.$;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
 import org.moreunit.core.resources.ContainerCreationRecord;
 import org.moreunit.core.resources.Folder;
 import org.moreunit.core.resources.Path;
 import org.moreunit.core.resources.Resource;
 import org.moreunit.core.resources.Workspace;
 
+/**
+ * The path of a source folder, which may contain variable parts: a
+ * <tt>[^/]*</tt> segment part stands for any segment part, and a <tt>.*</tt>
+ * segment stands for any number of segments.
+ */
 public class SourceFolderPath
 {
+    // stands for a variable number of segments in the list of segment patterns
+    private static final Pattern ANY_SEGMENTS = Pattern.compile(".*");
+    private static final List<Pattern> UNSPLITTABLE = new ArrayList<Pattern>();
+
     private final Path path;
     private final Workspace workspace;
+    // lazily compiled
+    private volatile Pattern pattern;
+    private volatile List<Pattern> segmentPatterns;
 
     public SourceFolderPath(String path)
     {
@@ -76,7 +94,167 @@ public class SourceFolderPath
         {
             folder = folder.substring(1);
         }
-        return folder.matches(path.toString());
+        return getPattern().matcher(folder).matches();
+    }
+
+    private Pattern getPattern()
+    {
+        Pattern p = pattern;
+        if(p == null)
+        {
+            p = Pattern.compile(path.toString());
+            pattern = p;
+        }
+        return p;
+    }
+
+    /**
+     * Returns false when neither the given folder nor any of its subfolders
+     * can match this path, so that a search may skip the folder. Segments are
+     * matched one by one, a dot never matching a separator. Returns true when
+     * this path can not be split into segments.
+     */
+    public boolean mayMatchFolderOrSubfolder(IPath folderPath)
+    {
+        List<Pattern> segments = getSegmentPatterns();
+        if(segments == UNSPLITTABLE)
+        {
+            return true;
+        }
+
+        int segmentCount = segments.size();
+        // states[i]: the folder segments seen so far match the i first
+        // segment patterns
+        boolean[] states = new boolean[segmentCount + 1];
+        states[0] = true;
+        addAnySegmentsTransitions(segments, states);
+
+        for (String folderSegment : folderPath.segments())
+        {
+            boolean[] nextStates = new boolean[segmentCount + 1];
+            boolean anyState = false;
+            for (int i = 0; i < segmentCount; i++)
+            {
+                if(! states[i])
+                {
+                    continue;
+                }
+                Pattern segment = segments.get(i);
+                if(segment == ANY_SEGMENTS)
+                {
+                    nextStates[i] = true;
+                    anyState = true;
+                }
+                else if(segment.matcher(folderSegment).matches())
+                {
+                    nextStates[i + 1] = true;
+                    anyState = true;
+                }
+            }
+
+            if(! anyState)
+            {
+                return false;
+            }
+            addAnySegmentsTransitions(segments, nextStates);
+            states = nextStates;
+        }
+        return true;
+    }
+
+    private static void addAnySegmentsTransitions(List<Pattern> segments, boolean[] states)
+    {
+        // any segments may be empty (which is more permissive than the whole
+        // path pattern, thus safe)
+        for (int i = 0; i < segments.size(); i++)
+        {
+            if(states[i] && segments.get(i) == ANY_SEGMENTS)
+            {
+                states[i + 1] = true;
+            }
+        }
+    }
+
+    private List<Pattern> getSegmentPatterns()
+    {
+        List<Pattern> segments = segmentPatterns;
+        if(segments == null)
+        {
+            segments = splitIntoSegmentPatterns(path.toString());
+            segmentPatterns = segments;
+        }
+        return segments;
+    }
+
+    /**
+     * Splits the given path pattern into segment patterns, or returns
+     * {@link #UNSPLITTABLE} if some parts of the pattern may match more than a
+     * segment (other than <tt>.*</tt> segments), or if it can not be parsed.
+     */
+    private static List<Pattern> splitIntoSegmentPatterns(String pathPattern)
+    {
+        if(pathPattern.contains("\\") || pathPattern.contains("(") || pathPattern.contains(")") || pathPattern.contains("|"))
+        {
+            return UNSPLITTABLE;
+        }
+
+        List<String> segments = new ArrayList<String>();
+        StringBuilder segment = new StringBuilder();
+        boolean inCharClass = false;
+        for (char c : pathPattern.toCharArray())
+        {
+            if(c == '/' && ! inCharClass)
+            {
+                segments.add(segment.toString());
+                segment.setLength(0);
+                continue;
+            }
+            if(c == '[')
+            {
+                inCharClass = true;
+            }
+            else if(c == ']')
+            {
+                inCharClass = false;
+            }
+            segment.append(c);
+        }
+        segments.add(segment.toString());
+
+        if(inCharClass)
+        {
+            return UNSPLITTABLE;
+        }
+        if(segments.get(0).length() == 0)
+        {
+            // leading separator
+            segments.remove(0);
+        }
+
+        List<Pattern> patterns = new ArrayList<Pattern>(segments.size());
+        for (String s : segments)
+        {
+            if(s.equals(".*"))
+            {
+                patterns.add(ANY_SEGMENTS);
+            }
+            else if(s.contains(".*") || s.length() == 0)
+            {
+                return UNSPLITTABLE;
+            }
+            else
+            {
+                try
+                {
+                    patterns.add(Pattern.compile(s));
+                }
+                catch (PatternSyntaxException e)
+                {
+                    return UNSPLITTABLE;
+                }
+            }
+        }
+        return patterns;
     }
 
     public ContainerCreationRecord createResolvedPartIfItDoesNotExist()
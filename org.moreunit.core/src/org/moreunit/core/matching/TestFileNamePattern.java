@@ -4,7 +4,6 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
 import static java.util.Collections.sort;
-import static java.util.regex.Matcher.quoteReplacement;
 import static java.util.regex.Pattern.compile;
 import static java.util.regex.Pattern.quote;
 
@@ -12,6 +11,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.moreunit.core.matching.NameTokenizer.TokenizationResult;
@@ -124,9 +125,18 @@ import org.moreunit.core.matching.TestFileNamePatternParser.UserDefinedPart;
  * Combinations of words found "in the middle" of the test file name (
  * {@code "CccDdd"}, {@code "Ccc"}, {@code "Ddd"}) would be discarded.
  * </p>
+ * <h2>Performance</h2>
+ * <p>
+ * Everything that only depends on the template is computed once, when the
+ * pattern is created. Evaluations are immutable and memoized per file name (up
+ * to {@value #MAX_CACHED_EVALUATIONS} names), so that evaluating the same name
+ * again is a simple lookup.
+ * </p>
  */
 public final class TestFileNamePattern
 {
+    static final int MAX_CACHED_EVALUATIONS = 32 * 1024;
+
     public static final String SRC_FILE_VARIABLE = TestFileNamePatternParser.SRC_FILE_VARIABLE;
     private static final Pattern SRC_FILE_VARIABLE_PATTERN = compile(quote(SRC_FILE_VARIABLE));
 
@@ -169,6 +179,12 @@ public final class TestFileNamePattern
     private final String patternString;
     private final List<Group> groups;
     private final Collection<Pattern> patterns;
+    private final Pattern testPrefixPattern;
+    private final Pattern testSuffixPattern;
+    private final List<PatternParts> preferredTestFilePatternParts;
+    private final List<PatternParts> otherTestFilePatternParts;
+    private final PatternParts preferredTestFileNameParts;
+    private final Map<String, FileNameEvaluation> evaluations = new ConcurrentHashMap<String, FileNameEvaluation>();
 
     /**
      * Creates a {@link TestFileNamePattern} with the given template and
@@ -250,6 +266,14 @@ public final class TestFileNamePattern
         groups = createGroups();
 
         patterns = createEvaluationPatterns();
+
+        String maybeSeparator = String.format("(%s)?", quote(separator));
+        testPrefixPattern = compile("^" + prefix + maybeSeparator);
+        testSuffixPattern = compile(maybeSeparator + suffix + "$");
+
+        preferredTestFilePatternParts = createPreferredTestFilePatternParts();
+        otherTestFilePatternParts = createOtherTestFilePatternParts();
+        preferredTestFileNameParts = createPreferredTestFileNameParts();
     }
 
     public static boolean isValid(String template, String separator)
@@ -436,6 +460,23 @@ public final class TestFileNamePattern
      * @return the {@link FileNameEvaluation result} of the evaluation
      */
     public FileNameEvaluation evaluate(String fileBaseName)
+    {
+        FileNameEvaluation evaluation = evaluations.get(fileBaseName);
+        if(evaluation == null)
+        {
+            evaluation = doEvaluate(fileBaseName);
+            if(evaluations.size() >= MAX_CACHED_EVALUATIONS)
+            {
+                // cheaper than maintaining an access order between concurrent
+                // readers, and rarely needed
+                evaluations.clear();
+            }
+            evaluations.put(fileBaseName, evaluation);
+        }
+        return evaluation;
+    }
+
+    private FileNameEvaluation doEvaluate(String fileBaseName)
     {
         if(fileType == FileType.TEST || (fileType == FileType.UNKNOWN && matchesAnyPattern(fileBaseName)))
         {
@@ -470,8 +511,8 @@ public final class TestFileNamePattern
      */
     private String buildPreferredSrcFileName(String testFileName)
     {
-        String maybeSeparator = String.format("(%s)?", quote(separator));
-        return testFileName.replaceFirst("^" + prefix + maybeSeparator, "").replaceFirst(maybeSeparator + suffix + "$", "");
+        String withoutPrefix = testPrefixPattern.matcher(testFileName).replaceFirst("");
+        return testSuffixPattern.matcher(withoutPrefix).replaceFirst("");
     }
 
     /**
@@ -516,42 +557,53 @@ public final class TestFileNamePattern
 
     private FileNameEvaluation buildSrcFileResult(String srcFileName)
     {
-        String preferredTestFileName = buildPreferredTestFileName(srcFileName);
-        ;
+        String preferredTestFileName = removeQuotesAndWildcards(preferredTestFileNameParts.surround(srcFileName));
 
         String quotedSrcFileName = quote(srcFileName);
 
-        List<String> preferredPatterns = buildPreferredTestFilePatterns(quotedSrcFileName);
+        List<String> preferredPatterns = surround(preferredTestFilePatternParts, quotedSrcFileName);
 
-        List<String> otherPatterns = buildOtherCorrespondingTestFilePatterns(quotedSrcFileName);
+        List<String> otherPatterns = surround(otherTestFilePatternParts, quotedSrcFileName);
 
         return new FileNameEvaluation(srcFileName, false, preferredTestFileName, preferredPatterns, otherPatterns);
     }
 
-    private String buildPreferredTestFileName(String srcFileName)
+    private static List<String> surround(List<PatternParts> partsList, String quotedSrcFileName)
+    {
+        if(partsList.isEmpty())
+        {
+            return emptyList();
+        }
+
+        List<String> result = new ArrayList<String>(partsList.size());
+        for (PatternParts parts : partsList)
+        {
+            result.add(parts.surround(quotedSrcFileName));
+        }
+        return result;
+    }
+
+    private PatternParts createPreferredTestFileNameParts()
     {
-        final String result;
         UserDefinedPart prefixPart = parserResult.prefix();
         UserDefinedPart suffixPart = parserResult.suffix();
 
         if(! prefixPart.hasAlternatives() && ! suffixPart.hasAlternatives())
         {
-            result = SRC_FILE_VARIABLE_PATTERN.matcher(patternString).replaceAll(quoteReplacement(srcFileName));
+            return new PatternParts(toPattern(parserResult.prefix()), toPattern(parserResult.suffix()));
         }
         else if(! prefixPart.hasAlternatives())
         {
-            result = srcFileName + toPattern(suffixPart, suffixPart.firstAlternative());
+            return new PatternParts("", toPattern(suffixPart, suffixPart.firstAlternative()));
         }
         else if(! suffixPart.hasAlternatives())
         {
-            result = toPattern(prefixPart, prefixPart.firstAlternative()) + srcFileName;
+            return new PatternParts(toPattern(prefixPart, prefixPart.firstAlternative()), "");
         }
         else
         {
-            result = toPattern(prefixPart, prefixPart.firstAlternative()) + srcFileName + toPattern(suffixPart, suffixPart.firstAlternative());
+            return new PatternParts(toPattern(prefixPart, prefixPart.firstAlternative()), toPattern(suffixPart, suffixPart.firstAlternative()));
         }
-
-        return removeQuotesAndWildcards(result);
     }
 
     private String removeQuotesAndWildcards(String str)
@@ -562,21 +614,21 @@ public final class TestFileNamePattern
     /**
      * Builds a pattern for each possible prefix/suffix combination.
      */
-    private List<String> buildPreferredTestFilePatterns(String quotedSrcFileName)
+    private List<PatternParts> createPreferredTestFilePatternParts()
     {
-        List<String> result = new ArrayList<String>();
+        List<PatternParts> result = new ArrayList<PatternParts>();
         UserDefinedPart prefixPart = parserResult.prefix();
         UserDefinedPart suffixPart = parserResult.suffix();
 
         if(! prefixPart.hasAlternatives() && ! suffixPart.hasAlternatives())
         {
-            result.add(SRC_FILE_VARIABLE_PATTERN.matcher(patternString).replaceAll(quoteReplacement(quotedSrcFileName)));
+            result.add(new PatternParts(toPattern(parserResult.prefix()), toPattern(parserResult.suffix())));
         }
         else if(! prefixPart.hasAlternatives())
         {
             for (String alternative : suffixPart.alternatives())
             {
-                result.add(quotedSrcFileName + toPattern(suffixPart, alternative));
+                result.add(new PatternParts("", toPattern(suffixPart, alternative)));
             }
         }
         else
@@ -585,13 +637,13 @@ public final class TestFileNamePattern
             {
                 if(! suffixPart.hasAlternatives())
                 {
-                    result.add(toPattern(prefixPart, preAlt) + quotedSrcFileName);
+                    result.add(new PatternParts(toPattern(prefixPart, preAlt), ""));
                 }
                 else
                 {
                     for (String sufAlt : suffixPart.alternatives())
                     {
-                        result.add(toPattern(prefixPart, preAlt) + quotedSrcFileName + toPattern(suffixPart, sufAlt));
+                        result.add(new PatternParts(toPattern(prefixPart, preAlt), toPattern(suffixPart, sufAlt)));
                     }
                 }
             }
@@ -605,7 +657,7 @@ public final class TestFileNamePattern
      * possible prefix or suffix, authorizing either prefix without suffix or
      * suffix without prefix.
      */
-    private List<String> buildOtherCorrespondingTestFilePatterns(String quotedSrcFileName)
+    private List<PatternParts> createOtherTestFilePatternParts()
     {
         if(! parserResult.prefix().hasAlternatives() || ! parserResult.suffix().hasAlternatives())
         {
@@ -615,15 +667,15 @@ public final class TestFileNamePattern
         String beforeVar = wildCardBeforeVariable ? ".*" : "";
         String afterVar = wildCardAfterVariable ? ".*" : "";
 
-        List<String> result = new ArrayList<String>();
+        List<PatternParts> result = new ArrayList<PatternParts>();
 
         for (String preAlt : parserResult.prefix().alternatives())
         {
-            result.add(toPattern(parserResult.prefix(), preAlt) + quotedSrcFileName + afterVar);
+            result.add(new PatternParts(toPattern(parserResult.prefix(), preAlt), afterVar));
         }
         for (String sufAlt : parserResult.suffix().alternatives())
         {
-            result.add(beforeVar + quotedSrcFileName + toPattern(parserResult.suffix(), sufAlt));
+            result.add(new PatternParts(beforeVar, toPattern(parserResult.suffix(), sufAlt)));
         }
         return result;
     }
@@ -649,6 +701,26 @@ public final class TestFileNamePattern
         }
     }
 
+    /**
+     * The parts of a pattern surrounding the source file name.
+     */
+    private static class PatternParts
+    {
+        final String before;
+        final String after;
+
+        PatternParts(String before, String after)
+        {
+            this.before = before;
+            this.after = after;
+        }
+
+        String surround(String srcFileName)
+        {
+            return before + srcFileName + after;
+        }
+    }
+
     /**
      * The type of the files that will be evaluated by a
      * {@link TestFileNamePattern}.
@@ -1,6 +1,5 @@
 package org.moreunit.core.matching;
 
-import static java.util.Collections.reverse;
 import static java.util.Collections.sort;
 import static java.util.regex.Matcher.quoteReplacement;
 import static java.util.regex.Pattern.compile;
@@ -12,6 +11,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,6 +24,8 @@ public class TestFolderPathPattern
 
     private static final int MAX_GROUPS = 9;
 
+    static final int MAX_CACHED_PATHS = 8 * 1024;
+
     private static final Pattern SRC_PATH_VALIDATOR;
     static
     {
@@ -51,6 +53,12 @@ public class TestFolderPathPattern
     private final String srcPathTemplate;
     private final String testPathTemplate;
     private final Pattern testProjectPattern;
+    // templates are compiled once per source project, for each direction
+    private final Map<String, TestPathMapping> testPathMappingsBySrcProject = new ConcurrentHashMap<String, TestPathMapping>();
+    private final Map<String, SrcPathMapping> srcPathMappingsBySrcProject = new ConcurrentHashMap<String, SrcPathMapping>();
+    // bounded, cleared when full
+    private final Map<String, SourceFolderPath> testPathsBySrcPath = new ConcurrentHashMap<String, SourceFolderPath>();
+    private final Map<String, SourceFolderPath> srcPathsByTestPath = new ConcurrentHashMap<String, SourceFolderPath>();
 
     public TestFolderPathPattern(String srcPathTemplate, String testPathTemplate)
     {
@@ -179,77 +187,168 @@ public class TestFolderPathPattern
         return true;
     }
 
+    /**
+     * Returns the path of the test folder corresponding to the given source
+     * folder. Results are memoized per source folder path.
+     */
     public SourceFolderPath getTestPathFor(Path srcPath) throws DoesNotMatchConfigurationException
+    {
+        String key = srcPath.toString();
+        SourceFolderPath testPath = testPathsBySrcPath.get(key);
+        if(testPath == null)
+        {
+            testPath = new SourceFolderPath(computeTestPathFor(srcPath));
+            remember(testPathsBySrcPath, key, testPath);
+        }
+        return testPath;
+    }
+
+    private String computeTestPathFor(Path srcPath) throws DoesNotMatchConfigurationException
     {
         String cleanSrcPath = removeSurroundingSlashes(srcPath.toString());
-        String projectName = getProjectName(cleanSrcPath);
+        TestPathMapping mapping = getTestPathMapping(getProjectName(cleanSrcPath));
 
-        String srcPathTpl = getSrcPathTemplateForSrcProject(quoteReplacement(quote(projectName)));
-        String codePathWithinSrcFolder = cleanSrcPath.replaceFirst(srcPathTpl, "");
+        Matcher matcher = mapping.srcPathPattern.matcher(cleanSrcPath);
+        boolean found = matcher.find();
+        String codePathWithinSrcFolder = removeMatch(cleanSrcPath, matcher, found);
 
-        String tstPathTpl = getTestPathTemplateForSrcProject(projectName) + codePathWithinSrcFolder;
-        srcPathTpl += quote(codePathWithinSrcFolder);
-        tstPathTpl = resolveGroups(cleanSrcPath, srcPathTpl, tstPathTpl, srcPath);
+        String tstPathTpl = mapping.testPathTemplate + codePathWithinSrcFolder;
+        if(found && matcher.start() == 0)
+        {
+            // the match also is the one of the whole path
+            return replaceGroupRefs(tstPathTpl, mapping.testPathGroupRefs, matcher, srcPath);
+        }
 
-        return new SourceFolderPath(tstPathTpl);
+        String srcPathTpl = mapping.srcPathRegex + quote(codePathWithinSrcFolder);
+        return resolveGroups(cleanSrcPath, srcPathTpl, tstPathTpl, srcPath);
     }
 
     private String resolveGroups(String path, String tplWithGroups, String tplWithRefs, Path analizedPath) throws DoesNotMatchConfigurationException
     {
-        String result = tplWithRefs;
-
         Matcher matcher = Pattern.compile(tplWithGroups).matcher(path);
         if(matcher.matches())
         {
-            List<GroupRef> groupRefs = getGroupRefs(result);
-            reverse(groupRefs);
-
-            for (int i = 0; i < groupRefs.size(); i++)
-            {
-                GroupRef ref = groupRefs.get(i);
+            return replaceGroupRefs(tplWithRefs, getGroupRefs(tplWithRefs), matcher, analizedPath);
+        }
+        return tplWithRefs;
+    }
 
-                final String groupContent;
-                if(matcher.groupCount() >= ref.num)
-                {
-                    groupContent = matcher.group(ref.num);
-                }
-                else
-                {
-                    throw new DoesNotMatchConfigurationException(analizedPath);
-                }
+    /**
+     * Replaces the given group references, which must be sorted by position,
+     * with the content of the corresponding groups of the given matcher.
+     */
+    private static String replaceGroupRefs(String tplWithRefs, List<GroupRef> groupRefs, Matcher matcher, Path analizedPath) throws DoesNotMatchConfigurationException
+    {
+        if(groupRefs.isEmpty())
+        {
+            return tplWithRefs;
+        }
 
-                result = result.substring(0, ref.startIdx) + groupContent + result.substring(ref.endIdx);
+        StringBuilder result = new StringBuilder(tplWithRefs.length());
+        int idx = 0;
+        for (GroupRef ref : groupRefs)
+        {
+            if(matcher.groupCount() < ref.num)
+            {
+                throw new DoesNotMatchConfigurationException(analizedPath);
             }
+            result.append(tplWithRefs, idx, ref.startIdx).append(matcher.group(ref.num));
+            idx = ref.endIdx;
         }
-        return result;
+        return result.append(tplWithRefs, idx, tplWithRefs.length()).toString();
+    }
+
+    /**
+     * Returns the given path without the part found by the given matcher, as
+     * {@link String#replaceFirst(String, String) replaceFirst(regex, "")}
+     * would.
+     */
+    private static String removeMatch(String path, Matcher matcher, boolean found)
+    {
+        if(! found)
+        {
+            return path;
+        }
+        return path.substring(0, matcher.start()) + path.substring(matcher.end());
     }
 
+    /**
+     * Returns the path of the source folder corresponding to the given test
+     * folder. Results are memoized per test folder path.
+     */
     public SourceFolderPath getSrcPathFor(Path testPath) throws DoesNotMatchConfigurationException
+    {
+        String key = testPath.toString();
+        SourceFolderPath srcPath = srcPathsByTestPath.get(key);
+        if(srcPath == null)
+        {
+            srcPath = new SourceFolderPath(computeSrcPathFor(testPath));
+            remember(srcPathsByTestPath, key, srcPath);
+        }
+        return srcPath;
+    }
+
+    private String computeSrcPathFor(Path testPath) throws DoesNotMatchConfigurationException
     {
         String tstProjectName = testPath.getProjectName();
         String srcProjectName = getSrcProjectName(tstProjectName, testPath);
         String cleanTestPath = removeSurroundingSlashes(testPath.toString());
+        SrcPathMapping mapping = getSrcPathMapping(srcProjectName);
 
-        String tstPathTpl = getTestPathTemplateForSrcProject(srcProjectName);
-        List<GroupRef> groupRefs = getGroupRefs(tstPathTpl);
-        tstPathTpl = tstPathTpl.replaceAll("\\\\[1-9]", "(.*)");
+        Matcher matcher = mapping.testPathPattern.matcher(cleanTestPath);
+        boolean found = matcher.find();
+        String codePathWithinSrcFolder = removeMatch(cleanTestPath, matcher, found);
 
-        String srcPathTpl = getSrcPathTemplateForSrcProject(srcProjectName);
-        srcPathTpl = replaceGroupsWithRefs(srcPathTpl, groupRefs);
-
-        String codePathWithinSrcFolder = cleanTestPath.replaceFirst(tstPathTpl, "");
-        if(codePathWithinSrcFolder.length() != 0 && ! codePathWithinSrcFolder.startsWith(tstProjectName))
+        String srcPathTpl = mapping.srcPathTemplateWithRefs;
+        String tstPathTpl = mapping.testPathRegex;
+        boolean codePathAppended = codePathWithinSrcFolder.length() != 0 && ! codePathWithinSrcFolder.startsWith(tstProjectName);
+        if(codePathAppended)
         {
             srcPathTpl += codePathWithinSrcFolder;
             tstPathTpl += quote(codePathWithinSrcFolder);
         }
 
-        srcPathTpl = resolveGroups(cleanTestPath, tstPathTpl, srcPathTpl, testPath);
+        if(found && matcher.start() == 0 && (codePathAppended || codePathWithinSrcFolder.length() == 0))
+        {
+            // the match also is the one of the whole path
+            return replaceGroupRefs(srcPathTpl, mapping.srcPathGroupRefs, matcher, testPath);
+        }
+
+        return resolveGroups(cleanTestPath, tstPathTpl, srcPathTpl, testPath);
+    }
+
+    private static <V> void remember(Map<String, V> cache, String key, V value)
+    {
+        if(cache.size() >= MAX_CACHED_PATHS)
+        {
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
+    private TestPathMapping getTestPathMapping(String srcProjectName)
+    {
+        TestPathMapping mapping = testPathMappingsBySrcProject.get(srcProjectName);
+        if(mapping == null)
+        {
+            mapping = new TestPathMapping(srcProjectName);
+            remember(testPathMappingsBySrcProject, srcProjectName, mapping);
+        }
+        return mapping;
+    }
 
-        return new SourceFolderPath(srcPathTpl);
+    private SrcPathMapping getSrcPathMapping(String srcProjectName)
+    {
+        SrcPathMapping mapping = srcPathMappingsBySrcProject.get(srcProjectName);
+        if(mapping == null)
+        {
+            mapping = new SrcPathMapping(srcProjectName);
+            remember(srcPathMappingsBySrcProject, srcProjectName, mapping);
+        }
+        return mapping;
     }
 
-    private String replaceGroupsWithRefs(String template, List<GroupRef> groupRefs)
+    private static String replaceGroupsWithRefs(String template, List<GroupRef> groupRefs)
     {
         Map<Integer, Integer> refIndices = new HashMap<Integer, Integer>();
         int idx = 1;
@@ -287,7 +386,47 @@ public class TestFolderPathPattern
 
     private String getTestPathTemplateForSrcProject(String projectName)
     {
-        return testPathTemplate.replaceFirst(quote(SRC_PROJECT_VARIABLE), projectName);
+        return testPathTemplate.replaceFirst(quote(SRC_PROJECT_VARIABLE), quoteReplacement(projectName));
+    }
+
+    /**
+     * The templates to find the test folders of a source project.
+     */
+    private class TestPathMapping
+    {
+        final String srcPathRegex;
+        final Pattern srcPathPattern;
+        final String testPathTemplate;
+        final List<GroupRef> testPathGroupRefs;
+
+        TestPathMapping(String srcProjectName)
+        {
+            srcPathRegex = getSrcPathTemplateForSrcProject(quoteReplacement(quote(srcProjectName)));
+            srcPathPattern = compile(srcPathRegex);
+            testPathTemplate = getTestPathTemplateForSrcProject(srcProjectName);
+            testPathGroupRefs = getGroupRefs(testPathTemplate);
+        }
+    }
+
+    /**
+     * The templates to find the source folders of a source project, from its
+     * test folders.
+     */
+    private class SrcPathMapping
+    {
+        final String testPathRegex;
+        final Pattern testPathPattern;
+        final String srcPathTemplateWithRefs;
+        final List<GroupRef> srcPathGroupRefs;
+
+        SrcPathMapping(String srcProjectName)
+        {
+            String testPathTemplate = getTestPathTemplateForSrcProject(srcProjectName);
+            testPathRegex = testPathTemplate.replaceAll("\\\\[1-9]", "(.*)");
+            testPathPattern = compile(testPathRegex);
+            srcPathTemplateWithRefs = replaceGroupsWithRefs(getSrcPathTemplateForSrcProject(srcProjectName), getGroupRefs(testPathTemplate));
+            srcPathGroupRefs = getGroupRefs(srcPathTemplateWithRefs);
+        }
     }
 
     private static class GroupRef implements Comparable<GroupRef>
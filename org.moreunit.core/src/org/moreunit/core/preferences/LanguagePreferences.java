@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.moreunit.core.matching.TestFileNamePattern;
+import org.moreunit.core.matching.TestFolderPathPattern;
 
 public abstract class LanguagePreferences
 {
@@ -17,12 +18,13 @@ public abstract class LanguagePreferences
     private static final String BASE = Preferences.BASE;
 
     /**
-     * Cache for TestFileNamePattern instances.
+     * Caches for TestFileNamePattern and TestFolderPathPattern instances.
      * <p>
-     * It is OK to clear it entirely every time a preference changes ; that way
-     * we can guarantee that entries won't be kept in memory without reason.
+     * It is OK to clear them entirely every time a preference changes ; that
+     * way we can guarantee that entries won't be kept in memory without reason.
      */
     private static final Map<String, TestFileNamePattern> FILE_NAME_PATTERN_CACHE = new HashMap<String, TestFileNamePattern>();
+    private static final Map<String, TestFolderPathPattern> FOLDER_PATH_PATTERN_CACHE = new HashMap<String, TestFolderPathPattern>();
     private static final Object CACHE_LOCK = new Object();
 
     protected String languageId;
@@ -48,8 +50,7 @@ public abstract class LanguagePreferences
         {
             String template = getTestFileNameTemplate();
             String separator = getFileWordSeparator();
-            String key = (template == null ? "" : template.length() + template) //
-                         + (separator == null ? "" : separator.length() + separator);
+            String key = cacheKey(template, separator);
 
             TestFileNamePattern pattern = FILE_NAME_PATTERN_CACHE.get(key);
             if(pattern == null)
@@ -62,6 +63,35 @@ public abstract class LanguagePreferences
         }
     }
 
+    /**
+     * Returns the folder path pattern for the current templates. Instances are
+     * shared, so that the paths they compute are memoized across calls.
+     */
+    public TestFolderPathPattern getTestFolderPathPattern()
+    {
+        synchronized (CACHE_LOCK)
+        {
+            String srcTemplate = getSrcFolderPathTemplate();
+            String testTemplate = getTestFolderPathTemplate();
+            String key = cacheKey(srcTemplate, testTemplate);
+
+            TestFolderPathPattern pattern = FOLDER_PATH_PATTERN_CACHE.get(key);
+            if(pattern == null)
+            {
+                pattern = new TestFolderPathPattern(srcTemplate, testTemplate);
+                FOLDER_PATH_PATTERN_CACHE.put(key, pattern);
+            }
+
+            return pattern;
+        }
+    }
+
+    private static String cacheKey(String first, String second)
+    {
+        return (first == null ? "" : first.length() + first) //
+               + (second == null ? "" : second.length() + second);
+    }
+
     protected String getString(String name)
     {
         return getStore().getString(BASE + languageId + name);
@@ -77,6 +107,7 @@ public abstract class LanguagePreferences
         synchronized (CACHE_LOCK)
         {
             FILE_NAME_PATTERN_CACHE.clear();
+            FOLDER_PATH_PATTERN_CACHE.clear();
             getStore().setValue(BASE + languageId + name, value);
         }
     }
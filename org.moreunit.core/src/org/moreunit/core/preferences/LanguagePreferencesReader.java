@@ -2,8 +2,6 @@ package org.moreunit.core.preferences;
 
 import static org.moreunit.core.preferences.Preferences.orDefault;
 
-import org.moreunit.core.matching.TestFolderPathPattern;
-
 public class LanguagePreferencesReader extends LanguagePreferences
 {
     private LanguagePreferencesReader defaults;
@@ -37,9 +35,4 @@ public class LanguagePreferencesReader extends LanguagePreferences
     {
         return orDefault(getString(LanguagePreferences.TEST_FOLDER_PATH_TEMPLATE), defaults.getTestFolderPathTemplate());
     }
-
-    public TestFolderPathPattern getTestFolderPathPattern()
-    {
-        return new TestFolderPathPattern(getSrcFolderPathTemplate(), getTestFolderPathTemplate());
-    }
 }
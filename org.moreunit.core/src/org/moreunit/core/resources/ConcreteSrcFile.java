@@ -4,10 +4,13 @@ import static org.moreunit.core.config.CoreModule.$;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.moreunit.core.extension.LanguageExtensionManager;
 import org.moreunit.core.matching.DoesNotMatchConfigurationException;
 import org.moreunit.core.matching.FileMatcher;
 import org.moreunit.core.matching.FileNameEvaluation;
+import org.moreunit.core.matching.MatchResult;
 import org.moreunit.core.matching.MatchStrategy;
 import org.moreunit.core.matching.MatchingFile;
 import org.moreunit.core.matching.SourceFolderPath;
@@ -76,10 +79,16 @@ public class ConcreteSrcFile implements SrcFile
         }
     }
 
+    @Override
+    public MatchResult findMatches(IProgressMonitor monitor) throws DoesNotMatchConfigurationException
+    {
+        return fileMatcher.match(MatchStrategy.ALL_MATCHES, monitor);
+    }
+
     @Override
     public MatchingFile findUniqueMatch() throws DoesNotMatchConfigurationException
     {
-        return fileMatcher.match(MatchStrategy.ALL_MATCHES).getUniqueMatchingFile();
+        return findMatches(new NullProgressMonitor()).getUniqueMatchingFile();
     }
 
     @Override
@@ -1,8 +1,10 @@
 package org.moreunit.core.resources;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.moreunit.core.matching.DoesNotMatchConfigurationException;
 import org.moreunit.core.matching.FileNameEvaluation;
+import org.moreunit.core.matching.MatchResult;
 import org.moreunit.core.matching.MatchingFile;
 import org.moreunit.core.matching.SourceFolderPath;
 
@@ -12,6 +14,13 @@ public interface SrcFile extends File
 
     SourceFolderPath findCorrespondingSrcFolder() throws DoesNotMatchConfigurationException;
 
+    /**
+     * Searches for all the files corresponding to this one, without
+     * interacting with the user, so that it may be called outside of the UI
+     * thread. The search stops when the given monitor is canceled.
+     */
+    MatchResult findMatches(IProgressMonitor monitor) throws DoesNotMatchConfigurationException;
+
     MatchingFile findUniqueMatch() throws DoesNotMatchConfigurationException;
 
     String getExtension();
@@ -1,6 +1,11 @@
 package org.moreunit.core.ui;
 
+import java.lang.reflect.InvocationTargetException;
+
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.operation.IRunnableWithProgress;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.PartInitException;
@@ -35,6 +40,23 @@ public class UserInterface
         return wizardFactory.createNewFileWizard(selectedFolder, fileName);
     }
 
+    /**
+     * Runs the given runnable in a separate thread while the UI stays
+     * responsive, showing a busy cursor and, if it lasts, a progress dialog
+     * that lets the user cancel it. Returns once the runnable is done. When
+     * not called from the UI thread, the runnable is simply run in the current
+     * thread.
+     */
+    public void runInBackground(IRunnableWithProgress runnable) throws InvocationTargetException, InterruptedException
+    {
+        if(workbench == null || Display.getCurrent() == null)
+        {
+            runnable.run(new NullProgressMonitor());
+            return;
+        }
+        workbench.getProgressService().busyCursorWhile(runnable);
+    }
+
     public void openEditor(IFile file)
     {
         if(activePage == null)
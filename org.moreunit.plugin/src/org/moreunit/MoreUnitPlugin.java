@@ -12,12 +12,17 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.moreunit.annotation.AnnotationUpdateListener;
 import org.moreunit.annotation.MoreUnitAnnotationModel;
+import org.moreunit.codemining.CodeMiningExecutor;
 import org.moreunit.core.log.DefaultLogger;
 import org.moreunit.core.log.Logger;
 import org.moreunit.log.LogHandler;
+import org.moreunit.matching.TestCaseVerdictCache;
+import org.moreunit.matching.TestCorrespondenceIndex;
+import org.moreunit.preferences.SourceFolderChangeListener;
 import org.moreunit.util.FeatureDetector;
 import org.moreunit.util.MoreUnitContants;
 import org.moreunit.util.PluginTools;
+import org.moreunit.util.SearchScopeSingelton;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -31,9 +36,11 @@ public class MoreUnitPlugin extends AbstractUIPlugin
     public static final String PLUGIN_ID = "org.moreunit";
 
     private static final String LOG_LEVEL_PROPERTY = "org.moreunit.log.level";
+    private static final String CORRESPONDENCE_INDEX_FILE = "correspondence.index";
 
     private Logger logger;
     private AnnotationUpdateListener annotationUpdateListener;
+    private SourceFolderChangeListener sourceFolderChangeListener;
 
     /**
      * The constructor.
@@ -58,6 +65,13 @@ public class MoreUnitPlugin extends AbstractUIPlugin
         logger = new DefaultLogger(getLog(), PLUGIN_ID, LOG_LEVEL_PROPERTY);
 
         FeatureDetector.setBundleContext(context);
+        // the caches depending on the source folders are notified of changes
+        // in this order, the mappings first since scopes are built from them
+        sourceFolderChangeListener = new SourceFolderChangeListener();
+        sourceFolderChangeListener.start();
+        SearchScopeSingelton.getInstance().start();
+        TestCaseVerdictCache.getInstance().start();
+        TestCorrespondenceIndex.getInstance().start(getStateLocation().append(CORRESPONDENCE_INDEX_FILE).toFile());
         annotationUpdateListener = new AnnotationUpdateListener();
 
         IPartService partService = getPartService();
@@ -65,6 +79,7 @@ public class MoreUnitPlugin extends AbstractUIPlugin
             partService.addPartListener(annotationUpdateListener);
 
         MoreUnitAnnotationModel.attachForAllOpenEditor();
+        annotationUpdateListener.trackOpenEditors();
         removeMarkerFromOlderMoreUnitVersions();
     }
 
@@ -103,6 +118,11 @@ public class MoreUnitPlugin extends AbstractUIPlugin
      */
     public void stop(BundleContext context) throws Exception
     {
+        CodeMiningExecutor.disposeInstance();
+        TestCorrespondenceIndex.getInstance().stop();
+        TestCaseVerdictCache.getInstance().stop();
+        SearchScopeSingelton.getInstance().stop();
+        sourceFolderChangeListener.stop();
         super.stop(context);
         annotationUpdateListener.dispose();
 
@@ -1,105 +1,225 @@
 package org.moreunit;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
-import org.moreunit.elements.SourceFolderMapping;
 import org.moreunit.log.LogHandler;
 import org.moreunit.preferences.Preferences;
+import org.moreunit.preferences.SourceFolderMappingGraph;
 import org.moreunit.util.PluginTools;
 
 /**
+ * Knows the source folders corresponding to each source folder, as defined by
+ * the source folder mappings of the projects.
+ * <p>
+ * The context is built lazily: looking up a folder loads the mappings of its
+ * project, and of the projects which mappings refer to this project (found by
+ * reading their preferences only, without resolving their source folders).
+ * The mappings of a project are rebuilt when its preferences, its classpath or
+ * its open state change (see {@link Preferences#sourceFoldersChanged}), in
+ * which case they are reloaded on next lookup.
+ * </p>
+ * <p>
+ * The context is held in an immutable snapshot, replaced as a whole when
+ * updated, so that concurrent readers always see a consistent state.
+ * </p>
+ *
  * @author vera 15.03.2008 16:26:16
  */
 public class SourceFolderContext
 {
+    private static final SourceFolderContext instance = new SourceFolderContext();
 
-    private static SourceFolderContext instance;
-    private Map<IPackageFragmentRoot, List<IPackageFragmentRoot>> folderToLookupMap;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<Snapshot>(Snapshot.EMPTY);
 
     public static SourceFolderContext getInstance()
     {
-        if(instance == null)
-            instance = new SourceFolderContext();
-
         return instance;
     }
 
     private SourceFolderContext()
     {
-        initContextForWorkspace();
     }
 
+    /**
+     * Drops the context, which is rebuilt lazily by the next lookups.
+     */
     public void initContextForWorkspace()
     {
-        folderToLookupMap = new HashMap<IPackageFragmentRoot, List<IPackageFragmentRoot>>();
+        snapshot.set(Snapshot.EMPTY);
+    }
+
+    public List<IPackageFragmentRoot> getSourceFolderToSearch(IPackageFragmentRoot baseFolder)
+    {
+        List<IPackageFragmentRoot> folders = getSnapshotFor(baseFolder.getJavaProject()).folderToLookupMap.get(baseFolder);
+        if(folders != null)
+            return folders;
 
-        List<IJavaProject> javaProjectsFromWorkspace = PluginTools.getJavaProjectsFromWorkspace();
-        for (IJavaProject project : javaProjectsFromWorkspace)
+        // if there are no settings for the project then take all source folder
+        // as context
+        // you can not take the source folder for test because this method is
+        // used
+        // to jump from the test to the CUT as well
+        List<IPackageFragmentRoot> resultList = new ArrayList<IPackageFragmentRoot>();
+        try
         {
-            List<SourceFolderMapping> testSourceFolder = Preferences.getInstance().getSourceMappingList(project);
-            for (SourceFolderMapping mapping : testSourceFolder)
+            for (IPackageFragmentRoot fragmentRoot : baseFolder.getJavaProject().getPackageFragmentRoots())
             {
-                updateMap(mapping);
+                if(! fragmentRoot.isArchive())
+                    resultList.add(fragmentRoot);
             }
         }
+        catch (CoreException e)
+        {
+            LogHandler.getInstance().handleExceptionLog(e);
+        }
+        return resultList;
     }
 
-    private void updateMap(SourceFolderMapping mapping)
+    private Snapshot getSnapshotFor(IJavaProject project)
     {
-        for (IPackageFragmentRoot sourceFolder : mapping.getSourceFolderList())
+        Preferences preferences = Preferences.getInstance();
+        Snapshot current = snapshot.get();
+        long generation = preferences.getSourceMappingGeneration();
+
+        Snapshot updated = current;
+        if(current.generation != generation)
         {
-            List<IPackageFragmentRoot> list = new ArrayList<IPackageFragmentRoot>();
-            list.add(mapping.getTestFolder());
-            updateMap(sourceFolder, list);
+            // mappings may have changed in any project
+            updated = new Snapshot(generation, findReferencingProjects(preferences));
         }
+        updated = updated.withMappingsOf(updated.getProjectsInvolving(project), preferences);
 
-        updateMap(mapping.getTestFolder(), mapping.getSourceFolderList());
+        if(updated != current)
+        {
+            // if another thread replaced the snapshot in the meantime, this
+            // one is still consistent: it is used for the current lookup only
+            snapshot.compareAndSet(current, updated);
+        }
+        return updated;
     }
 
-    private void updateMap(IPackageFragmentRoot key, List<IPackageFragmentRoot> value)
+    private static Map<String, Set<IJavaProject>> findReferencingProjects(Preferences preferences)
     {
-        if(folderToLookupMap.containsKey(key))
-        {
-            List<IPackageFragmentRoot> list = folderToLookupMap.get(key);
-            list.addAll(value);
-        }
-        else
+        Map<String, Set<IJavaProject>> result = new HashMap<String, Set<IJavaProject>>();
+        for (IJavaProject project : PluginTools.getJavaProjectsFromWorkspace())
         {
-            List<IPackageFragmentRoot> list = new ArrayList<IPackageFragmentRoot>();
-            list.addAll(value);
-            folderToLookupMap.put(key, list);
+            for (String projectName : preferences.getMappedProjectNames(project))
+            {
+                if(projectName.equals(project.getElementName()))
+                {
+                    continue;
+                }
+
+                Set<IJavaProject> projects = result.get(projectName);
+                if(projects == null)
+                {
+                    projects = new LinkedHashSet<IJavaProject>();
+                    result.put(projectName, projects);
+                }
+                projects.add(project);
+            }
         }
+        return result;
     }
 
-    public List<IPackageFragmentRoot> getSourceFolderToSearch(IPackageFragmentRoot baseFolder)
+    private static final class Snapshot
     {
-        if(folderToLookupMap.containsKey(baseFolder))
-            return folderToLookupMap.get(baseFolder);
+        static final Snapshot EMPTY = new Snapshot(- 1, Collections.<String, Set<IJavaProject>> emptyMap());
 
-        // if there are no settings for the project then take all source folder
-        // as context
-        // you can not take the source folder for test because this method is
-        // used
-        // to jump from the test to the CUT as well
-        List<IPackageFragmentRoot> resultList = new ArrayList<IPackageFragmentRoot>();
-        try
+        final long generation;
+        // the projects which mappings refer to other projects, by name of the
+        // referred projects
+        final Map<String, Set<IJavaProject>> referencingProjects;
+        final Map<IJavaProject, SourceFolderMappingGraph> mappingsByProject;
+        final Map<IPackageFragmentRoot, List<IPackageFragmentRoot>> folderToLookupMap;
+
+        Snapshot(long generation, Map<String, Set<IJavaProject>> referencingProjects)
         {
-            for (IPackageFragmentRoot fragmentRoot : baseFolder.getJavaProject().getPackageFragmentRoots())
+            this(generation, referencingProjects, Collections.<IJavaProject, SourceFolderMappingGraph> emptyMap());
+        }
+
+        private Snapshot(long generation, Map<String, Set<IJavaProject>> referencingProjects, Map<IJavaProject, SourceFolderMappingGraph> mappingsByProject)
+        {
+            this.generation = generation;
+            this.referencingProjects = referencingProjects;
+            this.mappingsByProject = mappingsByProject;
+            this.folderToLookupMap = createLookupMap(mappingsByProject.values());
+        }
+
+        private static Map<IPackageFragmentRoot, List<IPackageFragmentRoot>> createLookupMap(Collection<SourceFolderMappingGraph> allMappings)
+        {
+            Map<IPackageFragmentRoot, List<IPackageFragmentRoot>> lookupMap = new HashMap<IPackageFragmentRoot, List<IPackageFragmentRoot>>();
+            for (SourceFolderMappingGraph mappings : allMappings)
             {
-                if(! fragmentRoot.isArchive())
-                    resultList.add(fragmentRoot);
+                for (Map.Entry<IPackageFragmentRoot, List<IPackageFragmentRoot>> entry : mappings.getCorrespondingFolders().entrySet())
+                {
+                    List<IPackageFragmentRoot> list = lookupMap.get(entry.getKey());
+                    if(list == null)
+                    {
+                        list = new ArrayList<IPackageFragmentRoot>();
+                        lookupMap.put(entry.getKey(), list);
+                    }
+                    list.addAll(entry.getValue());
+                }
+            }
+
+            for (Map.Entry<IPackageFragmentRoot, List<IPackageFragmentRoot>> entry : lookupMap.entrySet())
+            {
+                entry.setValue(Collections.unmodifiableList(entry.getValue()));
             }
+            return lookupMap;
         }
-        catch (CoreException e)
+
+        Set<IJavaProject> getProjectsInvolving(IJavaProject project)
         {
-            LogHandler.getInstance().handleExceptionLog(e);
+            Set<IJavaProject> projects = new LinkedHashSet<IJavaProject>();
+            projects.add(project);
+
+            Set<IJavaProject> referencing = referencingProjects.get(project.getElementName());
+            if(referencing != null)
+            {
+                projects.addAll(referencing);
+            }
+            return projects;
+        }
+
+        /**
+         * Returns a snapshot containing the current mappings of the given
+         * projects, or this snapshot if it already contains them.
+         */
+        Snapshot withMappingsOf(Collection<IJavaProject> projects, Preferences preferences)
+        {
+            Map<IJavaProject, SourceFolderMappingGraph> updatedMappings = null;
+            for (IJavaProject project : projects)
+            {
+                SourceFolderMappingGraph mappings = preferences.getSourceMappingGraph(project);
+                if(mappingsByProject.get(project) != mappings)
+                {
+                    if(updatedMappings == null)
+                    {
+                        updatedMappings = new LinkedHashMap<IJavaProject, SourceFolderMappingGraph>(mappingsByProject);
+                    }
+                    updatedMappings.put(project, mappings);
+                }
+            }
+
+            if(updatedMappings == null)
+            {
+                return this;
+            }
+            return new Snapshot(generation, referencingProjects, updatedMappings);
         }
-        return resultList;
     }
 }
@@ -1,88 +1,220 @@
 package org.moreunit.annotation;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.ui.IEditorPart;
-import org.eclipse.ui.IPartListener;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.texteditor.ITextEditor;
-import org.moreunit.elements.EditorPartFacade;
+import org.moreunit.handler.JumpPrefetcher;
 import org.moreunit.util.PluginTools;
 
 /**
+ * Updates the annotations of Java editors when they are shown, and when the
+ * content of their file changes.
+ * <p>
+ * The paths of the files of open Java editors are recorded as editors are
+ * opened and closed, so that resource changes are filtered without accessing
+ * the workbench. Updates are debounced and deferred for hidden editors by the
+ * {@link AnnotationUpdateScheduler}, which is told which editors are shown.
+ * </p>
+ * <p>
+ * The targets of a jump from the active editor are also prefetched by the
+ * {@link JumpPrefetcher}.
+ * </p>
+ *
  * @author vera 23.02.2008 17:30:33
  */
-public class AnnotationUpdateListener implements IPartListener, IResourceChangeListener
+public class AnnotationUpdateListener implements IPartListener2, IResourceChangeListener
 {
+    // open Java editor -> path of its file
+    private final Map<ITextEditor, IPath> javaEditorPaths = new ConcurrentHashMap<ITextEditor, IPath>();
+    private final AnnotationUpdateScheduler scheduler;
+    private final Consumer<ITextEditor> annotationUpdater;
+
     public AnnotationUpdateListener()
     {
-        ResourcesPlugin.getWorkspace().addResourceChangeListener(this);
+        this(AnnotationUpdateScheduler.getInstance(), MoreUnitAnnotationModel::updateAnnotations);
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+    }
+
+    // package-private for testing purposes
+    AnnotationUpdateListener(AnnotationUpdateScheduler scheduler, Consumer<ITextEditor> annotationUpdater)
+    {
+        this.scheduler = scheduler;
+        this.annotationUpdater = annotationUpdater;
     }
 
-    public void partActivated(IWorkbenchPart part)
+    /**
+     * Records the editors that were open before this listener was registered.
+     */
+    public void trackOpenEditors()
     {
+        for (IWorkbenchWindow window : PlatformUI.getWorkbench().getWorkbenchWindows())
+        {
+            for (IWorkbenchPage page : window.getPages())
+            {
+                for (IEditorReference editorReference : page.getEditorReferences())
+                {
+                    track(editorReference.getPart(false));
+                }
+            }
+        }
+    }
+
+    public void partActivated(IWorkbenchPartReference partRef)
+    {
+        IWorkbenchPart part = partRef.getPart(false);
         if(part instanceof ITextEditor)
         {
-            MoreUnitAnnotationModel.updateAnnotations((ITextEditor) part);
+            track(part);
+            scheduler.editorActivated((ITextEditor) part);
+            annotationUpdater.accept((ITextEditor) part);
+            JumpPrefetcher.getInstance().prefetch((ITextEditor) part);
         }
     }
 
-    public void partBroughtToTop(IWorkbenchPart part)
+    public void partBroughtToTop(IWorkbenchPartReference partRef)
     {
+        IWorkbenchPart part = partRef.getPart(false);
         if(part instanceof ITextEditor)
         {
-            MoreUnitAnnotationModel.updateAnnotations((ITextEditor) part);
+            track(part);
+            scheduler.editorShown((ITextEditor) part);
+            annotationUpdater.accept((ITextEditor) part);
         }
     }
 
-    public void partClosed(IWorkbenchPart part)
+    public void partClosed(IWorkbenchPartReference partRef)
     {
+        IWorkbenchPart part = partRef.getPart(false);
         if(part instanceof ITextEditor)
         {
+            javaEditorPaths.remove(part);
+            scheduler.editorClosed((ITextEditor) part);
             MoreUnitAnnotationModel.detach((ITextEditor) part);
         }
     }
 
-    public void partDeactivated(IWorkbenchPart part)
+    public void partDeactivated(IWorkbenchPartReference partRef)
     {
     }
 
-    public void partOpened(IWorkbenchPart part)
+    public void partOpened(IWorkbenchPartReference partRef)
     {
+        IWorkbenchPart part = partRef.getPart(false);
         if(part instanceof ITextEditor)
         {
+            track(part);
             MoreUnitAnnotationModel.attach((ITextEditor) part);
         }
     }
 
+    public void partHidden(IWorkbenchPartReference partRef)
+    {
+        IWorkbenchPart part = partRef.getPart(false);
+        if(part instanceof ITextEditor)
+        {
+            scheduler.editorHidden((ITextEditor) part);
+        }
+    }
+
+    public void partVisible(IWorkbenchPartReference partRef)
+    {
+        IWorkbenchPart part = partRef.getPart(false);
+        if(part instanceof ITextEditor)
+        {
+            scheduler.editorShown((ITextEditor) part);
+            MoreUnitAnnotationModel.resumeDeferredUpdate((ITextEditor) part);
+        }
+    }
+
+    public void partInputChanged(IWorkbenchPartReference partRef)
+    {
+        IWorkbenchPart part = partRef.getPart(false);
+        if(part instanceof ITextEditor)
+        {
+            track(part);
+        }
+    }
+
+    private void track(IWorkbenchPart part)
+    {
+        if(! (part instanceof ITextEditor))
+        {
+            return;
+        }
+
+        ITextEditor editor = (ITextEditor) part;
+        IFile file = PluginTools.isJavaFile(editor) ? editor.getEditorInput().getAdapter(IFile.class) : null;
+        if(file == null)
+        {
+            javaEditorPaths.remove(editor);
+        }
+        else
+        {
+            javaEditorPaths.put(editor, file.getFullPath());
+        }
+    }
+
     public void dispose()
     {
         ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        javaEditorPaths.clear();
     }
 
     public void resourceChanged(IResourceChangeEvent event)
     {
-        IEditorPart openEditorPart = PluginTools.getOpenEditorPart();
-        if(openEditorPart instanceof ITextEditor)
+        IResourceDelta delta = event.getDelta();
+        if(delta == null || javaEditorPaths.isEmpty())
         {
-            if(PluginTools.isJavaFile(openEditorPart))
+            return;
+        }
+
+        for (Map.Entry<ITextEditor, IPath> entry : javaEditorPaths.entrySet())
+        {
+            IResourceDelta fileDelta = delta.findMember(entry.getValue());
+            if(fileDelta == null)
             {
-                EditorPartFacade editorPartFacade = new EditorPartFacade(openEditorPart);
-                IFile file = editorPartFacade.getFile();
-                if(file != null)
-                {
-                    IResourceDelta delta = event.getDelta();
-                    if(delta != null)
-                    {
-                        IResourceDelta member = delta.findMember(file.getFullPath());
-                        if(member != null)
-                            MoreUnitAnnotationModel.updateAnnotations((ITextEditor) openEditorPart);
-                    }
-                }
+                continue;
+            }
+
+            if((fileDelta.getFlags() & IResourceDelta.MOVED_TO) != 0)
+            {
+                // the editor follows its file
+                entry.setValue(fileDelta.getMovedToPath());
+            }
+            else if(! isContentChange(fileDelta))
+            {
+                continue;
             }
+
+            annotationUpdater.accept(entry.getKey());
+        }
+    }
+
+    private static boolean isContentChange(IResourceDelta fileDelta)
+    {
+        switch (fileDelta.getKind())
+        {
+        case IResourceDelta.ADDED:
+            return true;
+        case IResourceDelta.CHANGED:
+            return (fileDelta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0;
+        default:
+            return false;
         }
     }
 }
@@ -0,0 +1,95 @@
+package org.moreunit.annotation;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.texteditor.ITextEditor;
+
+/**
+ * Decides when the annotations of editors are updated.
+ * <p>
+ * Update requests for an editor are debounced: an update only starts once no
+ * request has been made for a quiet period (150 ms by default, which may be
+ * set in milliseconds with the {@value #QUIET_PERIOD_PROPERTY} system
+ * property), or once requests have kept coming for {@link #MAX_DELAY_FACTOR}
+ * quiet periods. Requests made meanwhile are merged into this update. The
+ * update of the active editor runs with a higher priority than the ones of
+ * other editors, and updates of hidden editors are deferred until they are
+ * shown again.
+ * </p>
+ */
+public class AnnotationUpdateScheduler
+{
+    static final String QUIET_PERIOD_PROPERTY = "org.moreunit.annotation.quietPeriod";
+    static final int MAX_DELAY_FACTOR = 4;
+    private static final long DEFAULT_QUIET_PERIOD = 150;
+
+    private static final AnnotationUpdateScheduler instance = new AnnotationUpdateScheduler(Math.max(0, Long.getLong(QUIET_PERIOD_PROPERTY, DEFAULT_QUIET_PERIOD)));
+
+    private final long quietPeriod;
+    private final Set<ITextEditor> hiddenEditors = ConcurrentHashMap.newKeySet();
+    private volatile ITextEditor activeEditor;
+
+    public static AnnotationUpdateScheduler getInstance()
+    {
+        return instance;
+    }
+
+    AnnotationUpdateScheduler(long quietPeriod)
+    {
+        this.quietPeriod = quietPeriod;
+    }
+
+    public long getQuietPeriod()
+    {
+        return quietPeriod;
+    }
+
+    /**
+     * Returns the delay to wait before starting an update which was first
+     * requested at <code>firstRequestTime</code> and last requested at
+     * <code>lastRequestTime</code>, or 0 if it may start now.
+     */
+    long getRemainingDelay(long firstRequestTime, long lastRequestTime, long now)
+    {
+        long quietPeriodEnd = lastRequestTime + quietPeriod;
+        long deadline = firstRequestTime + MAX_DELAY_FACTOR * quietPeriod;
+        return Math.max(0, Math.min(quietPeriodEnd, deadline) - now);
+    }
+
+    int getUpdatePriority(ITextEditor editor)
+    {
+        return editor == activeEditor ? Job.SHORT : Job.DECORATE;
+    }
+
+    public boolean isHidden(ITextEditor editor)
+    {
+        return hiddenEditors.contains(editor);
+    }
+
+    public void editorActivated(ITextEditor editor)
+    {
+        activeEditor = editor;
+        hiddenEditors.remove(editor);
+    }
+
+    public void editorShown(ITextEditor editor)
+    {
+        hiddenEditors.remove(editor);
+    }
+
+    public void editorHidden(ITextEditor editor)
+    {
+        hiddenEditors.add(editor);
+    }
+
+    public void editorClosed(ITextEditor editor)
+    {
+        hiddenEditors.remove(editor);
+        if(activeEditor == editor)
+        {
+            activeEditor = null;
+        }
+    }
+}
@@ -11,8 +11,10 @@ import org.eclipse.ui.*;
 import org.eclipse.ui.texteditor.*;
 import org.moreunit.elements.*;
 import org.moreunit.log.LogHandler;
+import org.moreunit.matching.TestCorrespondenceIndex;
 import org.moreunit.preferences.Preferences;
 import org.moreunit.preferences.TestAnnotationMode;
+import org.moreunit.ui.VisibleLineRange;
 
 /**
  * @author vera 01.02.2009 14:27:06
@@ -24,41 +26,108 @@ public class MoreUnitAnnotationModel implements IAnnotationModel
 
     private static final String MODEL_KEY = "org.moreunit.model_key";
 
-    private final List<MoreUnitAnnotation> annotations = Collections.synchronizedList(new ArrayList<>());
+    // number of methods to evaluate above which the shown ones are annotated
+    // first
+    private static final int VIEWPORT_FIRST_THRESHOLD = 100;
+
+    // marks methods without tests in the cache
+    private static final String NOT_TESTED = "";
+
+    // method handle identifier -> annotation
+    private final Map<String, MoreUnitAnnotation> annotations = Collections.synchronizedMap(new LinkedHashMap<>());
     private final List<IAnnotationModelListener> annotationModelListeners = new ArrayList<>(2);
     private final IDocument document;
     private final ITextEditor textEditor;
+    private final AnnotationUpdateScheduler scheduler;
     private Job updateJob;
+    // times of the first and last update requests not handled yet, guarded by
+    // this (the first one being 0 if there are none)
+    private long firstUpdateRequestTime;
+    private long lastUpdateRequestTime;
+    private volatile boolean updateDeferred;
+
+    // method handle identifier -> annotation type or NOT_TESTED, only accessed
+    // by the update job
+    private final Map<String, String> annotationTypeByMethod = new HashMap<>();
+    private TestAnnotationMode cachedAnnotationMode;
+    private String cachedCompilationUnitHandle;
+    private volatile boolean testCasesChanged;
+    private final TestCorrespondenceIndex.InvalidationListener testCasesListener = new TestCorrespondenceIndex.InvalidationListener()
+    {
+        public void entriesInvalidated(String changedCuHandle, Set<String> cuHandles)
+        {
+            // changes to the edited compilation unit itself are handled by
+            // comparing method signatures
+            String cuHandle = cachedCompilationUnitHandle;
+            if(cuHandle != null && ! cuHandle.equals(changedCuHandle) && cuHandles.contains(cuHandle))
+            {
+                testCasesMayHaveChanged();
+            }
+        }
+
+        public void indexCleared()
+        {
+            testCasesMayHaveChanged();
+        }
+    };
 
     /*
      * Could be private, but is public for testing.
      */
     public MoreUnitAnnotationModel(IDocument document, ITextEditor textEditor)
+    {
+        this(document, textEditor, AnnotationUpdateScheduler.getInstance());
+        TestCorrespondenceIndex.getInstance().addInvalidationListener(testCasesListener);
+        updateAnnotations();
+    }
+
+    // package-private for testing purposes: such a model neither listens to
+    // the correspondence index nor updates its annotations by itself
+    MoreUnitAnnotationModel(IDocument document, ITextEditor textEditor, AnnotationUpdateScheduler scheduler)
     {
         this.document = document;
         this.textEditor = textEditor;
-        updateAnnotations();
+        this.scheduler = scheduler;
     }
 
     public static void updateAnnotations(ITextEditor editor)
+    {
+        MoreUnitAnnotationModel annotationModel = getAnnotationModel(editor);
+        if(annotationModel != null)
+        {
+            annotationModel.updateAnnotations();
+        }
+    }
+
+    /**
+     * Runs the update of the annotations of the given editor that was
+     * deferred while it was hidden, if any.
+     */
+    public static void resumeDeferredUpdate(ITextEditor editor)
+    {
+        MoreUnitAnnotationModel annotationModel = getAnnotationModel(editor);
+        if(annotationModel != null && annotationModel.updateDeferred)
+        {
+            annotationModel.updateDeferred = false;
+            annotationModel.scheduleUpdate(0);
+        }
+    }
+
+    private static MoreUnitAnnotationModel getAnnotationModel(ITextEditor editor)
     {
         IDocumentProvider provider = editor.getDocumentProvider();
         if(provider == null)
         {
-            return;
+            return null;
         }
         IAnnotationModel model = provider.getAnnotationModel(editor.getEditorInput());
         if(! (model instanceof IAnnotationModelExtension))
         {
-            return;
+            return null;
         }
 
         IAnnotationModelExtension modelExtension = (IAnnotationModelExtension) model;
-        MoreUnitAnnotationModel annotationModel = (MoreUnitAnnotationModel) modelExtension.getAnnotationModel(MODEL_KEY);
-        if(annotationModel != null)
-        {
-            annotationModel.updateAnnotations();
-        }
+        return (MoreUnitAnnotationModel) modelExtension.getAnnotationModel(MODEL_KEY);
     }
 
     public static void attachForAllOpenEditor()
@@ -122,29 +191,19 @@ public class MoreUnitAnnotationModel implements IAnnotationModel
         }
         IAnnotationModelExtension modelExtension = (IAnnotationModelExtension) model;
         model = modelExtension.removeAnnotationModel(MODEL_KEY);
-        if(model instanceof MoreUnitAnnotationModel && ((MoreUnitAnnotationModel) model).updateJob != null)
-        {
-            ((MoreUnitAnnotationModel) model).updateJob.cancel();
-        }
-    }
-
-    private void clear(AnnotationModelEvent event)
-    {
-        synchronized (annotations)
+        if(model instanceof MoreUnitAnnotationModel)
         {
-            for (MoreUnitAnnotation annotation : annotations)
+            MoreUnitAnnotationModel annotationModel = (MoreUnitAnnotationModel) model;
+            TestCorrespondenceIndex.getInstance().removeInvalidationListener(annotationModel.testCasesListener);
+            if(annotationModel.updateJob != null)
             {
-                annotation.markDeleted(true);
-                event.annotationRemoved(annotation, annotation.getPosition());
+                annotationModel.updateJob.cancel();
             }
-
-            annotations.clear();
         }
     }
 
     private void updateAnnotations()
     {
-        final MoreUnitAnnotationModel modelInstance = this;
         if(updateJob == null)
         {
             updateJob = new Job("Update MoreUnit Annotations")
@@ -156,101 +215,351 @@ public class MoreUnitAnnotationModel implements IAnnotationModel
                     {
                         return Status.CANCEL_STATUS;
                     }
-                    AnnotationModelEvent event = new AnnotationModelEvent(modelInstance);
-                    clear(event);
+
+                    long remainingDelay = takeRemainingUpdateDelay();
+                    if(remainingDelay > 0)
+                    {
+                        // requested again in the meantime
+                        scheduleUpdate(remainingDelay);
+                        return Status.OK_STATUS;
+                    }
+                    if(scheduler.isHidden(textEditor))
+                    {
+                        updateDeferred = true;
+                        return Status.OK_STATUS;
+                    }
+
+                    Map<String, ExpectedAnnotation> expectedAnnotations = Collections.emptyMap();
                     try
                     {
-                        EditorPartFacade editorPartFacade = new EditorPartFacade(textEditor);
-                        if(! editorPartFacade.isJavaLikeFile())
-                        {
-                            return Status.OK_STATUS;
-                        }
-                        ICompilationUnit compilationUnit = editorPartFacade.getCompilationUnit();
-                        if(TypeFacade.isTestCase(compilationUnit))
-                        {
-                            return Status.OK_STATUS;
-                        }
-                        ClassTypeFacade classTypeFacade = new ClassTypeFacade(compilationUnit);
-                        IType type = classTypeFacade.getType();
-                        if(type == null)
-                        {
-                            return Status.OK_STATUS; // this could happen if the
-                                                     // resource is out of sync
-                                                     // with
-                                                     // the file system
-                        }
-                        annotateTestedMethods(type, classTypeFacade, event, monitor);
+                        expectedAnnotations = computeExpectedAnnotations(monitor);
                     }
                     catch (Exception exc)
                     {
+                        annotationTypeByMethod.clear();
                         LogHandler.getInstance().handleExceptionLog(exc);
                     }
-                    fireModelChanged(event);
-                    return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+                    if(monitor.isCanceled())
+                    {
+                        return Status.CANCEL_STATUS;
+                    }
+                    fireModelChanged(applyAnnotations(expectedAnnotations, Collections.<String> emptySet()));
+                    return Status.OK_STATUS;
                 }
             };
-            updateJob.setPriority(Job.DECORATE);
         }
         if(updateJob.getResult() != null && updateJob.getResult().getSeverity() == IStatus.CANCEL)
         {
             return;
         }
-        updateJob.schedule();
+
+        synchronized (this)
+        {
+            long now = System.currentTimeMillis();
+            if(firstUpdateRequestTime == 0)
+            {
+                firstUpdateRequestTime = now;
+            }
+            lastUpdateRequestTime = now;
+        }
+        // has no effect if the job is already waiting, the delay being then
+        // checked again when it starts
+        scheduleUpdate(scheduler.getQuietPeriod());
     }
 
-    private void annotateTestedMethods(IType type, ClassTypeFacade classTypeFacade, AnnotationModelEvent event, IProgressMonitor monitor) throws JavaModelException
+    private void scheduleUpdate(long delay)
     {
+        updateJob.setPriority(scheduler.getUpdatePriority(textEditor));
+        updateJob.schedule(delay);
+    }
+
+    /**
+     * Returns the time left before the requested update may start, or 0 if it
+     * may start now, in which case pending requests are considered handled.
+     */
+    private synchronized long takeRemainingUpdateDelay()
+    {
+        if(firstUpdateRequestTime == 0)
+        {
+            return 0;
+        }
+        long remainingDelay = scheduler.getRemainingDelay(firstUpdateRequestTime, lastUpdateRequestTime, System.currentTimeMillis());
+        if(remainingDelay == 0)
+        {
+            firstUpdateRequestTime = 0;
+        }
+        return remainingDelay;
+    }
+
+    /**
+     * Returns the annotations that should be displayed, by method handle
+     * identifier (empty if the update was canceled).
+     */
+    private Map<String, ExpectedAnnotation> computeExpectedAnnotations(IProgressMonitor monitor) throws JavaModelException
+    {
+        EditorPartFacade editorPartFacade = new EditorPartFacade(textEditor);
+        if(! editorPartFacade.isJavaLikeFile())
+        {
+            return Collections.emptyMap();
+        }
+        ICompilationUnit compilationUnit = editorPartFacade.getCompilationUnit();
+        if(TypeFacade.isTestCase(compilationUnit))
+        {
+            return Collections.emptyMap();
+        }
+        ClassTypeFacade classTypeFacade = new ClassTypeFacade(compilationUnit);
+        IType type = classTypeFacade.getType();
+        if(type == null)
+        {
+            return Collections.emptyMap(); // this could happen if the
+                                           // resource is out of sync with
+                                           // the file system
+        }
         TestAnnotationMode testAnnotationMode = Preferences.forProject(type.getJavaProject()).getTestAnnotationMode();
         if(testAnnotationMode == TestAnnotationMode.OFF)
         {
-            return;
+            return Collections.emptyMap();
+        }
+        return computeExpectedAnnotations(classTypeFacade, compilationUnit.getHandleIdentifier(), testAnnotationMode, monitor);
+    }
+
+    /**
+     * Returns the annotations that should be displayed for the methods of the
+     * type of the given facade, only searching the tests of the methods that
+     * were not evaluated yet (empty if the update was canceled).
+     */
+    Map<String, ExpectedAnnotation> computeExpectedAnnotations(ClassTypeFacade classTypeFacade, String compilationUnitHandle, TestAnnotationMode testAnnotationMode, IProgressMonitor monitor) throws JavaModelException
+    {
+        if(testCasesChanged || testAnnotationMode != cachedAnnotationMode || ! compilationUnitHandle.equals(cachedCompilationUnitHandle))
+        {
+            // flag reset before computing: an invalidation happening during
+            // computation will be taken into account on next update
+            testCasesChanged = false;
+            cachedAnnotationMode = testAnnotationMode;
+            cachedCompilationUnitHandle = compilationUnitHandle;
+            annotationTypeByMethod.clear();
+        }
+
+        IType type = classTypeFacade.getType();
+        IMethod[] methods = type.getMethods();
+        SubMonitor progress = SubMonitor.convert(monitor, "Processing type \"" + type.getElementName() + "\"", methods.length);
+
+        // the handle identifier changes with the method signature, hence
+        // methods which signature changed are evaluated again
+        Map<String, IMethod> methodsByHandle = new LinkedHashMap<>();
+        List<IMethod> methodsToEvaluate = new ArrayList<>();
+        for (IMethod method : methods)
+        {
+            String methodHandle = method.getHandleIdentifier();
+            methodsByHandle.put(methodHandle, method);
+            if(! annotationTypeByMethod.containsKey(methodHandle))
+            {
+                methodsToEvaluate.add(method);
+            }
+        }
+        annotationTypeByMethod.keySet().retainAll(methodsByHandle.keySet());
+        progress.worked(methods.length - methodsToEvaluate.size());
+
+        if(methodsToEvaluate.size() > VIEWPORT_FIRST_THRESHOLD)
+        {
+            // the methods that are shown are annotated first
+            List<IMethod> hiddenMethods = removeHiddenMethods(methodsToEvaluate);
+            if(! hiddenMethods.isEmpty())
+            {
+                if(! evaluate(classTypeFacade, methodsToEvaluate, testAnnotationMode, progress))
+                {
+                    return Collections.emptyMap();
+                }
+                publishPartialAnnotations(methodsByHandle);
+                methodsToEvaluate = hiddenMethods;
+            }
+        }
+
+        if(! evaluate(classTypeFacade, methodsToEvaluate, testAnnotationMode, progress))
+        {
+            return Collections.emptyMap();
         }
-        monitor.beginTask("Processing type \"" + type.getElementName() + "\"", type.getMethods().length);
-        for (IMethod method : type.getMethods())
+        return getExpectedAnnotations(methodsByHandle);
+    }
+
+    /**
+     * Removes the methods that are not shown from the given list, and returns
+     * them.
+     */
+    private List<IMethod> removeHiddenMethods(List<IMethod> methods)
+    {
+        ITextViewer viewer = getTextViewer();
+        VisibleLineRange visibleLines = viewer == null ? null : VisibleLineRange.of(viewer);
+        if(visibleLines == null)
+        {
+            return Collections.emptyList();
+        }
+
+        List<IMethod> hiddenMethods = new ArrayList<>();
+        for (Iterator<IMethod> it = methods.iterator(); it.hasNext();)
+        {
+            IMethod method = it.next();
+            if(! visibleLines.contains(document, method))
+            {
+                hiddenMethods.add(method);
+                it.remove();
+            }
+        }
+        return hiddenMethods;
+    }
+
+    private ITextViewer getTextViewer()
+    {
+        // the text operation target of a source editor is its viewer
+        Object target = textEditor.getAdapter(ITextOperationTarget.class);
+        return target instanceof ITextViewer ? (ITextViewer) target : null;
+    }
+
+    /**
+     * Evaluates the given methods, returning false if canceled.
+     */
+    private boolean evaluate(ClassTypeFacade classTypeFacade, List<IMethod> methods, TestAnnotationMode testAnnotationMode, SubMonitor progress) throws JavaModelException
+    {
+        if(methods.isEmpty())
+        {
+            return ! progress.isCanceled();
+        }
+
+        // searching by call runs a single reference search for all
+        // methods, without relying on the shared CallHierarchy, and stops
+        // as soon as the job is canceled
+        Map<IMethod, Set<IMethod>> testMethodsByMethod;
+        try
+        {
+            testMethodsByMethod = classTypeFacade.getCorrespondingTestMethods(methods, testAnnotationMode.getMethodSearchMode(), progress.newChild(methods.size()));
+        }
+        catch (OperationCanceledException e)
+        {
+            return false;
+        }
+
+        for (Map.Entry<IMethod, Set<IMethod>> entry : testMethodsByMethod.entrySet())
+        {
+            if(progress.isCanceled())
+            {
+                return false;
+            }
+            annotationTypeByMethod.put(entry.getKey().getHandleIdentifier(), getAnnotationType(entry.getValue()));
+        }
+        return ! progress.isCanceled();
+    }
+
+    /**
+     * Applies the annotations of the methods evaluated so far, keeping the
+     * current annotations of the methods that are still to be evaluated.
+     */
+    private void publishPartialAnnotations(Map<String, IMethod> methodsByHandle) throws JavaModelException
+    {
+        Set<String> pendingMethods = new HashSet<>(methodsByHandle.keySet());
+        pendingMethods.removeAll(annotationTypeByMethod.keySet());
+
+        fireModelChanged(applyAnnotations(getExpectedAnnotations(methodsByHandle), pendingMethods));
+    }
+
+    private Map<String, ExpectedAnnotation> getExpectedAnnotations(Map<String, IMethod> methodsByHandle) throws JavaModelException
+    {
+        Map<String, ExpectedAnnotation> result = new LinkedHashMap<>();
+        for (Map.Entry<String, IMethod> entry : methodsByHandle.entrySet())
         {
-            if(monitor.isCanceled())
+            String annotationType = annotationTypeByMethod.get(entry.getKey());
+            if(annotationType != null && annotationType != NOT_TESTED)
             {
-                return;
+                result.put(entry.getKey(), new ExpectedAnnotation(annotationType, entry.getValue().getNameRange()));
             }
-            // never search by call, as it causes a lot of issues, the
-            // CallHierarchy singleton's state being shared between different
-            // search tasks
-            Collection<IMethod> testMethods = classTypeFacade.getCorrespondingTestMethods(method, testAnnotationMode.getMethodSearchMode());
+        }
+        return result;
+    }
+
+    private static String getAnnotationType(Collection<IMethod> testMethods) throws JavaModelException
+    {
+        if(testMethods.isEmpty())
+        {
+            return NOT_TESTED;
+        }
 
-            boolean hasIgnoredTest = false;
-            for (IMethod testMethod : testMethods)
+        for (IMethod testMethod : testMethods)
+        {
+            // Using getAnnotation(IGNORE_ANNOTATION_NAME).exists() seems to
+            // give back true "for a while" after removing an annotation,
+            // that is why I am using this loop
+            IAnnotation[] allAnnotations = testMethod.getAnnotations();
+            for (IAnnotation annotation : allAnnotations)
             {
-                // Using getAnnotation(IGNORE_ANNOTATION_NAME).exists() seems to
-                // give back true "for a while" after removing an annotation,
-                // that is why I am using this loop
-                IAnnotation[] allAnnotations = testMethod.getAnnotations();
-                for (IAnnotation annotation : allAnnotations)
+                if(IGNORE_ANNOTATION_NAME.equals(annotation.getElementName()))
                 {
-                    if(IGNORE_ANNOTATION_NAME.equals(annotation.getElementName()))
-                    {
-                        hasIgnoredTest = true;
-                        break;
-                    }
+                    return MoreUnitAnnotation.ANNOTATION_ID_IGNORED;
                 }
             }
+        }
+        return MoreUnitAnnotation.ANNOTATION_ID;
+    }
 
-            if(! testMethods.isEmpty())
+    /**
+     * Updates the annotations of this model to match the expected ones, and
+     * returns an event holding only actual changes. The annotations of the
+     * given pending methods are left untouched.
+     */
+    AnnotationModelEvent applyAnnotations(Map<String, ExpectedAnnotation> expectedAnnotations, Set<String> pendingMethods)
+    {
+        // not a world change, so that listeners only process the reported
+        // changes (and nothing when there are none)
+        AnnotationModelEvent event = new AnnotationModelEvent(this, false);
+        Map<String, ExpectedAnnotation> annotationsToAdd = new LinkedHashMap<>(expectedAnnotations);
+        synchronized (annotations)
+        {
+            for (Iterator<Map.Entry<String, MoreUnitAnnotation>> it = annotations.entrySet().iterator(); it.hasNext();)
             {
-                ISourceRange range = method.getNameRange();
-                MoreUnitAnnotation annotation = null;
-                if(hasIgnoredTest)
-                    annotation = MoreUnitAnnotation.createAnnotationForIgnoredTesMethod(range);
-                else
-                    annotation = MoreUnitAnnotation.createAnnotationForTestedMethod(range);
+                Map.Entry<String, MoreUnitAnnotation> entry = it.next();
+                if(pendingMethods.contains(entry.getKey()))
+                {
+                    continue;
+                }
+                MoreUnitAnnotation annotation = entry.getValue();
+                ExpectedAnnotation expected = expectedAnnotations.get(entry.getKey());
+
+                if(expected == null || ! expected.type.equals(annotation.getType()))
+                {
+                    annotation.markDeleted(true);
+                    event.annotationRemoved(annotation, annotation.getPosition());
+                    it.remove();
+                    continue;
+                }
 
-                synchronized (annotations)
+                annotationsToAdd.remove(entry.getKey());
+                Position position = annotation.getPosition();
+                if(position.getOffset() != expected.range.getOffset() || position.getLength() != expected.range.getLength())
                 {
-                    annotations.add(annotation);
+                    position.setOffset(expected.range.getOffset());
+                    position.setLength(expected.range.getLength());
+                    event.annotationChanged(annotation);
                 }
+            }
+
+            for (Map.Entry<String, ExpectedAnnotation> entry : annotationsToAdd.entrySet())
+            {
+                ExpectedAnnotation expected = entry.getValue();
+                MoreUnitAnnotation annotation;
+                if(MoreUnitAnnotation.ANNOTATION_ID_IGNORED.equals(expected.type))
+                    annotation = MoreUnitAnnotation.createAnnotationForIgnoredTesMethod(expected.range);
+                else
+                    annotation = MoreUnitAnnotation.createAnnotationForTestedMethod(expected.range);
+
+                annotations.put(entry.getKey(), annotation);
                 event.annotationAdded(annotation);
             }
-            monitor.worked(1);
         }
+        return event;
+    }
+
+    private void testCasesMayHaveChanged()
+    {
+        testCasesChanged = true;
+        updateAnnotations();
     }
 
     public void addAnnotation(Annotation annotation, Position position)
@@ -348,7 +657,19 @@ public class MoreUnitAnnotationModel implements IAnnotationModel
     {
         synchronized (annotations)
         {
-            return new ArrayList<MoreUnitAnnotation>(annotations);
+            return new ArrayList<MoreUnitAnnotation>(annotations.values());
+        }
+    }
+
+    static final class ExpectedAnnotation
+    {
+        final String type;
+        final ISourceRange range;
+
+        ExpectedAnnotation(String type, ISourceRange range)
+        {
+            this.type = type;
+            this.range = range;
         }
     }
 }
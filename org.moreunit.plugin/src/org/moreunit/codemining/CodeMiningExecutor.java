@@ -0,0 +1,294 @@
+package org.moreunit.codemining;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+import org.moreunit.log.LogHandler;
+
+/**
+ * Runs the computations of code minings on a small pool of threads owned by
+ * MoreUnit, rather than on the common pool shared with the rest of the IDE.
+ * <p>
+ * At most one computation runs or waits per requester (typically a text
+ * viewer): submitting a new one cancels the previous one, which is then
+ * skipped if it has not started yet, or sees its monitor canceled otherwise.
+ * A requester may also have one background computation, which only runs when
+ * no regular computation is waiting, and which is canceled as well by the
+ * next regular computation of the requester.
+ * The number of threads defaults to half the available processors (between 1
+ * and 2), and may be set with the {@value #THREAD_COUNT_PROPERTY} system
+ * property.
+ * </p>
+ * <p>
+ * The shared instance is created on first use and released by
+ * {@link #disposeInstance()} when the plug-in stops, so that a restarted
+ * plug-in gets a new pool.
+ * </p>
+ */
+public class CodeMiningExecutor
+{
+    static final String THREAD_COUNT_PROPERTY = "org.moreunit.codemining.threads";
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static volatile CodeMiningExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<Object, Request< ? >> pendingRequests = new ConcurrentHashMap<Object, Request< ? >>();
+    private final Map<Object, Request< ? >> pendingBackgroundRequests = new ConcurrentHashMap<Object, Request< ? >>();
+    private final AtomicLong submissionCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong canceledCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+
+    public static CodeMiningExecutor getInstance()
+    {
+        if(instance == null)
+        {
+            synchronized (CodeMiningExecutor.class)
+            {
+                if(instance == null)
+                {
+                    instance = new CodeMiningExecutor(getThreadCount());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Disposes the shared instance, if any: the next call to
+     * {@link #getInstance()} creates a new one.
+     */
+    public static void disposeInstance()
+    {
+        CodeMiningExecutor disposedInstance;
+        synchronized (CodeMiningExecutor.class)
+        {
+            disposedInstance = instance;
+            instance = null;
+        }
+        if(disposedInstance != null)
+        {
+            disposedInstance.dispose();
+        }
+    }
+
+    CodeMiningExecutor(int threadCount)
+    {
+        executor = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), new WorkerThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static int getThreadCount()
+    {
+        int defaultCount = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+        return Math.max(1, Integer.getInteger(THREAD_COUNT_PROPERTY, defaultCount));
+    }
+
+    /**
+     * Runs the given computation, canceling the computation previously
+     * submitted for the same requester if it is not done yet. The computation
+     * receives a monitor that is canceled when the given monitor is, or when
+     * the computation is superseded. The returned future is canceled if the
+     * computation is.
+     */
+    public <T> CompletableFuture<T> submit(Object requester, IProgressMonitor monitor, Function<IProgressMonitor, T> computation)
+    {
+        cancel(pendingBackgroundRequests.remove(requester));
+        return submit(new Request<T>(requester, false, monitor, computation), pendingRequests);
+    }
+
+    /**
+     * Same as {@link #submit}, for a computation that only runs when no
+     * regular computation is waiting. It is canceled by the next computation
+     * submitted for the same requester, be it a regular or a background one.
+     */
+    public <T> CompletableFuture<T> submitInBackground(Object requester, IProgressMonitor monitor, Function<IProgressMonitor, T> computation)
+    {
+        return submit(new Request<T>(requester, true, monitor, computation), pendingBackgroundRequests);
+    }
+
+    private <T> CompletableFuture<T> submit(Request<T> request, Map<Object, Request< ? >> requests)
+    {
+        cancel(requests.put(request.requester, request));
+        executor.execute(request);
+        return request.future;
+    }
+
+    private static void cancel(Request< ? > request)
+    {
+        if(request != null)
+        {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Returns the number of computations waiting for a thread.
+     */
+    public int getQueueDepth()
+    {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Returns the number of computations that completed so far.
+     */
+    public long getCompletedCount()
+    {
+        return completedCount.get();
+    }
+
+    /**
+     * Returns the number of computations that were canceled so far.
+     */
+    public long getCanceledCount()
+    {
+        return canceledCount.get();
+    }
+
+    /**
+     * Returns the average time between submission and completion of the
+     * computations that completed so far, in milliseconds.
+     */
+    public long getAverageLatencyMillis()
+    {
+        long count = completedCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatencyNanos.get() / count);
+    }
+
+    public void dispose()
+    {
+        for (Request< ? > request : pendingRequests.values())
+        {
+            request.cancel();
+        }
+        for (Request< ? > request : pendingBackgroundRequests.values())
+        {
+            request.cancel();
+        }
+        executor.shutdownNow();
+    }
+
+    private final class Request<T> implements Runnable, Comparable<Request< ? >>
+    {
+        final Object requester;
+        final boolean background;
+        final long sequenceNumber = submissionCount.incrementAndGet();
+        final CancelableMonitor monitor;
+        final Function<IProgressMonitor, T> computation;
+        final CompletableFuture<T> future = new CompletableFuture<T>();
+        final long submissionTime = System.nanoTime();
+
+        Request(Object requester, boolean background, IProgressMonitor monitor, Function<IProgressMonitor, T> computation)
+        {
+            this.requester = requester;
+            this.background = background;
+            this.monitor = new CancelableMonitor(monitor == null ? new NullProgressMonitor() : monitor);
+            this.computation = computation;
+        }
+
+        void cancel()
+        {
+            monitor.setCanceled(true);
+            future.cancel(false);
+        }
+
+        /**
+         * Regular requests first, then in submission order.
+         */
+        public int compareTo(Request< ? > other)
+        {
+            if(background != other.background)
+            {
+                return background ? 1 : - 1;
+            }
+            return Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+
+        public void run()
+        {
+            try
+            {
+                if(monitor.isCanceled())
+                {
+                    throw new OperationCanceledException();
+                }
+
+                T result = computation.apply(monitor);
+                if(monitor.isCanceled())
+                {
+                    throw new OperationCanceledException();
+                }
+
+                future.complete(result);
+                completedCount.incrementAndGet();
+                totalLatencyNanos.addAndGet(System.nanoTime() - submissionTime);
+            }
+            catch (OperationCanceledException | CancellationException e)
+            {
+                canceledCount.incrementAndGet();
+                future.cancel(false);
+            }
+            catch (RuntimeException e)
+            {
+                LogHandler.getInstance().handleExceptionLog(e);
+                future.completeExceptionally(e);
+            }
+            finally
+            {
+                (background ? pendingBackgroundRequests : pendingRequests).remove(requester, this);
+            }
+        }
+    }
+
+    /**
+     * A monitor that may be canceled independently of the wrapped one.
+     */
+    private static final class CancelableMonitor extends ProgressMonitorWrapper
+    {
+        private volatile boolean canceled;
+
+        CancelableMonitor(IProgressMonitor monitor)
+        {
+            super(monitor);
+        }
+
+        @Override
+        public boolean isCanceled()
+        {
+            return canceled || super.isCanceled();
+        }
+
+        @Override
+        public void setCanceled(boolean canceled)
+        {
+            this.canceled = canceled;
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "MoreUnit code mining worker " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.moreunit.codemining;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.moreunit.elements.ClassTypeFacade;
+import org.moreunit.elements.TestCaseTypeFacade;
+import org.moreunit.elements.TypeFacade;
+import org.moreunit.preferences.TestAnnotationMode;
+
+/**
+ * The correspondences of a file at the time its code minings are computed:
+ * the classes corresponding to the file (test cases or class under test), and
+ * the methods corresponding to each of its methods. Everything is resolved at
+ * once, so that the minings of a file share a single facade and a single
+ * method search.
+ */
+public final class FileCorrespondenceSnapshot
+{
+    private static final FileCorrespondenceSnapshot EMPTY = new FileCorrespondenceSnapshot(false, Collections.emptyList(), Collections.emptyMap());
+
+    private final boolean testCase;
+    private final Collection<IType> correspondingClasses;
+    private final Map<IMethod, ? extends Collection<IMethod>> correspondingMethods;
+
+    private FileCorrespondenceSnapshot(boolean testCase, Collection<IType> correspondingClasses, Map<IMethod, ? extends Collection<IMethod>> correspondingMethods)
+    {
+        this.testCase = testCase;
+        this.correspondingClasses = correspondingClasses;
+        this.correspondingMethods = correspondingMethods;
+    }
+
+    /**
+     * Resolves the correspondences of the given compilation unit and of the
+     * given methods, which must be declared in this compilation unit.
+     *
+     * @throws OperationCanceledException if the given monitor is canceled
+     */
+    public static FileCorrespondenceSnapshot create(ICompilationUnit compilationUnit, Collection<IMethod> methods, IProgressMonitor monitor)
+    {
+        if(compilationUnit.findPrimaryType() == null)
+        {
+            return EMPTY;
+        }
+
+        TypeFacade typeFacade = TypeFacade.createFacade(compilationUnit);
+        if(typeFacade instanceof TestCaseTypeFacade)
+        {
+            TestCaseTypeFacade testCaseTypeFacade = (TestCaseTypeFacade) typeFacade;
+            IType classUnderTest = testCaseTypeFacade.getCorrespondingClassUnderTest();
+            if(classUnderTest == null)
+            {
+                return new FileCorrespondenceSnapshot(true, Collections.emptyList(), Collections.emptyMap());
+            }
+
+            Map<IMethod, Collection<IMethod>> testedMethods = new LinkedHashMap<>();
+            for (IMethod method : methods)
+            {
+                if(monitor.isCanceled())
+                {
+                    throw new OperationCanceledException();
+                }
+                testedMethods.put(method, testCaseTypeFacade.getCorrespondingTestedMethods(method, classUnderTest));
+            }
+            return new FileCorrespondenceSnapshot(true, Collections.singletonList(classUnderTest), testedMethods);
+        }
+
+        ClassTypeFacade classTypeFacade = (ClassTypeFacade) typeFacade;
+        Collection<IType> testCases = classTypeFacade.getCorrespondingTestCases();
+        if(testCases.isEmpty())
+        {
+            return new FileCorrespondenceSnapshot(false, testCases, Collections.emptyMap());
+        }
+        return new FileCorrespondenceSnapshot(false, testCases, classTypeFacade.getCorrespondingTestMethods(methods, TestAnnotationMode.BY_CALL_AND_BY_NAME.getMethodSearchMode(), monitor));
+    }
+
+    /**
+     * Returns true if the file is a test case, in which case corresponding
+     * classes and methods are tested ones.
+     */
+    public boolean isTestCase()
+    {
+        return testCase;
+    }
+
+    public Collection<IType> getCorrespondingClasses()
+    {
+        return Collections.unmodifiableCollection(correspondingClasses);
+    }
+
+    public boolean hasCorrespondingClasses()
+    {
+        return ! correspondingClasses.isEmpty();
+    }
+
+    /**
+     * Returns the methods corresponding to the given method, or an empty
+     * collection if there are none or if the given method was not part of the
+     * methods this snapshot was created for.
+     */
+    public Collection<IMethod> getCorrespondingMethods(IMethod method)
+    {
+        Collection<IMethod> methods = correspondingMethods.get(method);
+        return methods == null ? Collections.emptyList() : Collections.unmodifiableCollection(methods);
+    }
+
+    public boolean hasCorrespondingMethods(IMethod method)
+    {
+        return ! getCorrespondingMethods(method).isEmpty();
+    }
+}
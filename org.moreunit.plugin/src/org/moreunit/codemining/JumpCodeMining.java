@@ -6,6 +6,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
@@ -21,14 +22,13 @@ import org.eclipse.jface.text.codemining.ICodeMiningProvider;
 import org.eclipse.jface.text.codemining.LineEndCodeMining;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.ui.IEditorPart;
-import org.moreunit.elements.ClassTypeFacade;
 import org.moreunit.elements.CorrespondingMemberRequest;
 import org.moreunit.elements.CorrespondingMemberRequest.MemberType;
 import org.moreunit.elements.TestCaseTypeFacade;
 import org.moreunit.elements.TypeFacade;
+import org.moreunit.elements.TypeFacade.OneCorrespondingMemberAction;
 import org.moreunit.preferences.Preferences;
 import org.moreunit.preferences.Preferences.MethodSearchMode;
-import org.moreunit.preferences.TestAnnotationMode;
 import org.moreunit.ui.EditorUI;
 
 /**
@@ -39,11 +39,27 @@ public class JumpCodeMining extends LineEndCodeMining
 {
 
     private final IJavaElement element;
+    private final CompletableFuture<FileCorrespondenceSnapshot> pendingCorrespondences;
 
-    public JumpCodeMining(IJavaElement element, IDocument document, ICodeMiningProvider provider) throws JavaModelException, BadLocationException
+    public JumpCodeMining(IJavaElement element, FileCorrespondenceSnapshot correspondences, IDocument document, ICodeMiningProvider provider) throws JavaModelException, BadLocationException
     {
         super(document, getLineNumber(element, document), provider);
         this.element = element;
+        this.pendingCorrespondences = null;
+        // correspondences are already resolved, there is nothing left to do
+        // on resolution
+        setLabel(getLabel(element, correspondences));
+    }
+
+    /**
+     * Creates a mining which label is only known once the given
+     * correspondences are resolved.
+     */
+    public JumpCodeMining(IJavaElement element, CompletableFuture<FileCorrespondenceSnapshot> pendingCorrespondences, IDocument document, ICodeMiningProvider provider) throws JavaModelException, BadLocationException
+    {
+        super(document, getLineNumber(element, document), provider);
+        this.element = element;
+        this.pendingCorrespondences = pendingCorrespondences;
     }
 
     private static int getLineNumber(IJavaElement element, IDocument document) throws JavaModelException, BadLocationException
@@ -53,64 +69,34 @@ public class JumpCodeMining extends LineEndCodeMining
         return document.getLineOfOffset(offset);
     }
 
-    @Override
-    protected CompletableFuture<Void> doResolve(ITextViewer viewer, IProgressMonitor monitor)
+    private static String getLabel(IJavaElement element, FileCorrespondenceSnapshot correspondences)
     {
-        return CompletableFuture.runAsync(() -> {
-            IMember member = (IMember) element;
-            TypeFacade typeFacade = TypeFacade.createFacade(member.getCompilationUnit());
-            String testOrTested = typeFacade instanceof TestCaseTypeFacade ? "tested" : "test";
-            if(element instanceof IType)
+        String testOrTested = correspondences.isTestCase() ? "tested" : "test";
+        if(element instanceof IType)
+        {
+            if(correspondences.hasCorrespondingClasses())
             {
-                boolean jumpable = false;
-                if(typeFacade instanceof ClassTypeFacade)
-                {
-                    ClassTypeFacade classTypeFacade = (ClassTypeFacade) typeFacade;
-                    jumpable = classTypeFacade.hasTestCase();
-                }
-                else if(typeFacade instanceof TestCaseTypeFacade)
-                {
-                    TestCaseTypeFacade testCaseTypeFacade = (TestCaseTypeFacade) typeFacade;
-                    IType correspondingClassUnderTest = testCaseTypeFacade.getCorrespondingClassUnderTest();
-                    jumpable = correspondingClassUnderTest != null;
-                }
-                if(jumpable)
-                {
-                    setLabel(" Jump to " + testOrTested + " class");
-                }
-                else
-                {
-                    setLabel("");
-                }
+                return " Jump to " + testOrTested + " class";
             }
-            else if(element instanceof IMethod)
+        }
+        else if(element instanceof IMethod)
+        {
+            if(correspondences.hasCorrespondingMethods((IMethod) element))
             {
-                IMethod method = (IMethod) element;
-                boolean jumpable = false;
-                if(typeFacade instanceof ClassTypeFacade)
-                {
-                    ClassTypeFacade classTypeFacade = (ClassTypeFacade) typeFacade;
-                    jumpable = ! (classTypeFacade.getCorrespondingTestMethods(method, TestAnnotationMode.BY_CALL_AND_BY_NAME.getMethodSearchMode()).isEmpty());
-                }
-                else if(typeFacade instanceof TestCaseTypeFacade)
-                {
-                    TestCaseTypeFacade testCaseTypeFacade = (TestCaseTypeFacade) typeFacade;
-                    IType correspondingClassUnderTest = testCaseTypeFacade.getCorrespondingClassUnderTest();
-                    if(correspondingClassUnderTest != null)
-                    {
-                        jumpable = ! (testCaseTypeFacade.getCorrespondingTestedMethods(method, correspondingClassUnderTest).isEmpty());
-                    }
-                }
-                if(jumpable)
-                {
-                    setLabel(" Jump to " + testOrTested + " method");
-                }
-                else
-                {
-                    setLabel("");
-                }
+                return " Jump to " + testOrTested + " method";
             }
-        });
+        }
+        return "";
+    }
+
+    @Override
+    protected CompletableFuture<Void> doResolve(ITextViewer viewer, IProgressMonitor monitor)
+    {
+        if(pendingCorrespondences == null)
+        {
+            return super.doResolve(viewer, monitor);
+        }
+        return pendingCorrespondences.thenAccept(correspondences -> setLabel(getLabel(element, correspondences)));
     }
 
     @Override
@@ -119,7 +105,8 @@ public class JumpCodeMining extends LineEndCodeMining
         return e -> {
             MethodSearchMode searchMode = Preferences.getInstance().getMethodSearchMode(element.getJavaProject());
 
-            TypeFacade typeFacade = TypeFacade.createFacade(((IMember) element).getCompilationUnit());
+            ICompilationUnit compilationUnit = ((IMember) element).getCompilationUnit();
+            TypeFacade typeFacade = TypeFacade.createFacade(compilationUnit);
 
             String testOrTested = typeFacade instanceof TestCaseTypeFacade ? "tested" : "test";
             CorrespondingMemberRequest request = newCorrespondingMemberRequest() //
@@ -129,17 +116,19 @@ public class JumpCodeMining extends LineEndCodeMining
                     .promptText(" Jump to " + testOrTested + " class...")
                     .build();
 
-            IMember memberToJump = typeFacade.getOneCorrespondingMember(request);
+            EditorUI editorUI = new EditorUI();
+            OneCorrespondingMemberAction action = editorUI.search("Searching for members corresponding to " + compilationUnit.getElementName(), //
+                                                                  monitor -> typeFacade.findOneCorrespondingMember(request, monitor));
+            IMember memberToJump = action == null ? null : action.getCorrespondingMember();
             if(memberToJump != null)
             {
-                jumpToMember(memberToJump);
+                jumpToMember(editorUI, memberToJump);
             }
         };
     }
 
-    private void jumpToMember(IMember memberToJump)
+    private void jumpToMember(EditorUI editorUI, IMember memberToJump)
     {
-        EditorUI editorUI = new EditorUI();
         if(memberToJump instanceof IMethod)
         {
             IMethod methodToJump = (IMethod) memberToJump;
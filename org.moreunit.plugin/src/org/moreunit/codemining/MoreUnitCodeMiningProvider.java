@@ -2,11 +2,15 @@ package org.moreunit.codemining;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeRoot;
@@ -14,12 +18,14 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.codemining.AbstractCodeMiningProvider;
 import org.eclipse.jface.text.codemining.ICodeMining;
 import org.eclipse.jface.text.codemining.ICodeMiningProvider;
 import org.eclipse.ui.texteditor.ITextEditor;
 import org.moreunit.preferences.Preferences;
+import org.moreunit.ui.VisibleLineRange;
 
 /**
  * {@link ICodeMiningProvider} for MoreUnit.
@@ -27,6 +33,9 @@ import org.moreunit.preferences.Preferences;
 public class MoreUnitCodeMiningProvider extends AbstractCodeMiningProvider
 {
 
+    // number of members above which the shown ones are resolved first
+    static final int VIEWPORT_FIRST_THRESHOLD = 100;
+
     private Preferences preferences;
 
     public MoreUnitCodeMiningProvider()
@@ -39,17 +48,73 @@ public class MoreUnitCodeMiningProvider extends AbstractCodeMiningProvider
     {
         ITextEditor textEditor = super.getAdapter(ITextEditor.class);
         ITypeRoot unit = EditorUtility.getEditorInputJavaElement(textEditor, true);
-        if(unit == null || ! preferences.shouldEnableMoreUnitCodeMining(unit.getJavaProject()))
+        if(! (unit instanceof ICompilationUnit) || ! (textEditor instanceof JavaEditor) || ! preferences.shouldEnableMoreUnitCodeMining(unit.getJavaProject()))
         {
             return CompletableFuture.completedFuture(Collections.emptyList());
         }
-        return CompletableFuture.supplyAsync(() -> {
-            monitor.isCanceled();
+        // computations are superseded by the next request for the same viewer
+        return CodeMiningExecutor.getInstance().<List< ? extends ICodeMining>> submit(viewer, monitor, m -> {
             try
             {
-                IJavaElement[] elements = unit.getChildren();
-                List<ICodeMining> minings = new ArrayList<>(elements.length);
-                collectMinings(unit, textEditor, unit.getChildren(), minings, viewer, monitor);
+                List<IMember> members = new ArrayList<>();
+                collectMembers(unit.getChildren(), members, m);
+                if(members.isEmpty() || m.isCanceled())
+                {
+                    return Collections.emptyList();
+                }
+
+                IDocument document = viewer.getDocument();
+                List<IMethod> methods = getMethods(members);
+
+                // for huge types, the methods that are not shown are resolved
+                // afterwards, in the background
+                List<IMethod> hiddenMethods = Collections.emptyList();
+                VisibleLineRange visibleLines = members.size() > VIEWPORT_FIRST_THRESHOLD ? VisibleLineRange.of(viewer) : null;
+                if(visibleLines != null)
+                {
+                    List<IMethod> visibleMethods = new ArrayList<>();
+                    hiddenMethods = new ArrayList<>();
+                    for (IMethod method : methods)
+                    {
+                        (visibleLines.contains(document, method) ? visibleMethods : hiddenMethods).add(method);
+                    }
+                    methods = visibleMethods;
+                }
+
+                // all minings of the file share the same correspondences,
+                // which are resolved at once
+                FileCorrespondenceSnapshot correspondences = FileCorrespondenceSnapshot.create((ICompilationUnit) unit, methods, m);
+                CompletableFuture<FileCorrespondenceSnapshot> hiddenMethodCorrespondences = null;
+                if(! hiddenMethods.isEmpty() && ! m.isCanceled())
+                {
+                    List<IMethod> methodsToResolve = hiddenMethods;
+                    hiddenMethodCorrespondences = CodeMiningExecutor.getInstance().submitInBackground(viewer, monitor, bm -> FileCorrespondenceSnapshot.create((ICompilationUnit) unit, methodsToResolve, bm));
+                }
+
+                Set<IMethod> hiddenMethodSet = new HashSet<>(hiddenMethods);
+                List<ICodeMining> minings = new ArrayList<>(members.size());
+                for (IMember member : members)
+                {
+                    if(m.isCanceled())
+                    {
+                        return Collections.emptyList();
+                    }
+                    try
+                    {
+                        if(hiddenMethodCorrespondences != null && hiddenMethodSet.contains(member))
+                        {
+                            minings.add(new JumpCodeMining(member, hiddenMethodCorrespondences, document, this));
+                        }
+                        else
+                        {
+                            minings.add(new JumpCodeMining(member, correspondences, document, this));
+                        }
+                    }
+                    catch (BadLocationException e)
+                    {
+                        // Should never occur
+                    }
+                }
                 return minings;
             }
             catch (JavaModelException e)
@@ -60,14 +125,11 @@ public class MoreUnitCodeMiningProvider extends AbstractCodeMiningProvider
         });
     }
 
-    private void collectMinings(ITypeRoot unit, ITextEditor textEditor, IJavaElement[] elements, List<ICodeMining> minings, ITextViewer viewer, IProgressMonitor monitor) throws JavaModelException
+    /**
+     * Collects the classes and methods that should be given a mining.
+     */
+    private void collectMembers(IJavaElement[] elements, List<IMember> members, IProgressMonitor monitor) throws JavaModelException
     {
-
-        if(! (textEditor instanceof JavaEditor))
-        {
-            return;
-        }
-
         for (IJavaElement element : elements)
         {
             if(monitor.isCanceled())
@@ -75,39 +137,31 @@ public class MoreUnitCodeMiningProvider extends AbstractCodeMiningProvider
                 return;
             }
             if(element.getElementType() == IJavaElement.TYPE)
-            {
-                collectMinings(unit, textEditor, ((IType) element).getChildren(), minings, viewer, monitor);
-            }
-            else if((element.getElementType() != IJavaElement.METHOD))
-            {
-                continue;
-            }
-            // support methods, classes
-            boolean addMining = false;
-            if(element instanceof IType)
             {
                 IType type = (IType) element;
+                collectMembers(type.getChildren(), members, monitor);
                 if(type.isClass())
                 {
-                    addMining = true;
+                    members.add(type);
                 }
             }
-            else if(element instanceof IMethod)
+            else if(element.getElementType() == IJavaElement.METHOD)
             {
-                addMining = true;
+                members.add((IMethod) element);
             }
-            if(addMining)
+        }
+    }
+
+    private static List<IMethod> getMethods(List<IMember> members)
+    {
+        List<IMethod> methods = new ArrayList<>();
+        for (IMember member : members)
+        {
+            if(member instanceof IMethod)
             {
-                try
-                {
-                    minings.add(new JumpCodeMining(element, viewer.getDocument(), this));
-                }
-                catch (BadLocationException e)
-                {
-                    // Should never occur
-                }
+                methods.add((IMethod) member);
             }
         }
+        return methods;
     }
-
 }
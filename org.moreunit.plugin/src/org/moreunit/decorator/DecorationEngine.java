@@ -0,0 +1,338 @@
+package org.moreunit.decorator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.moreunit.log.LogHandler;
+import org.moreunit.matching.TestCorrespondenceIndex;
+
+/**
+ * Resolves decoration verdicts (whether a compilation unit has a test case or
+ * not) away from the decorator thread.
+ * <p>
+ * Compilation units to resolve are queued and drained in batches by a single
+ * dispatch job, each batch being resolved on a small pool of worker threads.
+ * Verdicts are cached per compilation unit and kept up to date by listening to
+ * the {@link TestCorrespondenceIndex}. Once a batch is resolved, the resources
+ * which decoration changed are reported at once to the label updater, so that
+ * viewers receive a single event per batch.
+ */
+public class DecorationEngine implements TestCorrespondenceIndex.InvalidationListener
+{
+    static final int BATCH_SIZE = 64;
+    private static final long COALESCING_DELAY = 50;
+
+    private final long coalescingDelay;
+    private final Predicate<ICompilationUnit> verdictResolver;
+    private final Consumer<IResource[]> labelUpdater;
+    private final Map<String, Boolean> verdicts = new ConcurrentHashMap<String, Boolean>();
+    // guarded by itself
+    private final Map<String, PendingDecoration> pendingDecorations = new LinkedHashMap<String, PendingDecoration>();
+    private final Job dispatchJob;
+    private ExecutorService workers;
+    private volatile boolean disposed;
+
+    public DecorationEngine(Predicate<ICompilationUnit> verdictResolver, Consumer<IResource[]> labelUpdater)
+    {
+        this(verdictResolver, labelUpdater, COALESCING_DELAY);
+    }
+
+    // package-private for testing purposes
+    DecorationEngine(Predicate<ICompilationUnit> verdictResolver, Consumer<IResource[]> labelUpdater, long coalescingDelay)
+    {
+        this.coalescingDelay = coalescingDelay;
+        this.verdictResolver = verdictResolver;
+        this.labelUpdater = labelUpdater;
+
+        dispatchJob = new Job("Compute MoreUnit Decorations")
+        {
+            @Override
+            protected IStatus run(IProgressMonitor monitor)
+            {
+                return dispatchPendingDecorations(monitor);
+            }
+        };
+        dispatchJob.setPriority(Job.DECORATE);
+        dispatchJob.setSystem(true);
+
+        TestCorrespondenceIndex.getInstance().addInvalidationListener(this);
+    }
+
+    /**
+     * Returns the cached verdict for the given compilation unit, or
+     * <code>null</code> if it has not been resolved yet.
+     */
+    public Boolean getVerdict(ICompilationUnit compilationUnit)
+    {
+        return verdicts.get(compilationUnit.getHandleIdentifier());
+    }
+
+    /**
+     * Queues the given compilation unit for resolution. The label updater will
+     * be notified with the given resource if it turns out that its decoration
+     * has to change.
+     */
+    public void schedule(ICompilationUnit compilationUnit, IResource resource)
+    {
+        if(disposed)
+        {
+            return;
+        }
+
+        synchronized (pendingDecorations)
+        {
+            String handle = compilationUnit.getHandleIdentifier();
+            if(! pendingDecorations.containsKey(handle))
+            {
+                pendingDecorations.put(handle, new PendingDecoration(compilationUnit, resource));
+            }
+        }
+        dispatchJob.schedule(coalescingDelay);
+    }
+
+    /**
+     * Re-resolves the verdicts of all the compilation units resolved so far.
+     */
+    public void invalidateAll()
+    {
+        reschedule(new ArrayList<String>(verdicts.keySet()));
+    }
+
+    public void entriesInvalidated(String changedCuHandle, Set<String> cuHandles)
+    {
+        IJavaElement changedElement = JavaCore.create(changedCuHandle);
+        if(changedElement instanceof IJavaProject && ! ((IJavaProject) changedElement).isOpen())
+        {
+            // closed or deleted
+            removeVerdictsOfProject(changedCuHandle);
+        }
+
+        List<String> resolvedHandles = new ArrayList<String>();
+        for (String handle : cuHandles)
+        {
+            if(verdicts.containsKey(handle))
+            {
+                resolvedHandles.add(handle);
+            }
+        }
+        reschedule(resolvedHandles);
+    }
+
+    /**
+     * Forgets the verdicts of the compilation units of the given project, so
+     * that the cache does not keep growing as projects are closed or deleted.
+     */
+    void removeVerdictsOfProject(String projectHandle)
+    {
+        // the handles of the children of a project start with the one of the
+        // project followed by the delimiter of source folders
+        String childHandlePrefix = projectHandle + "/";
+        for (Iterator<String> it = verdicts.keySet().iterator(); it.hasNext();)
+        {
+            if(it.next().startsWith(childHandlePrefix))
+            {
+                it.remove();
+            }
+        }
+    }
+
+    public void indexCleared()
+    {
+        invalidateAll();
+    }
+
+    private void reschedule(List<String> cuHandles)
+    {
+        for (String handle : cuHandles)
+        {
+            IJavaElement element = JavaCore.create(handle);
+            if(element instanceof ICompilationUnit && element.exists())
+            {
+                // the old verdict is kept until the new one is known, to
+                // avoid flickering
+                schedule((ICompilationUnit) element, element.getResource());
+            }
+            else
+            {
+                verdicts.remove(handle);
+            }
+        }
+    }
+
+    public void dispose()
+    {
+        disposed = true;
+        TestCorrespondenceIndex.getInstance().removeInvalidationListener(this);
+        dispatchJob.cancel();
+        synchronized (pendingDecorations)
+        {
+            pendingDecorations.clear();
+        }
+        synchronized (this)
+        {
+            if(workers != null)
+            {
+                workers.shutdownNow();
+                workers = null;
+            }
+        }
+        verdicts.clear();
+    }
+
+    /**
+     * Resolves the pending decorations in the current thread, without waiting
+     * for the coalescing delay.
+     */
+    void dispatchPendingDecorations()
+    {
+        dispatchPendingDecorations(new NullProgressMonitor());
+    }
+
+    private IStatus dispatchPendingDecorations(IProgressMonitor monitor)
+    {
+        List<PendingDecoration> batch;
+        while ( ! (batch = nextBatch()).isEmpty())
+        {
+            if(monitor.isCanceled() || disposed)
+            {
+                return Status.CANCEL_STATUS;
+            }
+
+            IResource[] changedResources = resolve(batch);
+            if(changedResources.length != 0 && ! disposed)
+            {
+                labelUpdater.accept(changedResources);
+            }
+        }
+        return Status.OK_STATUS;
+    }
+
+    private List<PendingDecoration> nextBatch()
+    {
+        List<PendingDecoration> batch = new ArrayList<PendingDecoration>();
+        synchronized (pendingDecorations)
+        {
+            for (Iterator<PendingDecoration> it = pendingDecorations.values().iterator(); it.hasNext() && batch.size() < BATCH_SIZE;)
+            {
+                batch.add(it.next());
+                it.remove();
+            }
+        }
+        return batch;
+    }
+
+    private IResource[] resolve(List<PendingDecoration> batch)
+    {
+        List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>(batch.size());
+        for (final PendingDecoration decoration : batch)
+        {
+            tasks.add(() -> decoration.compilationUnit.exists() && verdictResolver.test(decoration.compilationUnit));
+        }
+
+        List<Future<Boolean>> results;
+        try
+        {
+            results = getWorkers().invokeAll(tasks);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return new IResource[0];
+        }
+
+        List<IResource> changedResources = new ArrayList<IResource>();
+        for (int i = 0; i < batch.size(); i++)
+        {
+            PendingDecoration decoration = batch.get(i);
+            Boolean verdict = getResult(results.get(i));
+            if(verdict == null)
+            {
+                continue;
+            }
+
+            Boolean previousVerdict = verdicts.put(decoration.compilationUnit.getHandleIdentifier(), verdict);
+            // undecorated until now: only a positive verdict changes something
+            boolean changed = previousVerdict == null ? verdict : ! previousVerdict.equals(verdict);
+            if(changed && decoration.resource != null)
+            {
+                changedResources.add(decoration.resource);
+            }
+        }
+        return changedResources.toArray(new IResource[changedResources.size()]);
+    }
+
+    private Boolean getResult(Future<Boolean> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e)
+        {
+            LogHandler.getInstance().handleExceptionLog(e.getCause());
+        }
+        return null;
+    }
+
+    private synchronized ExecutorService getWorkers()
+    {
+        if(workers == null)
+        {
+            int poolSize = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+            workers = Executors.newFixedThreadPool(poolSize, new WorkerThreadFactory());
+        }
+        return workers;
+    }
+
+    private static final class PendingDecoration
+    {
+        final ICompilationUnit compilationUnit;
+        final IResource resource;
+
+        PendingDecoration(ICompilationUnit compilationUnit, IResource resource)
+        {
+            this.compilationUnit = compilationUnit;
+            this.resource = resource;
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "MoreUnit decoration worker " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
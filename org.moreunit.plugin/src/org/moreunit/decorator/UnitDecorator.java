@@ -21,11 +21,17 @@ import org.moreunit.util.MoreUnitContants;
 /**
  * Handles the decoration of java files. If the class has a testcase a overlay
  * icon is added.
+ * <p>
+ * Finding out whether a class has a test case requires a search, which is
+ * delegated to a {@link DecorationEngine}: files are decorated from the cached
+ * verdict when there is one, otherwise they are decorated later on, once
+ * resolved in background.
  */
 // TODO force re-decoration on preferences change (use refreshAll)
 public class UnitDecorator extends LabelProvider implements ILightweightLabelDecorator
 {
     private final Logger logger;
+    private DecorationEngine decorationEngine;
 
     public UnitDecorator()
     {
@@ -51,8 +57,17 @@ public class UnitDecorator extends LabelProvider implements ILightweightLabelDec
             return;
         }
 
-        ClassTypeFacade javaFileFacade = new ClassTypeFacade(cu);
-        if(javaFileFacade.hasTestCase())
+        DecorationEngine engine = getDecorationEngine();
+        Boolean hasTestCase = engine.getVerdict(cu);
+        if(hasTestCase == null)
+        {
+            if(logger.traceEnabled())
+            {
+                logger.trace(logMessage.append("not resolved yet => SCHEDULED").toString());
+            }
+            engine.schedule(cu, (IResource) element);
+        }
+        else if(hasTestCase)
         {
             if(logger.traceEnabled())
             {
@@ -69,6 +84,31 @@ public class UnitDecorator extends LabelProvider implements ILightweightLabelDec
         }
     }
 
+    private synchronized DecorationEngine getDecorationEngine()
+    {
+        if(decorationEngine == null)
+        {
+            decorationEngine = new DecorationEngine(cu -> new ClassTypeFacade(cu).hasTestCase(), this::resourcesResolved);
+        }
+        return decorationEngine;
+    }
+
+    private void resourcesResolved(IResource[] resources)
+    {
+        fireLabelProviderChanged(new LabelProviderChangedEvent(this, resources));
+    }
+
+    @Override
+    public synchronized void dispose()
+    {
+        if(decorationEngine != null)
+        {
+            decorationEngine.dispose();
+            decorationEngine = null;
+        }
+        super.dispose();
+    }
+
     private void handleClassDecoration(IDecoration decoration)
     {
         ImageDescriptor imageDescriptor = ImageDescriptorCenter.getTestCaseLabelImageDescriptor();
@@ -155,6 +195,9 @@ public class UnitDecorator extends LabelProvider implements ILightweightLabelDec
         UnitDecorator unitDecorator = getUnitDecorator();
 
         if(unitDecorator != null)
+        {
+            unitDecorator.getDecorationEngine().invalidateAll();
             unitDecorator.fireLabelProviderChanged(new LabelProviderChangedEvent(unitDecorator));
+        }
     }
 }
@@ -2,11 +2,16 @@ package org.moreunit.elements;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
@@ -17,8 +22,8 @@ import org.moreunit.preferences.Preferences.MethodSearchMode;
 import org.moreunit.ui.ChooseDialog;
 import org.moreunit.ui.CreateNewClassAction;
 import org.moreunit.ui.MemberContentProvider;
-import org.moreunit.util.MethodCallFinder;
-import org.moreunit.util.MethodTestCallerFinder;
+import org.moreunit.util.MethodReferenceSearchEngine;
+import org.moreunit.util.PrefixTrie;
 import org.moreunit.wizards.NewClassyWizard;
 import org.moreunit.wizards.NewTestCaseWizard;
 
@@ -134,21 +139,94 @@ public class ClassTypeFacade extends TypeFacade
 
     public Set<IMethod> getCorrespondingTestMethods(IMethod method, MethodSearchMode searchMethod)
     {
-        final Set<IMethod> correspondingTestMethods = new HashSet<IMethod>();
+        return getCorrespondingTestMethods(Collections.singletonList(method), searchMethod).get(method);
+    }
+
+    /**
+     * Bulk version of {@link #getCorrespondingTestMethods(IMethod, MethodSearchMode)}:
+     * test cases are resolved once, and the methods of each test case are
+     * only read once whatever the number of given methods.
+     *
+     * @return the test methods of each given method, in the order of the
+     *         given methods (a method without test is mapped to an empty set)
+     */
+    public Map<IMethod, Set<IMethod>> getCorrespondingTestMethods(Collection<IMethod> methods, MethodSearchMode searchMethod)
+    {
+        return getCorrespondingTestMethods(methods, searchMethod, new NullProgressMonitor());
+    }
+
+    /**
+     * Same as {@link #getCorrespondingTestMethods(Collection, MethodSearchMode)},
+     * the search by call reporting to the given monitor.
+     *
+     * @throws OperationCanceledException if the given monitor is canceled
+     *             during the search by call
+     */
+    public Map<IMethod, Set<IMethod>> getCorrespondingTestMethods(Collection<IMethod> methods, MethodSearchMode searchMethod, IProgressMonitor monitor)
+    {
+        Map<IMethod, Set<IMethod>> result = new LinkedHashMap<IMethod, Set<IMethod>>();
+        for (IMethod method : methods)
+        {
+            result.put(method, new HashSet<IMethod>());
+        }
+
+        if(methods.isEmpty() || ! (searchMethod.searchByCall || searchMethod.searchByName))
+        {
+            return result;
+        }
+
+        Collection<IType> testCases = getCorrespondingTestCases();
+        if(testCases.isEmpty())
+        {
+            return result;
+        }
+
         if(searchMethod.searchByCall)
         {
-            Collection<IType> correspondingClasses = getCorrespondingTestCases();
-            if(! correspondingClasses.isEmpty())
+            Map<IMethod, Set<IMethod>> callersByMethod = getCallRelationshipFinder(testCases).findTestCallers(methods, monitor);
+            for (Map.Entry<IMethod, Set<IMethod>> entry : callersByMethod.entrySet())
             {
-                correspondingTestMethods.addAll(getCallRelationshipFinder(method, correspondingClasses).getMatches(new NullProgressMonitor()));
+                result.get(entry.getKey()).addAll(entry.getValue());
             }
         }
 
         if(searchMethod.searchByName)
         {
-            correspondingTestMethods.addAll(getCorrespondingTestMethodsByName(method));
+            addTestMethodsByName(result, testCases);
+        }
+        return result;
+    }
+
+    private void addTestMethodsByName(Map<IMethod, Set<IMethod>> testMethodsByMethod, Collection<IType> testCases)
+    {
+        PrefixTrie<IMethod> methodsByTestMethodName = new PrefixTrie<IMethod>();
+        for (IMethod method : testMethodsByMethod.keySet())
+        {
+            methodsByTestMethodName.put(testMethodDiviner.getTestMethodNameFromMethodName(method.getElementName()), method);
+        }
+
+        for (IType testCaseType : testCases)
+        {
+            if(testCaseType == null)
+            {
+                continue;
+            }
+
+            try
+            {
+                for (IMethod testMethod : testCaseType.getCompilationUnit().findPrimaryType().getMethods())
+                {
+                    for (IMethod method : methodsByTestMethodName.getValuesForPrefixesOf(testMethod.getElementName()))
+                    {
+                        testMethodsByMethod.get(method).add(testMethod);
+                    }
+                }
+            }
+            catch (JavaModelException exc)
+            {
+                LogHandler.getInstance().handleExceptionLog(exc);
+            }
         }
-        return correspondingTestMethods;
     }
 
     @Override
@@ -158,9 +236,9 @@ public class ClassTypeFacade extends TypeFacade
     }
 
     @Override
-    protected MethodCallFinder getCallRelationshipFinder(IMethod method, Collection<IType> searchScope)
+    protected MethodReferenceSearchEngine getCallRelationshipFinder(Collection<IType> searchScope)
     {
-        return new MethodTestCallerFinder(method, searchScope);
+        return new MethodReferenceSearchEngine(searchScope);
     }
 
     @Override
@@ -4,7 +4,10 @@
 package org.moreunit.elements;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
@@ -45,10 +48,11 @@ public class MethodTreeContentProvider implements ITreeContentProvider
             ClassTypeFacade typeFacade = new ClassTypeFacade(javaFileFile.getCompilationUnit());
             IMethod[] allMethods = javaFileFile.getMethods();
 
-            for (IMethod method : allMethods)
+            Map<IMethod, Set<IMethod>> testMethodsByMethod = typeFacade.getCorrespondingTestMethods(Arrays.asList(allMethods), searchMode);
+            for (Map.Entry<IMethod, Set<IMethod>> entry : testMethodsByMethod.entrySet())
             {
-                if(typeFacade.getCorrespondingTestMethods(method, searchMode).size() == 0)
-                    methods.add(method);
+                if(entry.getValue().isEmpty())
+                    methods.add(entry.getKey());
             }
         }
         catch (JavaModelException e)
@@ -0,0 +1,229 @@
+package org.moreunit.elements;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.moreunit.log.LogHandler;
+import org.moreunit.matching.TestCorrespondenceIndex;
+import org.moreunit.util.PluginTools;
+
+/**
+ * Finds the classes of a project that have no test case. The search runs in a
+ * job that reports the untested classes in chunks as it goes, and that may be
+ * cancelled. Verdicts are cached per compilation unit, so that a new search
+ * only resolves the compilation units that changed (or which test cases
+ * changed) since the previous one.
+ */
+public class MissingTestsFinder implements TestCorrespondenceIndex.InvalidationListener
+{
+    static final int CHUNK_SIZE = 50;
+    private static final long MAX_CHUNK_DELAY = 300;
+
+    private final Map<String, Boolean> untestedByCuHandle = new ConcurrentHashMap<String, Boolean>();
+
+    public MissingTestsFinder()
+    {
+        TestCorrespondenceIndex.getInstance().addInvalidationListener(this);
+    }
+
+    /**
+     * Creates a job searching the given project for classes without test
+     * case. The result consumer is called from the job thread, with chunks of
+     * untested compilation units.
+     */
+    public Job createSearchJob(final IJavaProject javaProject, final Consumer<List<ICompilationUnit>> resultConsumer)
+    {
+        Job job = new Job("Search Classes Without Test in " + javaProject.getElementName())
+        {
+            @Override
+            protected IStatus run(IProgressMonitor monitor)
+            {
+                return search(javaProject, resultConsumer, monitor);
+            }
+        };
+        job.setPriority(Job.LONG);
+        return job;
+    }
+
+    private IStatus search(IJavaProject javaProject, Consumer<List<ICompilationUnit>> resultConsumer, IProgressMonitor monitor)
+    {
+        List<ICompilationUnit> compilationUnits = getCompilationUnits(javaProject);
+        SubMonitor progress = SubMonitor.convert(monitor, compilationUnits.size());
+
+        List<ICompilationUnit> chunk = new ArrayList<ICompilationUnit>();
+        long lastChunkTime = System.currentTimeMillis();
+        for (ICompilationUnit compilationUnit : compilationUnits)
+        {
+            if(progress.isCanceled())
+            {
+                return Status.CANCEL_STATUS;
+            }
+
+            progress.subTask(compilationUnit.getElementName());
+            if(isUntested(compilationUnit))
+            {
+                chunk.add(compilationUnit);
+            }
+            progress.worked(1);
+
+            if(chunk.size() >= CHUNK_SIZE || (! chunk.isEmpty() && System.currentTimeMillis() - lastChunkTime > MAX_CHUNK_DELAY))
+            {
+                resultConsumer.accept(chunk);
+                chunk = new ArrayList<ICompilationUnit>();
+                lastChunkTime = System.currentTimeMillis();
+            }
+        }
+
+        if(! chunk.isEmpty())
+        {
+            resultConsumer.accept(chunk);
+        }
+        return Status.OK_STATUS;
+    }
+
+    private static List<ICompilationUnit> getCompilationUnits(IJavaProject javaProject)
+    {
+        List<ICompilationUnit> result = new ArrayList<ICompilationUnit>();
+        for (IPackageFragmentRoot sourceFolder : PluginTools.getAllSourceFolderFromProject(javaProject))
+        {
+            try
+            {
+                for (IJavaElement javaPackage : sourceFolder.getChildren())
+                {
+                    for (ICompilationUnit compilationUnit : ((IPackageFragment) javaPackage).getCompilationUnits())
+                    {
+                        result.add(compilationUnit);
+                    }
+                }
+            }
+            catch (JavaModelException e)
+            {
+                LogHandler.getInstance().handleExceptionLog(e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates again the compilation units of the given project among the
+     * given handles, for instance after their verdicts were invalidated. The
+     * given handles may denote deleted compilation units, which are then
+     * reported as tested, or packages, which compilation units are evaluated
+     * if they exist, and which are otherwise reported as removed.
+     */
+    public VerdictUpdate evaluate(IJavaProject javaProject, Collection<String> cuHandles, IProgressMonitor monitor)
+    {
+        VerdictUpdate update = new VerdictUpdate();
+        SubMonitor progress = SubMonitor.convert(monitor, cuHandles.size());
+        for (String handle : cuHandles)
+        {
+            if(progress.isCanceled())
+            {
+                break;
+            }
+
+            IJavaElement element = JavaCore.create(handle);
+            if(element instanceof ICompilationUnit && javaProject.equals(element.getJavaProject()))
+            {
+                evaluate((ICompilationUnit) element, update);
+            }
+            else if(element instanceof IPackageFragment && javaProject.equals(element.getJavaProject()))
+            {
+                IPackageFragment packageFragment = (IPackageFragment) element;
+                if(packageFragment.exists())
+                {
+                    try
+                    {
+                        for (ICompilationUnit compilationUnit : packageFragment.getCompilationUnits())
+                        {
+                            evaluate(compilationUnit, update);
+                        }
+                    }
+                    catch (JavaModelException e)
+                    {
+                        LogHandler.getInstance().handleExceptionLog(e);
+                    }
+                }
+                else
+                {
+                    update.removedPackages.add(packageFragment);
+                }
+            }
+            progress.worked(1);
+        }
+        return update;
+    }
+
+    private void evaluate(ICompilationUnit compilationUnit, VerdictUpdate update)
+    {
+        if(compilationUnit.exists() && isUntested(compilationUnit))
+        {
+            update.untested.add(compilationUnit);
+        }
+        else
+        {
+            update.tested.add(compilationUnit);
+        }
+    }
+
+    /**
+     * Returns true if the given compilation unit declares a class that is not
+     * a test case and that has no test case.
+     */
+    public boolean isUntested(ICompilationUnit compilationUnit)
+    {
+        String handle = compilationUnit.getHandleIdentifier();
+        Boolean untested = untestedByCuHandle.get(handle);
+        if(untested == null)
+        {
+            untested = compilationUnit.findPrimaryType() != null && ! TypeFacade.isTestCase(compilationUnit) && ! new ClassTypeFacade(compilationUnit).hasTestCase();
+            untestedByCuHandle.put(handle, untested);
+        }
+        return untested;
+    }
+
+    public void entriesInvalidated(String changedCuHandle, Set<String> cuHandles)
+    {
+        untestedByCuHandle.remove(changedCuHandle);
+        untestedByCuHandle.keySet().removeAll(cuHandles);
+    }
+
+    public void indexCleared()
+    {
+        untestedByCuHandle.clear();
+    }
+
+    public void dispose()
+    {
+        TestCorrespondenceIndex.getInstance().removeInvalidationListener(this);
+        untestedByCuHandle.clear();
+    }
+
+    /**
+     * The result of an evaluation of some compilation units.
+     */
+    public static class VerdictUpdate
+    {
+        public final List<ICompilationUnit> untested = new ArrayList<ICompilationUnit>();
+        // or deleted
+        public final List<ICompilationUnit> tested = new ArrayList<ICompilationUnit>();
+        public final List<IPackageFragment> removedPackages = new ArrayList<IPackageFragment>();
+    }
+}
@@ -32,6 +32,16 @@ public class SourceFolderMapping
         this.sourceFolderList.add(PluginTools.guessSourceFolderCorrespondingToTestFolder(javaProject, testFolder));
     }
 
+    /**
+     * Creates a copy of the given mapping.
+     */
+    public SourceFolderMapping(SourceFolderMapping mapping)
+    {
+        this.javaProject = mapping.javaProject;
+        this.sourceFolderList.addAll(mapping.sourceFolderList);
+        this.testFolder = mapping.testFolder;
+    }
+
     public void setSourceFolderList(List<IPackageFragmentRoot> sourceFolderList)
     {
         this.sourceFolderList = sourceFolderList;
@@ -9,8 +9,7 @@ import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.moreunit.log.LogHandler;
-import org.moreunit.util.MethodCallFinder;
-import org.moreunit.util.MethodTestCallerFinder;
+import org.moreunit.util.MethodReferenceSearchEngine;
 import org.moreunit.wizards.NewClassWizard;
 import org.moreunit.wizards.NewClassyWizard;
 
@@ -92,9 +91,9 @@ public class TestCaseTypeFacade extends TypeFacade
     }
 
     @Override
-    protected MethodCallFinder getCallRelationshipFinder(IMethod method, Collection<IType> searchScope)
+    protected MethodReferenceSearchEngine getCallRelationshipFinder(Collection<IType> searchScope)
     {
-        return new MethodTestCallerFinder(method, searchScope);
+        return new MethodReferenceSearchEngine(searchScope);
     }
 
     @Override
@@ -5,7 +5,9 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
@@ -15,13 +17,13 @@ import org.eclipse.ui.IEditorPart;
 import org.moreunit.core.util.StringConstants;
 import org.moreunit.elements.CorrespondingMemberRequest.MemberType;
 import org.moreunit.matching.CorrespondingTypeSearcher;
+import org.moreunit.matching.TestCaseVerdictCache;
 import org.moreunit.preferences.Preferences;
-import org.moreunit.preferences.Preferences.ProjectPreferences;
 import org.moreunit.ui.ChooseDialog;
 import org.moreunit.ui.CreateNewClassAction;
 import org.moreunit.ui.MemberContentProvider;
 import org.moreunit.util.MemberJumpHistory;
-import org.moreunit.util.MethodCallFinder;
+import org.moreunit.util.MethodReferenceSearchEngine;
 import org.moreunit.util.TestMethodDiviner;
 import org.moreunit.util.TestMethodDivinerFactory;
 import org.moreunit.wizards.NewClassyWizard;
@@ -57,14 +59,7 @@ public abstract class TypeFacade
 
     public static boolean isTestCase(ICompilationUnit compilationUnit)
     {
-        IType primaryType = compilationUnit.findPrimaryType();
-        if(primaryType == null)
-        {
-            return false;
-        }
-
-        ProjectPreferences prefs = Preferences.forProject(primaryType.getJavaProject());
-        return prefs.getTestClassNamePattern().evaluate(primaryType).isTestCase();
+        return TestCaseVerdictCache.getInstance().isTestCase(compilationUnit);
     }
 
     protected TypeFacade(ICompilationUnit compilationUnit)
@@ -109,8 +104,28 @@ public abstract class TypeFacade
      * @see CorrespondingMemberRequest
      */
     public IMember getOneCorrespondingMember(CorrespondingMemberRequest request)
+    {
+        OneCorrespondingMemberAction action = findOneCorrespondingMember(request, new NullProgressMonitor());
+        return action == null ? null : action.getCorrespondingMember();
+    }
+
+    /**
+     * Performs the search part of
+     * {@link #getOneCorrespondingMember(CorrespondingMemberRequest)} without
+     * interacting with the user, so that it may run outside of the UI thread.
+     * The returned action gives the member, after opening a dialog or a wizard
+     * when necessary: it must be executed in the UI thread.
+     * 
+     * @param request the details of the request for corresponding member.
+     * @param monitor the progress monitor to use for reporting progress.
+     * @return the action giving one corresponding member, or <code>null</code>
+     *         if there is none
+     * @throws OperationCanceledException if the monitor is canceled
+     */
+    public OneCorrespondingMemberAction findOneCorrespondingMember(CorrespondingMemberRequest request, IProgressMonitor monitor)
     {
         final Collection<IType> proposedClasses = getCorrespondingClasses(false);
+        checkCanceled(monitor);
 
         final OneCorrespondingMemberAction action;
         if(proposedClasses.isEmpty())
@@ -119,23 +134,28 @@ public abstract class TypeFacade
         }
         else
         {
-            action = getPerfectCorrespondingMember(request, proposedClasses);
+            action = getPerfectCorrespondingMember(request, proposedClasses, monitor);
         }
+        checkCanceled(monitor);
 
         if(action == null)
         {
             return null;
         }
+        return new RegisterJump(request.getCurrentMethod(), action);
+    }
 
-        IMember memberToJump = action.getCorrespondingMember();
-
-        registerJump(request.getCurrentMethod(), memberToJump);
-        return memberToJump;
+    private static void checkCanceled(IProgressMonitor monitor)
+    {
+        if(monitor.isCanceled())
+        {
+            throw new OperationCanceledException();
+        }
     }
 
-    private OneCorrespondingMemberAction getPerfectCorrespondingMember(CorrespondingMemberRequest request, Collection<IType> proposedClasses)
+    private OneCorrespondingMemberAction getPerfectCorrespondingMember(CorrespondingMemberRequest request, Collection<IType> proposedClasses, IProgressMonitor monitor)
     {
-        Collection<IMethod> proposedMethods = findCorrespondingMethodsInClasses(request, proposedClasses);
+        Collection<IMethod> proposedMethods = findCorrespondingMethodsInClasses(request, proposedClasses, monitor);
 
         if(proposedMethods.size() == 1)
         {
@@ -163,7 +183,7 @@ public abstract class TypeFacade
         return null;
     }
 
-    private Collection<IMethod> findCorrespondingMethodsInClasses(CorrespondingMemberRequest request, Collection<IType> classes)
+    private Collection<IMethod> findCorrespondingMethodsInClasses(CorrespondingMemberRequest request, Collection<IType> classes, IProgressMonitor monitor)
     {
         Collection<IMethod> proposedMethods = new LinkedHashSet<IMethod>();
 
@@ -178,7 +198,7 @@ public abstract class TypeFacade
                 }
                 if(request.getMethodSearchMode().searchByCall)
                 {
-                    proposedMethods.addAll(getCallRelationshipFinder(currentMethod, classes).getMatches(new NullProgressMonitor()));
+                    proposedMethods.addAll(getCallRelationshipFinder(classes).findTestCallers(Collections.singletonList(currentMethod), monitor).get(currentMethod));
                 }
             }
         }
@@ -207,7 +227,11 @@ public abstract class TypeFacade
         return getCorrespondingTypeSearcher().getMatches(alsoIncludeLikelyMatches);
     }
 
-    abstract protected MethodCallFinder getCallRelationshipFinder(IMethod method, Collection<IType> searchScope);
+    /**
+     * Returns the engine used to search for methods by call, both when jumping
+     * from a method and when looking for the tests of several methods at once.
+     */
+    abstract protected MethodReferenceSearchEngine getCallRelationshipFinder(Collection<IType> searchScope);
 
     abstract protected NewClassyWizard newCorrespondingClassWizard(IType fromType);
 
@@ -267,11 +291,34 @@ public abstract class TypeFacade
         return this.correspondingTypeSearcher;
     }
 
-    private static interface OneCorrespondingMemberAction
+    /**
+     * Gives the member found by a search for one corresponding member,
+     * possibly asking the user to choose it or to create it.
+     */
+    public static interface OneCorrespondingMemberAction
     {
         IMember getCorrespondingMember();
     }
 
+    private class RegisterJump implements OneCorrespondingMemberAction
+    {
+        private final IMethod fromMethod;
+        private final OneCorrespondingMemberAction action;
+
+        public RegisterJump(IMethod fromMethod, OneCorrespondingMemberAction action)
+        {
+            this.fromMethod = fromMethod;
+            this.action = action;
+        }
+
+        public IMember getCorrespondingMember()
+        {
+            IMember member = action.getCorrespondingMember();
+            registerJump(fromMethod, member);
+            return member;
+        }
+    }
+
     private static class ReturnMember implements OneCorrespondingMemberAction
     {
         private final IMember member;
@@ -26,6 +26,7 @@ import org.moreunit.elements.CorrespondingMemberRequest;
 import org.moreunit.elements.CorrespondingMemberRequest.MemberType;
 import org.moreunit.elements.EditorPartFacade;
 import org.moreunit.elements.TypeFacade;
+import org.moreunit.elements.TypeFacade.OneCorrespondingMemberAction;
 import org.moreunit.preferences.Preferences;
 import org.moreunit.preferences.Preferences.MethodSearchMode;
 import org.moreunit.ui.EditorUI;
@@ -94,8 +95,6 @@ public class JumpActionExecutor
     {
         MethodSearchMode searchMode = Preferences.getInstance().getMethodSearchMode(compilationUnit.getJavaProject());
 
-        TypeFacade typeFacade = TypeFacade.createFacade(compilationUnit);
-
         CorrespondingMemberRequest request = newCorrespondingMemberRequest() //
             .withExpectedResultType(MemberType.TYPE_OR_METHOD) //
             .withCurrentMethod(methodUnderCursorPosition) //
@@ -103,7 +102,15 @@ public class JumpActionExecutor
             .createClassIfNoResult("Jump to...") //
             .build();
 
-        IMember memberToJump = typeFacade.getOneCorrespondingMember(request);
+        // searches outside of the UI thread, then opens dialogs and editors in it
+        OneCorrespondingMemberAction action = editorUI.search("Searching for members corresponding to " + compilationUnit.getElementName(), //
+                                                              monitor -> TypeFacade.createFacade(compilationUnit).findOneCorrespondingMember(request, monitor));
+        if(action == null)
+        {
+            return;
+        }
+
+        IMember memberToJump = action.getCorrespondingMember();
         if(memberToJump != null)
         {
             jumpToMember(memberToJump);
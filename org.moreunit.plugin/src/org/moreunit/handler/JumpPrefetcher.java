@@ -0,0 +1,132 @@
+package org.moreunit.handler;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.ui.IEditorPart;
+import org.moreunit.elements.EditorPartFacade;
+import org.moreunit.elements.TypeFacade;
+import org.moreunit.log.LogHandler;
+import org.moreunit.matching.TestCorrespondenceIndex;
+import org.moreunit.util.PluginTools;
+
+/**
+ * Searches in the background for the types corresponding to the compilation
+ * unit of the active editor, so that they are already known by the
+ * {@link TestCorrespondenceIndex} when the user jumps from it.
+ * <p>
+ * Only the last requested compilation unit is prefetched: a request replaces
+ * the one that has not started yet, and cancels the one being prefetched.
+ * Requests are slightly delayed, so that cycling through editors does not
+ * trigger a search for each of them.
+ * </p>
+ */
+public class JumpPrefetcher
+{
+    private static final long PREFETCH_DELAY = 100;
+
+    private static final JumpPrefetcher instance = new JumpPrefetcher(PREFETCH_DELAY, new BiConsumer<ICompilationUnit, IProgressMonitor>()
+    {
+        public void accept(ICompilationUnit compilationUnit, IProgressMonitor monitor)
+        {
+            prefetchCorrespondingTypes(compilationUnit, monitor);
+        }
+    });
+
+    private final long delay;
+    private final BiConsumer<ICompilationUnit, IProgressMonitor> prefetcher;
+    private final AtomicReference<ICompilationUnit> pendingCompilationUnit = new AtomicReference<ICompilationUnit>();
+    private final Job job;
+
+    public static JumpPrefetcher getInstance()
+    {
+        return instance;
+    }
+
+    // package-private for testing purposes
+    JumpPrefetcher(long delay, BiConsumer<ICompilationUnit, IProgressMonitor> prefetcher)
+    {
+        this.delay = delay;
+        this.prefetcher = prefetcher;
+
+        job = new Job("Prefetch MoreUnit Jump Targets")
+        {
+            @Override
+            protected IStatus run(IProgressMonitor monitor)
+            {
+                return prefetchPendingCompilationUnit(monitor);
+            }
+        };
+        job.setPriority(Job.DECORATE);
+        job.setSystem(true);
+    }
+
+    /**
+     * Prefetches the types corresponding to the file of the given editor, if it
+     * is a Java file.
+     */
+    public void prefetch(IEditorPart editorPart)
+    {
+        if(PluginTools.isJavaFile(editorPart))
+        {
+            prefetch(new EditorPartFacade(editorPart).getCompilationUnit());
+        }
+    }
+
+    public void prefetch(ICompilationUnit compilationUnit)
+    {
+        if(compilationUnit == null)
+        {
+            return;
+        }
+
+        pendingCompilationUnit.set(compilationUnit);
+        job.cancel();
+        job.schedule(delay);
+    }
+
+    // package-private for testing purposes
+    Job getJob()
+    {
+        return job;
+    }
+
+    private IStatus prefetchPendingCompilationUnit(IProgressMonitor monitor)
+    {
+        ICompilationUnit compilationUnit = pendingCompilationUnit.getAndSet(null);
+        if(compilationUnit == null || ! compilationUnit.exists())
+        {
+            return Status.OK_STATUS;
+        }
+
+        try
+        {
+            prefetcher.accept(compilationUnit, monitor);
+        }
+        catch (OperationCanceledException e)
+        {
+            return Status.CANCEL_STATUS;
+        }
+        catch (RuntimeException e)
+        {
+            LogHandler.getInstance().handleExceptionLog(e);
+        }
+        return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+    }
+
+    private static void prefetchCorrespondingTypes(ICompilationUnit compilationUnit, IProgressMonitor monitor)
+    {
+        TypeFacade typeFacade = TypeFacade.createFacade(compilationUnit);
+        // likely matches are only looked for when there is no perfect match
+        if(typeFacade.getCorrespondingClasses(false).isEmpty() && ! monitor.isCanceled())
+        {
+            typeFacade.getCorrespondingClasses(true);
+        }
+    }
+}
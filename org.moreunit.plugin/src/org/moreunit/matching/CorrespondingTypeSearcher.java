@@ -3,6 +3,7 @@ package org.moreunit.matching;
 import static java.util.Collections.emptySet;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -14,7 +15,6 @@ import org.moreunit.preferences.Preferences;
 import org.moreunit.preferences.Preferences.ProjectPreferences;
 import org.moreunit.util.PluginTools;
 import org.moreunit.util.SearchScopeSingelton;
-import org.moreunit.util.SearchTools;
 
 /**
  * Encapsulates the logic to find the test classes - respectively the types
@@ -28,12 +28,14 @@ public class CorrespondingTypeSearcher
 {
     private final ProjectPreferences preferences;
     private final ClassNameEvaluation nameEvaluation;
+    private final ICompilationUnit compilationUnit;
     private final IJavaSearchScope searchScope;
     private Collection<IType> perfectMatches;
     private Collection<IType> likelyMatches;
 
     public CorrespondingTypeSearcher(ICompilationUnit compilationUnit, Preferences preferences)
     {
+        this.compilationUnit = compilationUnit;
         this.preferences = preferences.getProjectView(compilationUnit.getJavaProject());
         nameEvaluation = this.preferences.getTestClassNamePattern().evaluate(compilationUnit.findPrimaryType());
         IPackageFragmentRoot sourceFolder = nameEvaluation.isTestCase()
@@ -74,6 +76,7 @@ public class CorrespondingTypeSearcher
     private Collection<IType> findPotentialTargets(boolean withLikelyMatches) throws CoreException
     {
         boolean qualifyWithPackage = ! withLikelyMatches;
-        return SearchTools.searchFor(nameEvaluation.getAllCorrespondingClassPatterns(qualifyWithPackage), searchScope);
+        List<String> patterns = nameEvaluation.getAllCorrespondingClassPatterns(qualifyWithPackage);
+        return TestCorrespondenceIndex.getInstance().getCorrespondingTypes(compilationUnit, withLikelyMatches, patterns, searchScope);
     }
 }
@@ -0,0 +1,206 @@
+package org.moreunit.matching;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.moreunit.preferences.Preferences;
+import org.moreunit.util.JavaElementUtils;
+
+/**
+ * Remembers whether compilation units are test cases, by handle identifier.
+ * <p>
+ * A verdict is kept along with the test class name pattern it was evaluated
+ * with, and is ignored once the preferences of the project yield another
+ * pattern. Verdicts are dropped when their compilation unit is added, removed
+ * (renamed or moved) or changed, and when their package, source folder or
+ * project is.
+ * </p>
+ */
+public class TestCaseVerdictCache implements IElementChangedListener
+{
+    private static final TestCaseVerdictCache instance = new TestCaseVerdictCache();
+
+    private final Map<String, Verdict> verdicts = new ConcurrentHashMap<String, Verdict>();
+    // incremented on invalidation, so that verdicts evaluated in the meantime
+    // are not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public static TestCaseVerdictCache getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Starts to listen to Java element changes.
+     */
+    public void start()
+    {
+        JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+    }
+
+    public void stop()
+    {
+        JavaCore.removeElementChangedListener(this);
+    }
+
+    public void elementChanged(ElementChangedEvent event)
+    {
+        processDelta(event.getDelta());
+    }
+
+    private void processDelta(IJavaElementDelta delta)
+    {
+        switch (delta.getElement().getElementType())
+        {
+        case IJavaElement.JAVA_MODEL:
+            processChildren(delta);
+            break;
+        case IJavaElement.JAVA_PROJECT:
+        case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            if(JavaElementUtils.isStructuralChange(delta))
+            {
+                invalidateChildrenOf(delta.getElement());
+            }
+            else
+            {
+                processChildren(delta);
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT:
+            if(delta.getKind() == IJavaElementDelta.CHANGED)
+            {
+                processChildren(delta);
+            }
+            else
+            {
+                invalidateChildrenOf(delta.getElement());
+            }
+            break;
+        case IJavaElement.COMPILATION_UNIT:
+            if(delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) != 0)
+            {
+                invalidate(delta.getElement().getHandleIdentifier());
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void processChildren(IJavaElementDelta delta)
+    {
+        for (IJavaElementDelta child : delta.getAffectedChildren())
+        {
+            processDelta(child);
+        }
+    }
+
+    public boolean isTestCase(ICompilationUnit compilationUnit)
+    {
+        String handle = compilationUnit.getHandleIdentifier();
+        TestClassNamePattern pattern = Preferences.forProject(compilationUnit.getJavaProject()).getTestClassNamePattern();
+
+        Verdict verdict = verdicts.get(handle);
+        if(verdict != null && verdict.pattern == pattern)
+        {
+            hitCount.incrementAndGet();
+            return verdict.testCase;
+        }
+
+        missCount.incrementAndGet();
+        long generationBeforeEvaluation = generation.get();
+        verdict = new Verdict(pattern, evaluate(compilationUnit, pattern));
+
+        verdicts.put(handle, verdict);
+        if(generation.get() != generationBeforeEvaluation)
+        {
+            verdicts.remove(handle, verdict);
+        }
+        return verdict.testCase;
+    }
+
+    private static boolean evaluate(ICompilationUnit compilationUnit, TestClassNamePattern pattern)
+    {
+        IType primaryType = compilationUnit.findPrimaryType();
+        return primaryType != null && pattern.evaluate(primaryType).isTestCase();
+    }
+
+    /**
+     * Drops the verdict of the compilation unit having the given handle
+     * identifier.
+     */
+    public void invalidate(String compilationUnitHandle)
+    {
+        generation.incrementAndGet();
+        verdicts.remove(compilationUnitHandle);
+    }
+
+    /**
+     * Drops the verdicts of the compilation units contained in the given
+     * element (a project, a source folder or a package).
+     */
+    public void invalidateChildrenOf(IJavaElement element)
+    {
+        generation.incrementAndGet();
+        // may also drop the verdicts of elements sharing a prefix with the
+        // given one, which is harmless
+        String handlePrefix = element.getHandleIdentifier();
+        for (Iterator<String> it = verdicts.keySet().iterator(); it.hasNext();)
+        {
+            if(it.next().startsWith(handlePrefix))
+            {
+                it.remove();
+            }
+        }
+    }
+
+    public void clear()
+    {
+        generation.incrementAndGet();
+        verdicts.clear();
+    }
+
+    /**
+     * Returns the number of verdicts served from the cache so far.
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of verdicts that had to be evaluated so far.
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    public int size()
+    {
+        return verdicts.size();
+    }
+
+    private static final class Verdict
+    {
+        final TestClassNamePattern pattern;
+        final boolean testCase;
+
+        Verdict(TestClassNamePattern pattern, boolean testCase)
+        {
+            this.pattern = pattern;
+            this.testCase = testCase;
+        }
+    }
+}
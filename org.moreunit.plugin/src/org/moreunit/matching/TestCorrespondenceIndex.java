@@ -0,0 +1,956 @@
+package org.moreunit.matching;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.moreunit.log.LogHandler;
+import org.moreunit.util.JavaElementUtils;
+import org.moreunit.util.SearchTools;
+
+/**
+ * Keeps track of the types corresponding to a compilation unit (test cases for
+ * a class under test, classes under test for a test case), so that the JDT
+ * search engine is only queried once per compilation unit and name pattern.
+ * <p>
+ * Entries are invalidated from Java element deltas: when a compilation unit is
+ * added, removed or changed, every entry whose name patterns match one of the
+ * types it declares, or whose result references it, is dropped. Packages
+ * added or removed are handled the same way, for all their compilation units.
+ * Changes to projects, source folders and classpaths drop the entries of the
+ * affected project, as well as the entries which search scope encloses this
+ * project.
+ * </p>
+ * <p>
+ * The index is saved in the plug-in state location when the plug-in stops, and
+ * reloaded at start-up. Entries without any corresponding type are not saved,
+ * since such a type may have been created while the plug-in was inactive.
+ * Restored entries are not used before being reconciled with the workspace by
+ * a background job: the entries that Java files modified since the index was
+ * saved may affect (for instance after an external checkout) are dropped.
+ * Restored entries are then checked lazily: an entry referencing a type that
+ * does not exist anymore is recomputed.
+ * </p>
+ */
+public class TestCorrespondenceIndex implements IElementChangedListener
+{
+    private static final int STORAGE_FORMAT_VERSION = 3;
+    // file systems may store modification times with a coarse precision
+    private static final long TIMESTAMP_TOLERANCE = 2000;
+
+    private static final String PERFECT_MATCHES_KEY_PREFIX = "P";
+    private static final String LIKELY_MATCHES_KEY_PREFIX = "L";
+
+    private static final TestCorrespondenceIndex instance = new TestCorrespondenceIndex();
+
+    private final EntryTable entries = new EntryTable();
+    // entries loaded from the storage file and not reconciled yet; guarded by
+    // itself when invalidating or promoting them
+    private final EntryTable restoredEntries = new EntryTable();
+    // incremented on invalidation, so that the results of searches performed
+    // in the meantime are not cached
+    private final AtomicLong generation = new AtomicLong();
+    private long restoredIndexTimestamp;
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<InvalidationListener>();
+    private File storageFile;
+
+    public static TestCorrespondenceIndex getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Loads the entries previously saved into the given file, then starts to
+     * listen to Java element changes.
+     */
+    public void start(File storageFile)
+    {
+        this.storageFile = storageFile;
+        restoreFrom(storageFile);
+        JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+
+        if(! restoredEntries.isEmpty())
+        {
+            Job reconciliationJob = new Job("Check MoreUnit Correspondence Index")
+            {
+                @Override
+                protected IStatus run(IProgressMonitor monitor)
+                {
+                    reconcileRestoredEntries(monitor);
+                    return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+                }
+            };
+            reconciliationJob.setPriority(Job.DECORATE);
+            reconciliationJob.setSystem(true);
+            reconciliationJob.schedule();
+        }
+    }
+
+    /**
+     * Stops listening to Java element changes, then saves the current entries.
+     */
+    public void stop()
+    {
+        JavaCore.removeElementChangedListener(this);
+        if(storageFile != null)
+        {
+            saveTo(storageFile);
+        }
+        storageFile = null;
+    }
+
+    /**
+     * Returns the types matching the given name patterns in the given search
+     * scope, as seen from the given compilation unit. The JDT search engine is
+     * only queried when no valid entry exists for this compilation unit and
+     * these patterns.
+     */
+    public Collection<IType> getCorrespondingTypes(ICompilationUnit compilationUnit, boolean withLikelyMatches, List<String> patterns, IJavaSearchScope searchScope) throws CoreException
+    {
+        String key = key(compilationUnit, withLikelyMatches);
+
+        Entry entry = entries.get(key);
+        if(entry != null && entry.patterns.equals(patterns))
+        {
+            Collection<IType> types = entry.resolveTypes();
+            if(types != null)
+            {
+                return types;
+            }
+        }
+
+        long generationBeforeSearch = generation.get();
+        Set<IType> types = SearchTools.searchFor(patterns, searchScope);
+        Entry newEntry = new Entry(patterns, types, getEnclosingProjectNames(searchScope));
+
+        entries.put(key, newEntry);
+        if(generation.get() != generationBeforeSearch)
+        {
+            entries.remove(key, newEntry);
+        }
+        return types;
+    }
+
+    private static List<String> getEnclosingProjectNames(IJavaSearchScope searchScope)
+    {
+        List<String> projectNames = new ArrayList<String>();
+        for (IPath path : searchScope.enclosingProjectsAndJars())
+        {
+            // other paths denote JARs
+            if(path.segmentCount() == 1)
+            {
+                projectNames.add(path.segment(0));
+            }
+        }
+        return projectNames;
+    }
+
+    private static String key(ICompilationUnit compilationUnit, boolean withLikelyMatches)
+    {
+        return (withLikelyMatches ? LIKELY_MATCHES_KEY_PREFIX : PERFECT_MATCHES_KEY_PREFIX) + compilationUnit.getHandleIdentifier();
+    }
+
+    /**
+     * Drops all entries. To be called when preferences affecting the search
+     * scopes change.
+     */
+    public void clear()
+    {
+        generation.incrementAndGet();
+        restoredEntries.clear();
+        entries.clear();
+        for (InvalidationListener listener : listeners)
+        {
+            listener.indexCleared();
+        }
+    }
+
+    /**
+     * Drops the entries of the compilation units of the given project, as well
+     * as the entries which search scope encloses this project. To be called
+     * when the classpath or the MoreUnit settings of this project change.
+     */
+    public void invalidateProject(String projectName)
+    {
+        generation.incrementAndGet();
+        Set<String> invalidatedCuHandles = new LinkedHashSet<String>();
+        synchronized (restoredEntries)
+        {
+            restoredEntries.removeEntriesOfProject(projectName, invalidatedCuHandles);
+            entries.removeEntriesOfProject(projectName, invalidatedCuHandles);
+        }
+
+        String projectHandle = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(projectName)).getHandleIdentifier();
+        for (InvalidationListener listener : listeners)
+        {
+            listener.entriesInvalidated(projectHandle, invalidatedCuHandles);
+        }
+    }
+
+    public void addInvalidationListener(InvalidationListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public void removeInvalidationListener(InvalidationListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    public void elementChanged(ElementChangedEvent event)
+    {
+        processDelta(event.getDelta());
+    }
+
+    private void processDelta(IJavaElementDelta delta)
+    {
+        switch (delta.getElement().getElementType())
+        {
+        case IJavaElement.JAVA_MODEL:
+            processChildren(delta);
+            break;
+        case IJavaElement.JAVA_PROJECT:
+        case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            if(JavaElementUtils.isStructuralChange(delta))
+            {
+                // the other caches depending on the source folders (search
+                // scopes, mappings, verdicts) listen to such changes by
+                // themselves
+                invalidateProject(delta.getElement().getJavaProject().getElementName());
+            }
+            else
+            {
+                processChildren(delta);
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT:
+            // search scopes are made of source folders, hence are not
+            // affected by packages being added or removed
+            if(delta.getKind() == IJavaElementDelta.CHANGED)
+            {
+                processChildren(delta);
+            }
+            else
+            {
+                packageFragmentAddedOrRemoved(delta);
+            }
+            break;
+        case IJavaElement.COMPILATION_UNIT:
+            compilationUnitChanged(delta);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void processChildren(IJavaElementDelta delta)
+    {
+        for (IJavaElementDelta child : delta.getAffectedChildren())
+        {
+            processDelta(child);
+        }
+    }
+
+    private void compilationUnitChanged(IJavaElementDelta delta)
+    {
+        if(delta.getKind() == IJavaElementDelta.CHANGED && (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) == 0)
+        {
+            return;
+        }
+
+        ICompilationUnit cu = (ICompilationUnit) delta.getElement();
+        invalidateEntriesAffectedBy(cu.getHandleIdentifier(), getDeclaredTypeNames(cu));
+    }
+
+    /**
+     * Drops the entries of the compilation units of the given package, as well
+     * as the entries that reference them or that match the types of an added
+     * package.
+     */
+    private void packageFragmentAddedOrRemoved(IJavaElementDelta delta)
+    {
+        IPackageFragment packageFragment = (IPackageFragment) delta.getElement();
+
+        Set<String> invalidatedCuHandles = new LinkedHashSet<String>();
+        Collection<String> typeNames = new LinkedHashSet<String>();
+        if(delta.getKind() == IJavaElementDelta.ADDED)
+        {
+            try
+            {
+                for (ICompilationUnit cu : packageFragment.getCompilationUnits())
+                {
+                    invalidatedCuHandles.add(cu.getHandleIdentifier());
+                    typeNames.addAll(getDeclaredTypeNames(cu));
+                }
+            }
+            catch (JavaModelException e)
+            {
+                LogHandler.getInstance().handleExceptionLog(e);
+            }
+        }
+
+        generation.incrementAndGet();
+        synchronized (restoredEntries)
+        {
+            restoredEntries.removeEntriesOfPackage(packageFragment.getHandleIdentifier(), typeNames, invalidatedCuHandles);
+            entries.removeEntriesOfPackage(packageFragment.getHandleIdentifier(), typeNames, invalidatedCuHandles);
+        }
+
+        for (InvalidationListener listener : listeners)
+        {
+            listener.entriesInvalidated(packageFragment.getHandleIdentifier(), invalidatedCuHandles);
+        }
+    }
+
+    private static Collection<String> getDeclaredTypeNames(ICompilationUnit cu)
+    {
+        Collection<String> names = new LinkedHashSet<String>();
+
+        String cuName = cu.getElementName();
+        int extensionIdx = cuName.lastIndexOf('.');
+        names.add(extensionIdx == - 1 ? cuName : cuName.substring(0, extensionIdx));
+
+        if(cu.exists())
+        {
+            try
+            {
+                for (IType type : cu.getAllTypes())
+                {
+                    names.add(type.getElementName());
+                }
+            }
+            catch (JavaModelException e)
+            {
+                // the primary name is enough in this case
+            }
+        }
+        return names;
+    }
+
+    private void invalidateEntriesAffectedBy(String cuHandle, Collection<String> typeNames)
+    {
+        Set<String> invalidatedCuHandles = new LinkedHashSet<String>();
+        invalidatedCuHandles.add(cuHandle);
+
+        generation.incrementAndGet();
+        synchronized (restoredEntries)
+        {
+            restoredEntries.removeEntriesAffectedBy(Collections.singleton(cuHandle), typeNames, invalidatedCuHandles);
+            entries.removeEntriesAffectedBy(Collections.singleton(cuHandle), typeNames, invalidatedCuHandles);
+        }
+
+        for (InvalidationListener listener : listeners)
+        {
+            listener.entriesInvalidated(cuHandle, invalidatedCuHandles);
+        }
+    }
+
+    /**
+     * Drops the restored entries that the Java files modified since the index
+     * was saved may affect, then starts to use the remaining ones. Entries
+     * computed in the meantime are kept.
+     */
+    void reconcileRestoredEntries(IProgressMonitor monitor)
+    {
+        if(restoredEntries.isEmpty())
+        {
+            return;
+        }
+
+        final long threshold = restoredIndexTimestamp - TIMESTAMP_TOLERANCE;
+        final Collection<String> modifiedCuHandles = new LinkedHashSet<String>();
+        final Collection<String> modifiedTypeNames = new LinkedHashSet<String>();
+        try
+        {
+            ResourcesPlugin.getWorkspace().getRoot().accept(new IResourceProxyVisitor()
+            {
+                public boolean visit(IResourceProxy proxy) throws CoreException
+                {
+                    if(proxy.isDerived())
+                    {
+                        // build output, not edited by anybody
+                        return false;
+                    }
+                    if(proxy.getType() != IResource.FILE)
+                    {
+                        return true;
+                    }
+
+                    String name = proxy.getName();
+                    if(name.endsWith(".java"))
+                    {
+                        IResource file = proxy.requestResource();
+                        if(file.getLocalTimeStamp() >= threshold)
+                        {
+                            modifiedTypeNames.add(name.substring(0, name.length() - ".java".length()));
+                            IJavaElement cu = JavaCore.create((IFile) file);
+                            if(cu != null)
+                            {
+                                modifiedCuHandles.add(cu.getHandleIdentifier());
+                            }
+                        }
+                    }
+                    return false;
+                }
+            }, IResource.NONE);
+        }
+        catch (CoreException e)
+        {
+            LogHandler.getInstance().handleExceptionLog(e);
+            restoredEntries.clear();
+            return;
+        }
+
+        if(monitor.isCanceled())
+        {
+            restoredEntries.clear();
+            return;
+        }
+
+        synchronized (restoredEntries)
+        {
+            restoredEntries.removeEntriesAffectedBy(modifiedCuHandles, modifiedTypeNames, new LinkedHashSet<String>());
+            for (Map.Entry<String, Entry> mapEntry : restoredEntries.snapshot().entrySet())
+            {
+                entries.putIfAbsent(mapEntry.getKey(), mapEntry.getValue());
+            }
+            restoredEntries.clear();
+        }
+    }
+
+    // package-private for testing purposes
+    void restoreFrom(File file)
+    {
+        restoredEntries.clear();
+        if(file == null || ! file.isFile())
+        {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if(in.readInt() != STORAGE_FORMAT_VERSION)
+            {
+                return;
+            }
+
+            restoredIndexTimestamp = in.readLong();
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++)
+            {
+                String key = in.readUTF();
+                List<String> patterns = readStrings(in);
+                List<String> typeHandles = readStrings(in);
+                List<String> scopeProjectNames = readStrings(in);
+                restoredEntries.put(key, new Entry(patterns, typeHandles, scopeProjectNames));
+            }
+        }
+        catch (IOException e)
+        {
+            restoredEntries.clear();
+            LogHandler.getInstance().handleWarnLog("Could not load MoreUnit correspondence index: " + e.getMessage());
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException
+    {
+        int count = in.readInt();
+        List<String> result = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++)
+        {
+            result.add(in.readUTF());
+        }
+        return result;
+    }
+
+    /**
+     * Saves the current entries, except the ones without any corresponding
+     * type and the restored ones that were not reconciled yet.
+     */
+    void saveTo(File file)
+    {
+        Map<String, Entry> entriesToSave = new LinkedHashMap<String, Entry>();
+        for (Map.Entry<String, Entry> mapEntry : entries.snapshot().entrySet())
+        {
+            if(mapEntry.getValue().typeHandles.isEmpty())
+            {
+                continue;
+            }
+            IJavaElement cu = JavaCore.create(mapEntry.getKey().substring(1));
+            if(cu != null && cu.exists())
+            {
+                entriesToSave.put(mapEntry.getKey(), mapEntry.getValue());
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+        {
+            out.writeInt(STORAGE_FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(entriesToSave.size());
+            for (Map.Entry<String, Entry> mapEntry : entriesToSave.entrySet())
+            {
+                out.writeUTF(mapEntry.getKey());
+                writeStrings(out, mapEntry.getValue().patterns);
+                writeStrings(out, mapEntry.getValue().typeHandles);
+                writeStrings(out, mapEntry.getValue().scopeProjectNames);
+            }
+        }
+        catch (IOException e)
+        {
+            LogHandler.getInstance().handleWarnLog("Could not save MoreUnit correspondence index: " + e.getMessage());
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException
+    {
+        out.writeInt(strings.size());
+        for (String s : strings)
+        {
+            out.writeUTF(s);
+        }
+    }
+
+    /**
+     * Notified when the types corresponding to some compilation units may have
+     * changed.
+     */
+    public static interface InvalidationListener
+    {
+        /**
+         * @param changedCuHandle the handle identifier of the compilation unit
+         *            which change caused the invalidation (or of its package,
+         *            when the package was added or removed, or of its
+         *            project, when the change occurred at the project level)
+         * @param cuHandles the handle identifiers of the compilation units
+         *            which corresponding types may have changed (including
+         *            the changed compilation unit itself)
+         */
+        void entriesInvalidated(String changedCuHandle, Set<String> cuHandles);
+
+        void indexCleared();
+    }
+
+    /**
+     * Entries by key, along with reverse maps from what entries depend on
+     * (compilation units, packages, and literal parts of their name patterns)
+     * to their keys, so that finding the entries affected by a change is a
+     * lookup rather than a scan of all entries. Entries are read without
+     * locking, while modifications are serialized.
+     */
+    // package-private for testing purposes
+    static final class EntryTable
+    {
+        private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+        private final Map<String, Set<String>> keysByCuHandle = new HashMap<String, Set<String>>();
+        private final Map<String, Set<String>> keysByPackageHandle = new HashMap<String, Set<String>>();
+        private final Map<String, Set<String>> keysByNameAnchor = new HashMap<String, Set<String>>();
+        // never decreases, which only costs a few useless lookups
+        private int maxNameAnchorLength;
+
+        Entry get(String key)
+        {
+            return entries.get(key);
+        }
+
+        int size()
+        {
+            return entries.size();
+        }
+
+        boolean isEmpty()
+        {
+            return entries.isEmpty();
+        }
+
+        synchronized Map<String, Entry> snapshot()
+        {
+            return new LinkedHashMap<String, Entry>(entries);
+        }
+
+        synchronized void put(String key, Entry entry)
+        {
+            Entry previousEntry = entries.put(key, entry);
+            if(previousEntry != null)
+            {
+                unregister(key, previousEntry);
+            }
+            register(key, entry);
+        }
+
+        synchronized void putIfAbsent(String key, Entry entry)
+        {
+            if(! entries.containsKey(key))
+            {
+                put(key, entry);
+            }
+        }
+
+        synchronized void remove(String key, Entry entry)
+        {
+            if(entries.remove(key, entry))
+            {
+                unregister(key, entry);
+            }
+        }
+
+        synchronized void clear()
+        {
+            entries.clear();
+            keysByCuHandle.clear();
+            keysByPackageHandle.clear();
+            keysByNameAnchor.clear();
+        }
+
+        /**
+         * Removes the entries of the given compilation units, the entries
+         * referencing them, and the entries which name patterns match one of
+         * the given type names.
+         */
+        synchronized void removeEntriesAffectedBy(Collection<String> cuHandles, Collection<String> typeNames, Set<String> removedCuHandles)
+        {
+            Set<String> keys = new LinkedHashSet<String>();
+            for (String cuHandle : cuHandles)
+            {
+                addAll(keys, keysByCuHandle.get(cuHandle));
+            }
+            addKeysOfEntriesMatchingAnyOf(typeNames, keys);
+            removeAll(keys, removedCuHandles);
+        }
+
+        /**
+         * Removes the entries of the compilation units of the given package,
+         * the entries referencing them, and the entries which name patterns
+         * match one of the given type names.
+         */
+        synchronized void removeEntriesOfPackage(String packageHandle, Collection<String> typeNames, Set<String> removedCuHandles)
+        {
+            Set<String> keys = new LinkedHashSet<String>();
+            addAll(keys, keysByPackageHandle.get(packageHandle));
+            addKeysOfEntriesMatchingAnyOf(typeNames, keys);
+            removeAll(keys, removedCuHandles);
+        }
+
+        /**
+         * Removes the entries of the compilation units of the given project,
+         * and the entries which search scope encloses this project. Such
+         * changes are rare, hence are not worth a reverse map.
+         */
+        synchronized void removeEntriesOfProject(String projectName, Set<String> removedCuHandles)
+        {
+            Set<String> keys = new LinkedHashSet<String>();
+            for (Map.Entry<String, Entry> mapEntry : entries.entrySet())
+            {
+                if(mapEntry.getValue().scopeProjectNames.contains(projectName) || isInProject(mapEntry.getKey().substring(1), projectName))
+                {
+                    keys.add(mapEntry.getKey());
+                }
+            }
+            removeAll(keys, removedCuHandles);
+        }
+
+        private static boolean isInProject(String cuHandle, String projectName)
+        {
+            IJavaElement cu = JavaCore.create(cuHandle);
+            return cu != null && projectName.equals(cu.getJavaProject().getElementName());
+        }
+
+        private void addKeysOfEntriesMatchingAnyOf(Collection<String> typeNames, Set<String> keys)
+        {
+            for (String typeName : typeNames)
+            {
+                // a name only matches the patterns which anchors it contains
+                Set<String> anchors = new LinkedHashSet<String>();
+                anchors.add("");
+                for (int begin = 0; begin < typeName.length(); begin++)
+                {
+                    for (int end = begin + 1; end <= Math.min(typeName.length(), begin + maxNameAnchorLength); end++)
+                    {
+                        anchors.add(typeName.substring(begin, end));
+                    }
+                }
+
+                Collection<String> names = Collections.singleton(typeName);
+                for (String anchor : anchors)
+                {
+                    Set<String> candidateKeys = keysByNameAnchor.get(anchor);
+                    if(candidateKeys == null)
+                    {
+                        continue;
+                    }
+                    for (String key : candidateKeys)
+                    {
+                        if(entries.get(key).matchesAnyOf(names))
+                        {
+                            keys.add(key);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void removeAll(Set<String> keys, Set<String> removedCuHandles)
+        {
+            for (String key : keys)
+            {
+                Entry entry = entries.remove(key);
+                if(entry != null)
+                {
+                    unregister(key, entry);
+                    removedCuHandles.add(key.substring(1));
+                }
+            }
+        }
+
+        private void register(String key, Entry entry)
+        {
+            Set<String> cuHandles = entry.getCuHandles(key.substring(1));
+            for (String cuHandle : cuHandles)
+            {
+                keysByCuHandle.computeIfAbsent(cuHandle, k -> new LinkedHashSet<String>()).add(key);
+            }
+            for (String packageHandle : Entry.getPackageHandles(cuHandles))
+            {
+                keysByPackageHandle.computeIfAbsent(packageHandle, k -> new LinkedHashSet<String>()).add(key);
+            }
+            for (String anchor : entry.getNameAnchors())
+            {
+                keysByNameAnchor.computeIfAbsent(anchor, k -> new LinkedHashSet<String>()).add(key);
+                maxNameAnchorLength = Math.max(maxNameAnchorLength, anchor.length());
+            }
+        }
+
+        private void unregister(String key, Entry entry)
+        {
+            Set<String> cuHandles = entry.getCuHandles(key.substring(1));
+            for (String cuHandle : cuHandles)
+            {
+                removeKey(keysByCuHandle, cuHandle, key);
+            }
+            for (String packageHandle : Entry.getPackageHandles(cuHandles))
+            {
+                removeKey(keysByPackageHandle, packageHandle, key);
+            }
+            for (String anchor : entry.getNameAnchors())
+            {
+                removeKey(keysByNameAnchor, anchor, key);
+            }
+        }
+
+        private static void removeKey(Map<String, Set<String>> keysByValue, String value, String key)
+        {
+            Set<String> keys = keysByValue.get(value);
+            if(keys != null && keys.remove(key) && keys.isEmpty())
+            {
+                keysByValue.remove(value);
+            }
+        }
+
+        private static void addAll(Set<String> keys, Set<String> keysToAdd)
+        {
+            if(keysToAdd != null)
+            {
+                keys.addAll(keysToAdd);
+            }
+        }
+    }
+
+    // package-private for testing purposes
+    static final class Entry
+    {
+        private static final char JEM_COMPILATIONUNIT = '{';
+        private static final char JEM_TYPE = '[';
+
+        final List<String> patterns;
+        final List<String> typeHandles;
+        final List<String> scopeProjectNames;
+        private final List<Pattern> simpleNamePatterns;
+
+        Entry(List<String> patterns, Collection<IType> types, List<String> scopeProjectNames)
+        {
+            this(patterns, toHandles(types), scopeProjectNames);
+        }
+
+        Entry(List<String> patterns, List<String> typeHandles, List<String> scopeProjectNames)
+        {
+            this.patterns = Collections.unmodifiableList(new ArrayList<String>(patterns));
+            this.typeHandles = Collections.unmodifiableList(typeHandles);
+            this.scopeProjectNames = Collections.unmodifiableList(scopeProjectNames);
+            this.simpleNamePatterns = toSimpleNamePatterns(patterns);
+        }
+
+        private static List<String> toHandles(Collection<IType> types)
+        {
+            List<String> handles = new ArrayList<String>(types.size());
+            for (IType type : types)
+            {
+                handles.add(type.getHandleIdentifier());
+            }
+            return handles;
+        }
+
+        /**
+         * Converts the JDT search patterns ("*" and "?" wildcards, possibly
+         * qualified with a package) into regular expressions matching simple
+         * type names.
+         */
+        private static List<Pattern> toSimpleNamePatterns(List<String> patterns)
+        {
+            List<Pattern> result = new ArrayList<Pattern>(patterns.size());
+            for (String p : patterns)
+            {
+                String simpleName = p.substring(p.lastIndexOf('.') + 1);
+                StringBuilder regex = new StringBuilder();
+                for (char c : simpleName.toCharArray())
+                {
+                    if(c == '*')
+                        regex.append(".*");
+                    else if(c == '?')
+                        regex.append('.');
+                    else
+                        regex.append(Pattern.quote(String.valueOf(c)));
+                }
+                result.add(Pattern.compile(regex.toString()));
+            }
+            return result;
+        }
+
+        /**
+         * Returns the types of this entry, or null if one of them does not
+         * exist anymore.
+         */
+        Collection<IType> resolveTypes()
+        {
+            Set<IType> types = new LinkedHashSet<IType>(typeHandles.size());
+            for (String handle : typeHandles)
+            {
+                IJavaElement element = JavaCore.create(handle);
+                if(! (element instanceof IType) || ! element.exists())
+                {
+                    return null;
+                }
+                types.add((IType) element);
+            }
+            return types;
+        }
+
+        /**
+         * Returns the handle identifiers of the compilation units this entry
+         * depends on: the one it was computed for and the ones declaring its
+         * types.
+         */
+        Set<String> getCuHandles(String cuHandle)
+        {
+            Set<String> result = new LinkedHashSet<String>();
+            result.add(cuHandle);
+            for (String handle : typeHandles)
+            {
+                // the handle of a type starts with the one of its compilation unit
+                int typeDelimiterIdx = handle.indexOf(JEM_TYPE);
+                result.add(typeDelimiterIdx == - 1 ? handle : handle.substring(0, typeDelimiterIdx));
+            }
+            return result;
+        }
+
+        /**
+         * Returns the handle identifiers of the packages of the given
+         * compilation units.
+         */
+        static Set<String> getPackageHandles(Collection<String> cuHandles)
+        {
+            Set<String> result = new LinkedHashSet<String>();
+            for (String cuHandle : cuHandles)
+            {
+                // the handle of a compilation unit starts with the one of its
+                // package; types of class files have no such delimiter
+                int cuDelimiterIdx = cuHandle.indexOf(JEM_COMPILATIONUNIT);
+                if(cuDelimiterIdx != - 1)
+                {
+                    result.add(cuHandle.substring(0, cuDelimiterIdx));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the longest literal part of each name pattern of this
+         * entry: any type name matching a pattern contains it.
+         */
+        Set<String> getNameAnchors()
+        {
+            Set<String> result = new LinkedHashSet<String>();
+            for (String p : patterns)
+            {
+                String anchor = "";
+                for (String literal : p.substring(p.lastIndexOf('.') + 1).split("[*?]"))
+                {
+                    if(literal.length() > anchor.length())
+                    {
+                        anchor = literal;
+                    }
+                }
+                result.add(anchor);
+            }
+            return result;
+        }
+
+        boolean matchesAnyOf(Collection<String> typeNames)
+        {
+            for (String name : typeNames)
+            {
+                for (Pattern p : simpleNamePatterns)
+                {
+                    if(p.matcher(name).matches())
+                    {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
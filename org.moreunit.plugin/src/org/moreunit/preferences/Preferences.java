@@ -5,13 +5,22 @@ import static org.moreunit.util.PluginTools.guessTestFolderCorrespondingToMainSr
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.resources.ProjectScope;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
 import org.eclipse.core.runtime.preferences.IScopeContext;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jface.preference.IPreferenceStore;
@@ -33,13 +42,49 @@ public class Preferences
      * It is OK to clear it entirely every time a preference changes ; that way
      * we can guarantee that entries won't be kept in memory without reason.
      */
-    private static final Map<String, TestClassNamePattern> CLASS_NAME_PATTERN_CACHE = new HashMap<String, TestClassNamePattern>();
-    private static final Object CACHE_LOCK = new Object();
+    private static final Map<String, TestClassNamePattern> CLASS_NAME_PATTERN_CACHE = new ConcurrentHashMap<String, TestClassNamePattern>();
+
+    /**
+     * Snapshots of the settings of each project read on hot paths. The map is
+     * never modified but replaced as a whole, so that readers neither lock nor
+     * read the preference stores. All snapshots are dropped when a preference
+     * changes.
+     */
+    private static final AtomicReference<Map<IJavaProject, ProjectConfigSnapshot>> CONFIG_SNAPSHOTS = new AtomicReference<Map<IJavaProject, ProjectConfigSnapshot>>(Collections.<IJavaProject, ProjectConfigSnapshot> emptyMap());
+    // incremented on invalidation, so that snapshots computed in the meantime
+    // are not cached
+    private static final AtomicLong CONFIG_GENERATION = new AtomicLong();
+
+    /**
+     * Cache for the source folder mappings of each project, which are costly
+     * to parse and to resolve. Entries are dropped when a preference they
+     * depend on changes, or when a classpath changes (see
+     * {@link #sourceFoldersChanged(IJavaProject)}).
+     */
+    private static final Map<IJavaProject, SourceFolderMappingGraph> SOURCE_MAPPING_GRAPH_CACHE = new ConcurrentHashMap<IJavaProject, SourceFolderMappingGraph>();
+    // incremented on invalidation, so that graphs computed in the meantime are
+    // not cached
+    private static final AtomicLong SOURCE_MAPPING_GENERATION = new AtomicLong();
+    private static final IPreferenceChangeListener PREFERENCE_LISTENER = new IPreferenceChangeListener()
+    {
+        public void preferenceChange(PreferenceChangeEvent event)
+        {
+            clearConfigSnapshots();
+
+            String key = event.getKey();
+            if(PreferenceConstants.UNIT_SOURCE_FOLDER.equals(key) //
+               || PreferenceConstants.USE_PROJECT_SPECIFIC_SETTINGS.equals(key) //
+               || PreferenceConstants.PREF_JUNIT_PATH.equals(key))
+            {
+                clearSourceMappingGraphs();
+            }
+        }
+    };
 
     private static Preferences instance = new Preferences();
 
     private final Logger logger = MoreUnitPlugin.getDefault().getLogger();
-    private final Map<IJavaProject, IPreferenceStore> preferenceMap = new HashMap<IJavaProject, IPreferenceStore>();
+    private final Map<IJavaProject, IPreferenceStore> preferenceMap = new ConcurrentHashMap<IJavaProject, IPreferenceStore>();
 
     protected Preferences()
     {
@@ -52,11 +97,15 @@ public class Preferences
     }
 
     /**
-     * Necessary for easier testing
+     * Necessary for easier testing. The cached settings, patterns and
+     * mappings are dropped, since they were read by the previous instance.
      */
     protected static void setInstance(Preferences preferences)
     {
         instance = preferences;
+        CLASS_NAME_PATTERN_CACHE.clear();
+        clearConfigSnapshots();
+        clearSourceMappingGraphs();
     }
 
     protected static IPreferenceStore migratePrefsIfRequired(IPreferenceStore store)
@@ -107,6 +156,184 @@ public class Preferences
     }
 
     public List<SourceFolderMapping> getSourceMappingList(IJavaProject javaProject)
+    {
+        return getSourceMappingGraph(javaProject).getMappings();
+    }
+
+    /**
+     * Returns the source folder mappings of the given project, which are only
+     * parsed again once the preferences or the classpath of the project
+     * changed.
+     */
+    public SourceFolderMappingGraph getSourceMappingGraph(IJavaProject javaProject)
+    {
+        if(javaProject == null)
+        {
+            return new SourceFolderMappingGraph(readSourceMappingList(javaProject));
+        }
+
+        SourceFolderMappingGraph graph = SOURCE_MAPPING_GRAPH_CACHE.get(javaProject);
+        if(graph != null)
+        {
+            return graph;
+        }
+
+        listenToPreferences(javaProject);
+
+        long generationBeforeComputation = SOURCE_MAPPING_GENERATION.get();
+        graph = new SourceFolderMappingGraph(readSourceMappingList(javaProject));
+
+        synchronized (SOURCE_MAPPING_GRAPH_CACHE)
+        {
+            if(SOURCE_MAPPING_GENERATION.get() != generationBeforeComputation)
+            {
+                return graph;
+            }
+            SourceFolderMappingGraph existingGraph = SOURCE_MAPPING_GRAPH_CACHE.putIfAbsent(javaProject, graph);
+            return existingGraph != null ? existingGraph : graph;
+        }
+    }
+
+    private static void listenToPreferences(IJavaProject javaProject)
+    {
+        // listeners are only registered once per node
+        InstanceScope.INSTANCE.getNode(MoreUnitPlugin.PLUGIN_ID).addPreferenceChangeListener(PREFERENCE_LISTENER);
+        if(javaProject != null)
+        {
+            new ProjectScope(javaProject.getProject()).getNode(MoreUnitPlugin.PLUGIN_ID).addPreferenceChangeListener(PREFERENCE_LISTENER);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the settings of the given project (or of the
+     * workspace if the project is null) that are read on hot paths. Once
+     * computed, the snapshot is returned without locking nor reading the
+     * preference stores, until a preference changes.
+     */
+    public ProjectConfigSnapshot getConfigSnapshot(IJavaProject javaProject)
+    {
+        ProjectConfigSnapshot snapshot = CONFIG_SNAPSHOTS.get().get(javaProject);
+        if(snapshot != null)
+        {
+            return snapshot;
+        }
+
+        listenToPreferences(javaProject);
+
+        long generationBeforeComputation = CONFIG_GENERATION.get();
+        snapshot = readConfigSnapshot(javaProject);
+
+        while (true)
+        {
+            Map<IJavaProject, ProjectConfigSnapshot> snapshots = CONFIG_SNAPSHOTS.get();
+            if(CONFIG_GENERATION.get() != generationBeforeComputation)
+            {
+                return snapshot;
+            }
+
+            ProjectConfigSnapshot existingSnapshot = snapshots.get(javaProject);
+            if(existingSnapshot != null)
+            {
+                return existingSnapshot;
+            }
+
+            Map<IJavaProject, ProjectConfigSnapshot> updatedSnapshots = new HashMap<IJavaProject, ProjectConfigSnapshot>(snapshots);
+            updatedSnapshots.put(javaProject, snapshot);
+            if(CONFIG_SNAPSHOTS.compareAndSet(snapshots, Collections.unmodifiableMap(updatedSnapshots)))
+            {
+                return snapshot;
+            }
+        }
+    }
+
+    private ProjectConfigSnapshot readConfigSnapshot(IJavaProject javaProject)
+    {
+        String template = getStringValue(PreferenceConstants.TEST_CLASS_NAME_TEMPLATE, javaProject);
+        String prefix = Strings.nullIfBlank(getTestPackagePrefix(javaProject));
+        String suffix = Strings.nullIfBlank(getTestPackageSuffix(javaProject));
+        String annotationMode = getTestAnnotationMode(javaProject);
+
+        return new ProjectConfigSnapshot(getTestType(javaProject), //
+                                         template, prefix, suffix, //
+                                         getTestClassNamePattern(template, prefix, suffix), //
+                                         getMethodSearchMode(javaProject), //
+                                         annotationMode == null || annotationMode.isEmpty() ? TestAnnotationMode.OFF : TestAnnotationMode.valueOf(annotationMode));
+    }
+
+    private static TestClassNamePattern getTestClassNamePattern(String template, String prefix, String suffix)
+    {
+        String key = (template == null ? "" : template.length() + template) //
+                     + (prefix == null ? "" : prefix.length() + prefix) //
+                     + (suffix == null ? "" : suffix.length() + suffix);
+
+        TestClassNamePattern pattern = CLASS_NAME_PATTERN_CACHE.get(key);
+        if(pattern == null)
+        {
+            pattern = new TestClassNamePattern(template, prefix, suffix);
+            TestClassNamePattern existingPattern = CLASS_NAME_PATTERN_CACHE.putIfAbsent(key, pattern);
+            if(existingPattern != null)
+            {
+                pattern = existingPattern;
+            }
+        }
+        return pattern;
+    }
+
+    private static void clearConfigSnapshots()
+    {
+        CONFIG_GENERATION.incrementAndGet();
+        CONFIG_SNAPSHOTS.set(Collections.<IJavaProject, ProjectConfigSnapshot> emptyMap());
+    }
+
+    /**
+     * Drops the cached source folder mappings, to be called when the source
+     * folders of the given project change. Since mappings may refer to the
+     * folders of other projects, the mappings of all projects are dropped.
+     */
+    public void sourceFoldersChanged(IJavaProject javaProject)
+    {
+        clearSourceMappingGraphs();
+        // the project may also have been removed and created again, with new
+        // preferences
+        clearConfigSnapshots();
+    }
+
+    /**
+     * Returns a number that changes each time the cached source folder
+     * mappings are dropped.
+     */
+    public long getSourceMappingGeneration()
+    {
+        return SOURCE_MAPPING_GENERATION.get();
+    }
+
+    /**
+     * Returns the names of the projects the project specific mappings of the
+     * given project refer to. The preferences are read as is, neither the
+     * preference store of the project nor its source folders are loaded.
+     */
+    public Set<String> getMappedProjectNames(IJavaProject javaProject)
+    {
+        listenToPreferences(javaProject);
+
+        IEclipsePreferences node = new ProjectScope(javaProject.getProject()).getNode(MoreUnitPlugin.PLUGIN_ID);
+        if(! node.getBoolean(PreferenceConstants.USE_PROJECT_SPECIFIC_SETTINGS, false))
+        {
+            return Collections.emptySet();
+        }
+        return PreferencesConverter.getProjectNames(node.get(PreferenceConstants.UNIT_SOURCE_FOLDER, null));
+    }
+
+    private static void clearSourceMappingGraphs()
+    {
+        synchronized (SOURCE_MAPPING_GRAPH_CACHE)
+        {
+            SOURCE_MAPPING_GENERATION.incrementAndGet();
+            SOURCE_MAPPING_GRAPH_CACHE.clear();
+        }
+    }
+
+    private List<SourceFolderMapping> readSourceMappingList(IJavaProject javaProject)
     {
         if(hasProjectSpecificSettings(javaProject))
         {
@@ -271,11 +498,8 @@ public class Preferences
 
     public void setTestPackagePrefix(IJavaProject javaProject, String packagePrefix)
     {
-        synchronized (CACHE_LOCK)
-        {
-            CLASS_NAME_PATTERN_CACHE.clear();
-            getProjectStore(javaProject).setValue(PreferenceConstants.TEST_PACKAGE_PREFIX, packagePrefix);
-        }
+        CLASS_NAME_PATTERN_CACHE.clear();
+        getProjectStore(javaProject).setValue(PreferenceConstants.TEST_PACKAGE_PREFIX, packagePrefix);
     }
 
     public String getTestPackageSuffix(IJavaProject javaProject)
@@ -285,11 +509,8 @@ public class Preferences
 
     public void setTestPackageSuffix(IJavaProject javaProject, String packageSuffix)
     {
-        synchronized (CACHE_LOCK)
-        {
-            CLASS_NAME_PATTERN_CACHE.clear();
-            getProjectStore(javaProject).setValue(PreferenceConstants.TEST_PACKAGE_SUFFIX, packageSuffix);
-        }
+        CLASS_NAME_PATTERN_CACHE.clear();
+        getProjectStore(javaProject).setValue(PreferenceConstants.TEST_PACKAGE_SUFFIX, packageSuffix);
     }
 
     private IPreferenceStore storeToRead(IJavaProject javaProject)
@@ -309,9 +530,10 @@ public class Preferences
             return getWorkbenchStore();
         }
 
-        if(preferenceMap.containsKey(javaProject))
+        IPreferenceStore store = preferenceMap.get(javaProject);
+        if(store != null)
         {
-            return preferenceMap.get(javaProject);
+            return store;
         }
 
         return getOrCreateProjectStore(javaProject);
@@ -331,9 +553,10 @@ public class Preferences
             ProjectScope projectScopeContext = new ProjectScope(javaProject.getProject());
             ScopedPreferenceStore preferenceStore = new ScopedPreferenceStore(projectScopeContext, MoreUnitPlugin.PLUGIN_ID);
             preferenceStore.setSearchContexts(new IScopeContext[] { projectScopeContext });
-            preferenceMap.put(javaProject, preferenceStore);
             resultStore = initStore(migratePrefsIfRequired(preferenceStore));
             saveMigrationResultIfRequired(preferenceStore, javaProject);
+            // only published once initialized, since readers do not lock
+            preferenceMap.put(javaProject, preferenceStore);
         }
 
         return resultStore;
@@ -361,10 +584,8 @@ public class Preferences
 
     public void clearProjectCache()
     {
-        synchronized (preferenceMap)
-        {
-            preferenceMap.clear();
-        }
+        preferenceMap.clear();
+        clearConfigSnapshots();
     }
 
     public IPackageFragmentRoot getTestSourceFolder(IJavaProject project, IPackageFragmentRoot mainSrcFolder)
@@ -375,20 +596,18 @@ public class Preferences
     public IPackageFragmentRoot getTestSourceFolder(IJavaProject project, IPackageFragmentRoot mainSrcFolder, String testFrameworkLanguage)
     {
         // check for project specific settings
-        List<SourceFolderMapping> mappings = getSourceMappingList(project);
+        SourceFolderMappingGraph mappings = getSourceMappingGraph(project);
 
-        for (SourceFolderMapping mapping : mappings)
+        IPackageFragmentRoot testFolder = mappings.getTestFolder(mainSrcFolder);
+        if(testFolder != null)
         {
-            if(mapping.getSourceFolderList().contains(mainSrcFolder))
-            {
-                return mapping.getTestFolder();
-            }
+            return testFolder;
         }
 
         if(! mappings.isEmpty())
         {
             // falls back to first test folder defined
-            return mappings.get(0).getTestFolder();
+            return mappings.getFirstTestFolder();
         }
 
         // no mapping exists: falls back to un-mapped source folders
@@ -414,20 +633,18 @@ public class Preferences
 
     public IPackageFragmentRoot getMainSourceFolder(IJavaProject mainProject, IPackageFragmentRoot testSrcFolder)
     {
-        List<SourceFolderMapping> mappings = getSourceMappingList(mainProject);
+        SourceFolderMappingGraph mappings = getSourceMappingGraph(mainProject);
 
-        for (SourceFolderMapping mapping : mappings)
+        IPackageFragmentRoot mainFolder = mappings.getMainFolder(testSrcFolder);
+        if(mainFolder != null)
         {
-            if(mapping.getTestFolder().equals(testSrcFolder))
-            {
-                return mapping.getSourceFolderList().get(0);
-            }
+            return mainFolder;
         }
 
         if(! mappings.isEmpty())
         {
             // falls back to first main folder defined
-            return mappings.get(0).getSourceFolderList().get(0);
+            return mappings.getFirstMainFolder();
         }
 
         // no mapping exists: falls back to un-mapped source folders
@@ -571,12 +788,12 @@ public class Preferences
 
         public String getPackagePrefix()
         {
-            return Strings.nullIfBlank(prefs.getTestPackagePrefix(project));
+            return prefs.getConfigSnapshot(project).getPackagePrefix();
         }
 
         public String getPackageSuffix()
         {
-            return Strings.nullIfBlank(prefs.getTestPackageSuffix(project));
+            return prefs.getConfigSnapshot(project).getPackageSuffix();
         }
 
         public List<SourceFolderMapping> getSourceFolderMappings()
@@ -612,7 +829,7 @@ public class Preferences
 
         public String getTestType()
         {
-            return prefs.getTestType(project);
+            return prefs.getConfigSnapshot(project).getTestType();
         }
 
         public boolean shouldGenerateCommentsForTestMethod()
@@ -652,49 +869,28 @@ public class Preferences
 
         public MethodSearchMode getMethodSearchMode()
         {
-            return prefs.getMethodSearchMode(project);
+            return prefs.getConfigSnapshot(project).getMethodSearchMode();
         }
 
         public TestClassNamePattern getTestClassNamePattern()
         {
-            synchronized (CACHE_LOCK)
-            {
-                String template = getTestClassNameTemplate();
-                String prefix = getPackagePrefix();
-                String suffix = getPackageSuffix();
-                String key = (template == null ? "" : template.length() + template) //
-                             + (prefix == null ? "" : prefix.length() + prefix) //
-                             + (suffix == null ? "" : suffix.length() + suffix);
-
-                TestClassNamePattern pattern = CLASS_NAME_PATTERN_CACHE.get(key);
-                if(pattern == null)
-                {
-                    pattern = new TestClassNamePattern(template, prefix, suffix);
-                    CLASS_NAME_PATTERN_CACHE.put(key, pattern);
-                }
-
-                return pattern;
-            }
+            return prefs.getConfigSnapshot(project).getTestClassNamePattern();
         }
 
         public void setTestClassNameTemplate(String template)
         {
-            synchronized (CACHE_LOCK)
-            {
-                CLASS_NAME_PATTERN_CACHE.clear();
-                prefs.getProjectStore(project).setValue(PreferenceConstants.TEST_CLASS_NAME_TEMPLATE, template);
-            }
+            CLASS_NAME_PATTERN_CACHE.clear();
+            prefs.getProjectStore(project).setValue(PreferenceConstants.TEST_CLASS_NAME_TEMPLATE, template);
         }
 
         public String getTestClassNameTemplate()
         {
-            return prefs.getStringValue(PreferenceConstants.TEST_CLASS_NAME_TEMPLATE, project);
+            return prefs.getConfigSnapshot(project).getTestClassNameTemplate();
         }
 
         public TestAnnotationMode getTestAnnotationMode()
         {
-            String mode = prefs.getTestAnnotationMode(project);
-            return mode == null || mode.isEmpty() ? TestAnnotationMode.OFF : TestAnnotationMode.valueOf(mode);
+            return prefs.getConfigSnapshot(project).getTestAnnotationMode();
         }
 
     }
@@ -1,7 +1,9 @@
 package org.moreunit.preferences;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.moreunit.core.util.Strings;
@@ -100,6 +102,30 @@ public class PreferencesConverter
         return resultList;
     }
 
+    /**
+     * Returns the names of the projects referenced by the given mapping
+     * string, without resolving the source folders.
+     */
+    public static Set<String> getProjectNames(String sourceMappingString)
+    {
+        Set<String> result = new LinkedHashSet<String>();
+
+        if(Strings.isBlank(sourceMappingString))
+            return result;
+
+        for (String mappingToken : sourceMappingString.split(PreferencesConverter.DELIMITER_BETWEEN_MAPPING))
+        {
+            String[] folderSplit = mappingToken.split(PreferencesConverter.DELIMITER_INTERNAL);
+            if(folderSplit.length > INDEX_TEST_PROJECT)
+            {
+                result.add(folderSplit[PreferencesConverter.INDEX_SOURCE_PROJECT]);
+                result.add(folderSplit[PreferencesConverter.INDEX_TEST_PROJECT]);
+            }
+        }
+
+        return result;
+    }
+
     public static String[] convertStringToArray(String listString)
     {
         if(Strings.isBlank(listString))
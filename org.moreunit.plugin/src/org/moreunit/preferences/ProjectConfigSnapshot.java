@@ -0,0 +1,74 @@
+package org.moreunit.preferences;
+
+import org.moreunit.matching.TestClassNamePattern;
+import org.moreunit.preferences.Preferences.MethodSearchMode;
+
+/**
+ * The settings of a project that are read each time a type is evaluated (test
+ * type, test class name pattern, package prefix and suffix, method search mode
+ * and annotation mode), read once from the preference stores. Instances are
+ * immutable, they are replaced when a preference changes (see
+ * {@link Preferences#getConfigSnapshot}).
+ */
+public final class ProjectConfigSnapshot
+{
+    private final String testType;
+    private final String testClassNameTemplate;
+    private final String packagePrefix;
+    private final String packageSuffix;
+    private final TestClassNamePattern testClassNamePattern;
+    private final MethodSearchMode methodSearchMode;
+    private final TestAnnotationMode testAnnotationMode;
+
+    public ProjectConfigSnapshot(String testType, String testClassNameTemplate, String packagePrefix, String packageSuffix, TestClassNamePattern testClassNamePattern, MethodSearchMode methodSearchMode, TestAnnotationMode testAnnotationMode)
+    {
+        this.testType = testType;
+        this.testClassNameTemplate = testClassNameTemplate;
+        this.packagePrefix = packagePrefix;
+        this.packageSuffix = packageSuffix;
+        this.testClassNamePattern = testClassNamePattern;
+        this.methodSearchMode = methodSearchMode;
+        this.testAnnotationMode = testAnnotationMode;
+    }
+
+    public String getTestType()
+    {
+        return testType;
+    }
+
+    public String getTestClassNameTemplate()
+    {
+        return testClassNameTemplate;
+    }
+
+    /**
+     * Returns the package prefix, or null if there is none.
+     */
+    public String getPackagePrefix()
+    {
+        return packagePrefix;
+    }
+
+    /**
+     * Returns the package suffix, or null if there is none.
+     */
+    public String getPackageSuffix()
+    {
+        return packageSuffix;
+    }
+
+    public TestClassNamePattern getTestClassNamePattern()
+    {
+        return testClassNamePattern;
+    }
+
+    public MethodSearchMode getMethodSearchMode()
+    {
+        return methodSearchMode;
+    }
+
+    public TestAnnotationMode getTestAnnotationMode()
+    {
+        return testAnnotationMode;
+    }
+}
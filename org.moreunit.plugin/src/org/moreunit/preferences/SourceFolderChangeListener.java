@@ -0,0 +1,36 @@
+package org.moreunit.preferences;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.JavaCore;
+import org.moreunit.util.JavaElementUtils;
+
+/**
+ * Drops the cached source folder mappings when the source folders or the
+ * classpath of a project change (see
+ * {@link Preferences#sourceFoldersChanged(org.eclipse.jdt.core.IJavaProject)}).
+ */
+public class SourceFolderChangeListener implements IElementChangedListener
+{
+    /**
+     * Starts to listen to Java element changes.
+     */
+    public void start()
+    {
+        JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+    }
+
+    public void stop()
+    {
+        JavaCore.removeElementChangedListener(this);
+    }
+
+    public void elementChanged(ElementChangedEvent event)
+    {
+        for (IJavaElement container : JavaElementUtils.getStructurallyChangedContainers(event.getDelta()))
+        {
+            Preferences.getInstance().sourceFoldersChanged(container.getJavaProject());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.moreunit.preferences;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.moreunit.elements.SourceFolderMapping;
+
+/**
+ * The source folder mappings of a project, parsed once and indexed in both
+ * directions: from main folders to test folders and from test folders to main
+ * folders. Instances are immutable, they are rebuilt when the preferences or
+ * the classpath of the project change (see
+ * {@link Preferences#getSourceMappingGraph}).
+ */
+public final class SourceFolderMappingGraph
+{
+    private final List<SourceFolderMapping> mappings;
+    private final Map<IPackageFragmentRoot, IPackageFragmentRoot> testFolderByMainFolder = new HashMap<IPackageFragmentRoot, IPackageFragmentRoot>();
+    private final Map<IPackageFragmentRoot, IPackageFragmentRoot> mainFolderByTestFolder = new HashMap<IPackageFragmentRoot, IPackageFragmentRoot>();
+    private final Set<IPackageFragmentRoot> testFolders = new HashSet<IPackageFragmentRoot>();
+    private final Map<IPackageFragmentRoot, List<IPackageFragmentRoot>> correspondingFolders = new HashMap<IPackageFragmentRoot, List<IPackageFragmentRoot>>();
+
+    public SourceFolderMappingGraph(List<SourceFolderMapping> mappings)
+    {
+        this.mappings = copy(mappings);
+
+        for (SourceFolderMapping mapping : this.mappings)
+        {
+            IPackageFragmentRoot testFolder = mapping.getTestFolder();
+            List<IPackageFragmentRoot> mainFolders = mapping.getSourceFolderList();
+            testFolders.add(testFolder);
+
+            // when a folder is part of several mappings, the first one wins
+            for (IPackageFragmentRoot mainFolder : mainFolders)
+            {
+                if(! testFolderByMainFolder.containsKey(mainFolder))
+                {
+                    testFolderByMainFolder.put(mainFolder, testFolder);
+                }
+                addCorrespondingFolders(mainFolder, Collections.singletonList(testFolder));
+            }
+            if(! mainFolders.isEmpty() && ! mainFolderByTestFolder.containsKey(testFolder))
+            {
+                mainFolderByTestFolder.put(testFolder, mainFolders.get(0));
+            }
+            addCorrespondingFolders(testFolder, mainFolders);
+        }
+
+        for (Map.Entry<IPackageFragmentRoot, List<IPackageFragmentRoot>> entry : correspondingFolders.entrySet())
+        {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+    }
+
+    private void addCorrespondingFolders(IPackageFragmentRoot folder, List<IPackageFragmentRoot> folders)
+    {
+        List<IPackageFragmentRoot> list = correspondingFolders.get(folder);
+        if(list == null)
+        {
+            list = new ArrayList<IPackageFragmentRoot>();
+            correspondingFolders.put(folder, list);
+        }
+        list.addAll(folders);
+    }
+
+    public boolean isEmpty()
+    {
+        return mappings.isEmpty();
+    }
+
+    /**
+     * Returns a copy of the mappings, that callers are free to modify.
+     */
+    public List<SourceFolderMapping> getMappings()
+    {
+        return copy(mappings);
+    }
+
+    /**
+     * Returns the test folder mapped to the given main folder, or null if
+     * there is none.
+     */
+    public IPackageFragmentRoot getTestFolder(IPackageFragmentRoot mainFolder)
+    {
+        return testFolderByMainFolder.get(mainFolder);
+    }
+
+    /**
+     * Returns the first main folder mapped to the given test folder, or null
+     * if there is none.
+     */
+    public IPackageFragmentRoot getMainFolder(IPackageFragmentRoot testFolder)
+    {
+        return mainFolderByTestFolder.get(testFolder);
+    }
+
+    public IPackageFragmentRoot getFirstTestFolder()
+    {
+        return mappings.isEmpty() ? null : mappings.get(0).getTestFolder();
+    }
+
+    public IPackageFragmentRoot getFirstMainFolder()
+    {
+        for (SourceFolderMapping mapping : mappings)
+        {
+            if(! mapping.getSourceFolderList().isEmpty())
+            {
+                return mapping.getSourceFolderList().get(0);
+            }
+        }
+        return null;
+    }
+
+    public boolean isTestFolder(IPackageFragmentRoot folder)
+    {
+        return testFolders.contains(folder);
+    }
+
+    /**
+     * Returns the folders corresponding to each mapped folder: the test folder
+     * of main folders, and the main folders of test folders.
+     */
+    public Map<IPackageFragmentRoot, List<IPackageFragmentRoot>> getCorrespondingFolders()
+    {
+        return Collections.unmodifiableMap(correspondingFolders);
+    }
+
+    private static List<SourceFolderMapping> copy(List<SourceFolderMapping> mappings)
+    {
+        List<SourceFolderMapping> copies = new ArrayList<SourceFolderMapping>(mappings.size());
+        for (SourceFolderMapping mapping : mappings)
+        {
+            copies.add(new SourceFolderMapping(mapping));
+        }
+        return copies;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + mappings;
+    }
+}
@@ -211,7 +211,7 @@ public class UnitSourceFolderBlock implements ISelectionChangedListener
         Preferences.getInstance().setMappingList(javaProject, mappingList);
 
         SourceFolderContext.getInstance().initContextForWorkspace();
-        SearchScopeSingelton.getInstance().resetCachedSearchScopes();
+        SearchScopeSingelton.getInstance().resetCachedSearchScopes(javaProject);
     }
 
     public void selectionChanged(SelectionChangedEvent event)
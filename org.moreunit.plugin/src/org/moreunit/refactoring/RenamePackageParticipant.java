@@ -20,7 +20,6 @@ import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.participants.CheckConditionsContext;
 import org.eclipse.ltk.core.refactoring.participants.RenameParticipant;
 import org.moreunit.SourceFolderContext;
-import org.moreunit.elements.SourceFolderMapping;
 import org.moreunit.preferences.Preferences;
 import org.moreunit.preferences.Preferences.ProjectPreferences;
 import org.moreunit.util.PluginTools;
@@ -53,14 +52,7 @@ public class RenamePackageParticipant extends RenameParticipant
 
     private boolean isTestSourceFolder()
     {
-        List<SourceFolderMapping> sourceMappingList = Preferences.getInstance().getSourceMappingList(packageFragment.getJavaProject());
-        for (SourceFolderMapping mapping : sourceMappingList)
-        {
-            if(packageFragmentRoot.equals(mapping.getTestFolder()))
-                return true;
-        }
-
-        return false;
+        return Preferences.getInstance().getSourceMappingGraph(packageFragment.getJavaProject()).isTestFolder(packageFragmentRoot);
     }
 
     @Override
@@ -1,10 +1,21 @@
 package org.moreunit.ui;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jface.operation.IRunnableWithProgress;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
 import org.moreunit.log.LogHandler;
 
 public class EditorUI
@@ -31,4 +42,60 @@ public class EditorUI
     {
         JavaUI.revealInEditor(editorPart, element);
     }
+
+    /**
+     * Runs the given search in a separate thread while the UI stays
+     * responsive, showing a busy cursor and, if the search lasts, a progress
+     * dialog that lets the user cancel it. Returns the result of the search
+     * once it is done, or <code>null</code> if it was canceled or failed. When
+     * not called from the UI thread, the search simply runs in the current
+     * thread.
+     */
+    public <T> T search(final String taskName, final Function<IProgressMonitor, T> search)
+    {
+        if(Display.getCurrent() == null || ! PlatformUI.isWorkbenchRunning())
+        {
+            try
+            {
+                return search.apply(new NullProgressMonitor());
+            }
+            catch (OperationCanceledException e)
+            {
+                return null;
+            }
+        }
+
+        final AtomicReference<T> result = new AtomicReference<T>();
+        try
+        {
+            PlatformUI.getWorkbench().getProgressService().busyCursorWhile(new IRunnableWithProgress()
+            {
+                public void run(IProgressMonitor monitor) throws InterruptedException
+                {
+                    try
+                    {
+                        result.set(search.apply(SubMonitor.convert(monitor, taskName, 1)));
+                    }
+                    catch (OperationCanceledException e)
+                    {
+                        throw new InterruptedException();
+                    }
+                    finally
+                    {
+                        monitor.done();
+                    }
+                }
+            });
+        }
+        catch (InvocationTargetException exc)
+        {
+            LogHandler.getInstance().handleExceptionLog(exc.getCause());
+            return null;
+        }
+        catch (InterruptedException exc)
+        {
+            return null;
+        }
+        return result.get();
+    }
 }
@@ -1,6 +1,10 @@
 package org.moreunit.ui;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -10,8 +14,13 @@ import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.ui.JavaElementLabelProvider;
 import org.eclipse.jface.viewers.DoubleClickEvent;
@@ -25,16 +34,45 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.part.ViewPart;
+import org.eclipse.ui.progress.IWorkbenchSiteProgressService;
 import org.moreunit.elements.MissingClassTreeContentProvider;
+import org.moreunit.elements.MissingTestsFinder;
+import org.moreunit.elements.MissingTestsFinder.VerdictUpdate;
+import org.moreunit.matching.TestCorrespondenceIndex;
 import org.moreunit.util.PluginTools;
 
-public class MissingTestsViewPart extends ViewPart implements SelectionListener, IDoubleClickListener, IResourceChangeListener
+/**
+ * Lists the classes of a project that have no test case. The list is computed
+ * once in the background when a project is selected, then patched as
+ * compilation units and their test cases change: only the compilation units
+ * which correspondence index entries are invalidated, and the ones of packages
+ * added or removed, are evaluated again.
+ */
+public class MissingTestsViewPart extends ViewPart implements SelectionListener, IDoubleClickListener, IResourceChangeListener, TestCorrespondenceIndex.InvalidationListener
 {
+    private static final long UPDATE_DELAY = 200;
+
     private TreeViewer treeViewer;
-    private IJavaProject selectedJavaProject;
+    private volatile IJavaProject selectedJavaProject;
     private Combo projectComboBox;
+    private final MissingTestsFinder missingTestsFinder = new MissingTestsFinder();
+    // only accessed from the UI thread
+    private final Set<ICompilationUnit> untestedCompilationUnits = new LinkedHashSet<ICompilationUnit>();
+    private Job searchJob;
+    private int searchGeneration;
+    // guarded by itself
+    private final Set<String> pendingCuHandles = new LinkedHashSet<String>();
+    private final Job updateJob = new Job("Update Classes Without Test")
+    {
+        @Override
+        protected IStatus run(IProgressMonitor monitor)
+        {
+            return updateMissingTests(monitor);
+        }
+    };
 
     @Override
     public void createPartControl(Composite parent)
@@ -57,6 +95,8 @@ public class MissingTestsViewPart extends ViewPart implements SelectionListener,
         treeViewer.addDoubleClickListener(this);
 
         ResourcesPlugin.getWorkspace().addResourceChangeListener(this);
+        updateJob.setSystem(true);
+        TestCorrespondenceIndex.getInstance().addInvalidationListener(this);
     }
 
     private String[] getNamesOfJavaProjects()
@@ -78,7 +118,7 @@ public class MissingTestsViewPart extends ViewPart implements SelectionListener,
         String projectName = ((Combo) e.getSource()).getText();
         IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
         selectedJavaProject = JavaCore.create(project);
-        treeViewer.refresh();
+        refreshMissingTests();
     }
 
     public IJavaProject getSelectedJavaProject()
@@ -86,6 +126,181 @@ public class MissingTestsViewPart extends ViewPart implements SelectionListener,
         return selectedJavaProject;
     }
 
+    public Collection<ICompilationUnit> getUntestedCompilationUnits()
+    {
+        return untestedCompilationUnits;
+    }
+
+    /**
+     * Searches the selected project for untested classes in the background,
+     * adding them to the tree as they are found. Must be called from the UI
+     * thread.
+     */
+    private void refreshMissingTests()
+    {
+        if(searchJob != null)
+        {
+            searchJob.cancel();
+            searchJob = null;
+        }
+        final int generation = ++searchGeneration;
+        synchronized (pendingCuHandles)
+        {
+            pendingCuHandles.clear();
+        }
+        untestedCompilationUnits.clear();
+        treeViewer.refresh();
+
+        if(selectedJavaProject == null)
+        {
+            return;
+        }
+
+        searchJob = missingTestsFinder.createSearchJob(selectedJavaProject, chunk -> {
+            Display display = treeViewer.getControl().getDisplay();
+            if(display.isDisposed())
+            {
+                return;
+            }
+            display.asyncExec(() -> {
+                // ignores results of cancelled searches
+                if(generation == searchGeneration && ! treeViewer.getControl().isDisposed())
+                {
+                    addUntestedCompilationUnits(chunk);
+                }
+            });
+        });
+        IWorkbenchSiteProgressService progressService = getSite().getAdapter(IWorkbenchSiteProgressService.class);
+        if(progressService != null)
+        {
+            progressService.schedule(searchJob);
+        }
+        else
+        {
+            searchJob.schedule();
+        }
+    }
+
+    private void addUntestedCompilationUnits(List<ICompilationUnit> compilationUnits)
+    {
+        List<ICompilationUnit> addedCompilationUnits = new ArrayList<ICompilationUnit>();
+        for (ICompilationUnit compilationUnit : compilationUnits)
+        {
+            if(untestedCompilationUnits.add(compilationUnit))
+            {
+                addedCompilationUnits.add(compilationUnit);
+            }
+        }
+        if(! addedCompilationUnits.isEmpty())
+        {
+            treeViewer.add(this, addedCompilationUnits.toArray());
+        }
+    }
+
+    private void removeUntestedCompilationUnits(List<ICompilationUnit> compilationUnits)
+    {
+        List<ICompilationUnit> removedCompilationUnits = new ArrayList<ICompilationUnit>();
+        for (ICompilationUnit compilationUnit : compilationUnits)
+        {
+            if(untestedCompilationUnits.remove(compilationUnit))
+            {
+                removedCompilationUnits.add(compilationUnit);
+            }
+        }
+        if(! removedCompilationUnits.isEmpty())
+        {
+            treeViewer.remove(removedCompilationUnits.toArray());
+        }
+    }
+
+    private void removeUntestedCompilationUnitsOf(List<IPackageFragment> packageFragments)
+    {
+        List<ICompilationUnit> compilationUnits = new ArrayList<ICompilationUnit>();
+        for (ICompilationUnit compilationUnit : untestedCompilationUnits)
+        {
+            if(packageFragments.contains(compilationUnit.getParent()))
+            {
+                compilationUnits.add(compilationUnit);
+            }
+        }
+        removeUntestedCompilationUnits(compilationUnits);
+    }
+
+    public void entriesInvalidated(String changedCuHandle, Set<String> cuHandles)
+    {
+        IJavaProject javaProject = selectedJavaProject;
+        if(javaProject == null)
+        {
+            return;
+        }
+
+        if(javaProject.getHandleIdentifier().equals(changedCuHandle))
+        {
+            // the source folders of the project may have changed
+            asyncRefreshMissingTests();
+            return;
+        }
+
+        // the changed handle may also denote a package that was added or
+        // removed, which is then evaluated as a whole
+        synchronized (pendingCuHandles)
+        {
+            pendingCuHandles.add(changedCuHandle);
+            pendingCuHandles.addAll(cuHandles);
+        }
+        updateJob.schedule(UPDATE_DELAY);
+    }
+
+    public void indexCleared()
+    {
+        asyncRefreshMissingTests();
+    }
+
+    private void asyncRefreshMissingTests()
+    {
+        Display display = treeViewer.getControl().getDisplay();
+        if(! display.isDisposed())
+        {
+            display.asyncExec(() -> {
+                if(! treeViewer.getControl().isDisposed())
+                {
+                    refreshMissingTests();
+                }
+            });
+        }
+    }
+
+    private IStatus updateMissingTests(IProgressMonitor monitor)
+    {
+        final IJavaProject javaProject = selectedJavaProject;
+        List<String> cuHandles;
+        synchronized (pendingCuHandles)
+        {
+            cuHandles = new ArrayList<String>(pendingCuHandles);
+            pendingCuHandles.clear();
+        }
+        if(javaProject == null || cuHandles.isEmpty())
+        {
+            return Status.OK_STATUS;
+        }
+
+        final VerdictUpdate update = missingTestsFinder.evaluate(javaProject, cuHandles, monitor);
+
+        Display display = treeViewer.getControl().getDisplay();
+        if(! display.isDisposed())
+        {
+            display.asyncExec(() -> {
+                if(javaProject.equals(selectedJavaProject) && ! treeViewer.getControl().isDisposed())
+                {
+                    removeUntestedCompilationUnits(update.tested);
+                    removeUntestedCompilationUnitsOf(update.removedPackages);
+                    addUntestedCompilationUnits(update.untested);
+                }
+            });
+        }
+        return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+    }
+
     public void doubleClick(DoubleClickEvent event)
     {
         ITreeSelection selection = (ITreeSelection) this.treeViewer.getSelection();
@@ -98,6 +313,13 @@ public class MissingTestsViewPart extends ViewPart implements SelectionListener,
     {
         super.dispose();
         ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        TestCorrespondenceIndex.getInstance().removeInvalidationListener(this);
+        updateJob.cancel();
+        if(searchJob != null)
+        {
+            searchJob.cancel();
+        }
+        missingTestsFinder.dispose();
     }
 
     public void resourceChanged(IResourceChangeEvent event)
@@ -114,49 +336,12 @@ public class MissingTestsViewPart extends ViewPart implements SelectionListener,
         if(selectedJavaProject == null)
             return;
 
+        // changes to the compilation units of the selected project are
+        // handled through the correspondence index
         IResourceDelta delta = event.getDelta();
-        IResourceDelta projectDelta = delta.findMember(selectedJavaProject.getPath());
-        if(projectDelta == null)
+        if(delta.findMember(selectedJavaProject.getPath()) == null)
         {
             checkNewProject(delta);
-            return;
-        }
-
-        final ArrayList<IResource> addedOrRemovedResource = new ArrayList<IResource>();
-        IResourceDeltaVisitor visitor = new IResourceDeltaVisitor()
-        {
-            public boolean visit(IResourceDelta delta) throws CoreException
-            {
-                if(delta.getKind() == IResourceDelta.ADDED || delta.getKind() == IResourceDelta.REMOVED)
-                {
-                    if(delta.getResource().getType() == IResource.FILE && "java".equals(delta.getResource().getFileExtension()))
-                    {
-                        addedOrRemovedResource.add(delta.getResource());
-                    }
-                }
-                return true;
-            }
-        };
-
-        try
-        {
-            projectDelta.accept(visitor);
-        }
-        catch (CoreException e)
-        {
-            e.printStackTrace();
-        }
-
-        if(!addedOrRemovedResource.isEmpty())
-        {
-            PlatformUI.getWorkbench().getDisplay().asyncExec(new Runnable()
-            {
-
-                public void run()
-                {
-                    treeViewer.refresh();
-                }
-            });
         }
     }
 
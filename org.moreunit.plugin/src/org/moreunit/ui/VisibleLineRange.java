@@ -0,0 +1,111 @@
+package org.moreunit.ui;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.ISourceReference;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * The lines of a document shown by a text viewer, extended by as many lines
+ * above and below, so that results computed for those lines are still
+ * displayed after a short scroll. Used to process the elements the user sees
+ * before the other ones.
+ */
+public final class VisibleLineRange
+{
+    private final int firstLine;
+    private final int lastLine;
+
+    private VisibleLineRange(int firstLine, int lastLine)
+    {
+        this.firstLine = firstLine;
+        this.lastLine = lastLine;
+    }
+
+    /**
+     * Returns the range of lines shown by the given viewer, or
+     * <code>null</code> if it is unknown (for instance if the viewer has been
+     * disposed). May be called from any thread, as long as it does not hold a
+     * lock that the UI thread could be waiting for.
+     */
+    public static VisibleLineRange of(final ITextViewer viewer)
+    {
+        StyledText widget = viewer.getTextWidget();
+        if(widget == null || widget.isDisposed())
+        {
+            return null;
+        }
+
+        try
+        {
+            Display display = widget.getDisplay();
+            if(display.getThread() == Thread.currentThread())
+            {
+                return compute(viewer);
+            }
+
+            final AtomicReference<VisibleLineRange> result = new AtomicReference<VisibleLineRange>();
+            display.syncExec(new Runnable()
+            {
+                public void run()
+                {
+                    result.set(compute(viewer));
+                }
+            });
+            return result.get();
+        }
+        catch (SWTException e)
+        {
+            // the widget or the display has been disposed in the meantime
+            return null;
+        }
+    }
+
+    private static VisibleLineRange compute(ITextViewer viewer)
+    {
+        StyledText widget = viewer.getTextWidget();
+        if(widget == null || widget.isDisposed())
+        {
+            return null;
+        }
+        return forShownLines(viewer.getTopIndex(), viewer.getBottomIndex());
+    }
+
+    static VisibleLineRange forShownLines(int topLine, int bottomLine)
+    {
+        if(topLine < 0 || bottomLine < topLine)
+        {
+            return null;
+        }
+        int margin = bottomLine - topLine + 1;
+        return new VisibleLineRange(Math.max(0, topLine - margin), bottomLine + margin);
+    }
+
+    public boolean contains(int line)
+    {
+        return line >= firstLine && line <= lastLine;
+    }
+
+    /**
+     * Returns true if the name of the given element is in this range.
+     */
+    public boolean contains(IDocument document, ISourceReference element)
+    {
+        try
+        {
+            ISourceRange nameRange = element.getNameRange();
+            return nameRange != null && nameRange.getOffset() >= 0 && contains(document.getLineOfOffset(nameRange.getOffset()));
+        }
+        catch (JavaModelException | BadLocationException e)
+        {
+            return false;
+        }
+    }
+}
@@ -1,13 +1,69 @@
 package org.moreunit.util;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
 
 public class JavaElementUtils
 {
+    private static final int STRUCTURAL_FLAGS = IJavaElementDelta.F_OPENED //
+                                                | IJavaElementDelta.F_CLOSED //
+                                                | IJavaElementDelta.F_CLASSPATH_CHANGED //
+                                                | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED //
+                                                | IJavaElementDelta.F_ADDED_TO_CLASSPATH //
+                                                | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
     public static IJavaElement[] toArray(Collection< ? extends IJavaElement> elements)
     {
         return elements.stream().toArray(IJavaElement[]::new);
     }
+
+    /**
+     * Returns true if the given delta of a project or of a source folder
+     * denotes a change of its structure: added, removed, opened, closed, or
+     * classpath changed.
+     */
+    public static boolean isStructuralChange(IJavaElementDelta delta)
+    {
+        return delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & STRUCTURAL_FLAGS) != 0;
+    }
+
+    /**
+     * Returns the projects and source folders which structure changed
+     * according to the given delta.
+     */
+    public static List<IJavaElement> getStructurallyChangedContainers(IJavaElementDelta delta)
+    {
+        List<IJavaElement> result = new ArrayList<IJavaElement>();
+        collectStructurallyChangedContainers(delta, result);
+        return result;
+    }
+
+    private static void collectStructurallyChangedContainers(IJavaElementDelta delta, List<IJavaElement> result)
+    {
+        switch (delta.getElement().getElementType())
+        {
+        case IJavaElement.JAVA_PROJECT:
+        case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            if(isStructuralChange(delta))
+            {
+                result.add(delta.getElement());
+                return;
+            }
+            break;
+        case IJavaElement.JAVA_MODEL:
+            break;
+        default:
+            // packages and compilation units do not change the structure
+            return;
+        }
+
+        for (IJavaElementDelta child : delta.getAffectedChildren())
+        {
+            collectStructurallyChangedContainers(child, result);
+        }
+    }
 }
@@ -0,0 +1,194 @@
+package org.moreunit.util;
+
+import static org.moreunit.core.util.Preconditions.checkNotNullOrEmpty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+import org.moreunit.elements.MethodFacade;
+import org.moreunit.elements.TypeFacade;
+import org.moreunit.log.LogHandler;
+
+/**
+ * Finds the test methods calling some methods, running a single reference
+ * search for all the methods. Contrary to {@link MethodCallFinder}, it does
+ * not rely on the shared CallHierarchy, so it may safely be used by concurrent
+ * tasks.
+ */
+public class MethodReferenceSearchEngine
+{
+    private final IJavaSearchScope searchScope;
+
+    public MethodReferenceSearchEngine(Collection< ? extends IJavaElement> searchScope)
+    {
+        checkNotNullOrEmpty(searchScope, "Missing search scope");
+        this.searchScope = SearchEngine.createJavaSearchScope(JavaElementUtils.toArray(searchScope));
+    }
+
+    /**
+     * Returns the test methods calling each of the given methods, in the order
+     * of the given methods (a method that is not called is mapped to an empty
+     * set).
+     */
+    public Map<IMethod, Set<IMethod>> findTestCallers(Collection<IMethod> methods, IProgressMonitor monitor)
+    {
+        Map<IMethod, Set<IMethod>> result = new LinkedHashMap<IMethod, Set<IMethod>>();
+        Map<String, List<IMethod>> methodsByName = new HashMap<String, List<IMethod>>();
+        SearchPattern pattern = null;
+        for (IMethod method : methods)
+        {
+            result.put(method, new LinkedHashSet<IMethod>());
+            // constructors are referenced by their type name, which is also
+            // their element name
+            methodsByName.computeIfAbsent(method.getElementName(), n -> new ArrayList<IMethod>(1)).add(method);
+
+            SearchPattern methodPattern = SearchPattern.createPattern(method, IJavaSearchConstants.REFERENCES, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+            if(methodPattern != null)
+            {
+                pattern = pattern == null ? methodPattern : SearchPattern.createOrPattern(pattern, methodPattern);
+            }
+        }
+
+        if(pattern == null)
+        {
+            return result;
+        }
+
+        try
+        {
+            SearchParticipant[] participants = new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() };
+            new SearchEngine().search(pattern, participants, searchScope, new CallerCollector(result, methodsByName), monitor);
+        }
+        catch (CoreException e)
+        {
+            LogHandler.getInstance().handleExceptionLog(e);
+        }
+        return result;
+    }
+
+    private static final class CallerCollector extends SearchRequestor
+    {
+        private final Map<IMethod, Set<IMethod>> callersByMethod;
+        private final Map<String, List<IMethod>> methodsByName;
+        private final Map<ICompilationUnit, Boolean> testCaseByCompilationUnit = new HashMap<ICompilationUnit, Boolean>();
+
+        CallerCollector(Map<IMethod, Set<IMethod>> callersByMethod, Map<String, List<IMethod>> methodsByName)
+        {
+            this.callersByMethod = callersByMethod;
+            this.methodsByName = methodsByName;
+        }
+
+        @Override
+        public void acceptSearchMatch(SearchMatch match) throws CoreException
+        {
+            if(match.getAccuracy() != SearchMatch.A_ACCURATE || match.isInsideDocComment() || ! (match.getElement() instanceof IMethod))
+            {
+                return;
+            }
+
+            IMethod caller = (IMethod) match.getElement();
+            ICompilationUnit compilationUnit = caller.getCompilationUnit();
+            if(compilationUnit == null || ! isTestCase(compilationUnit))
+            {
+                return;
+            }
+
+            caller = new MethodFacade(caller).getFirstNonAnonymousMethodCallingThisMethod();
+            for (IMethod calledMethod : getCalledMethods(match, compilationUnit))
+            {
+                callersByMethod.get(calledMethod).add(caller);
+            }
+        }
+
+        private boolean isTestCase(ICompilationUnit compilationUnit)
+        {
+            Boolean testCase = testCaseByCompilationUnit.get(compilationUnit);
+            if(testCase == null)
+            {
+                testCase = TypeFacade.isTestCase(compilationUnit.findPrimaryType());
+                testCaseByCompilationUnit.put(compilationUnit, testCase);
+            }
+            return testCase;
+        }
+
+        /**
+         * Finds which of the searched methods the given match refers to. The
+         * name appearing in the matched source is usually enough, otherwise
+         * (overloaded methods for instance) the reference is resolved.
+         */
+        private Collection<IMethod> getCalledMethods(SearchMatch match, ICompilationUnit compilationUnit) throws JavaModelException
+        {
+            if(callersByMethod.size() == 1)
+            {
+                return callersByMethod.keySet();
+            }
+
+            List<IMethod> candidates = new ArrayList<IMethod>();
+            String matchedSource = getSource(compilationUnit, match);
+            for (Map.Entry<String, List<IMethod>> entry : methodsByName.entrySet())
+            {
+                if(matchedSource == null || containsIdentifier(matchedSource, entry.getKey()))
+                {
+                    candidates.addAll(entry.getValue());
+                }
+            }
+
+            if(candidates.size() > 1)
+            {
+                for (IJavaElement selected : compilationUnit.codeSelect(match.getOffset(), 0))
+                {
+                    if(candidates.contains(selected))
+                    {
+                        return List.of((IMethod) selected);
+                    }
+                }
+            }
+            return candidates;
+        }
+
+        private static String getSource(ICompilationUnit compilationUnit, SearchMatch match) throws JavaModelException
+        {
+            IBuffer buffer = compilationUnit.getBuffer();
+            if(buffer == null || match.getOffset() + match.getLength() > buffer.getLength())
+            {
+                return null;
+            }
+            return buffer.getText(match.getOffset(), match.getLength());
+        }
+
+        private static boolean containsIdentifier(String source, String identifier)
+        {
+            for (int i = source.indexOf(identifier); i != - 1; i = source.indexOf(identifier, i + 1))
+            {
+                int end = i + identifier.length();
+                boolean startsWord = i == 0 || ! Character.isJavaIdentifierPart(source.charAt(i - 1));
+                boolean endsWord = end == source.length() || ! Character.isJavaIdentifierPart(source.charAt(end));
+                if(startsWord && endsWord)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
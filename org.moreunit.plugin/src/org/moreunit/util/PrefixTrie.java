@@ -0,0 +1,52 @@
+package org.moreunit.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trie associating values to string keys, able to find all the values which
+ * key is a prefix of a given string in a single pass over this string.
+ */
+public class PrefixTrie<V>
+{
+    private final Node<V> root = new Node<V>();
+
+    public void put(String key, V value)
+    {
+        Node<V> node = root;
+        for (int i = 0; i < key.length(); i++)
+        {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node<V>());
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Returns the values which key is a prefix of the given string (including
+     * the string itself), shortest keys first.
+     */
+    public List<V> getValuesForPrefixesOf(String str)
+    {
+        List<V> result = new ArrayList<V>();
+        Node<V> node = root;
+        result.addAll(node.values);
+        for (int i = 0; i < str.length(); i++)
+        {
+            node = node.children.get(str.charAt(i));
+            if(node == null)
+            {
+                break;
+            }
+            result.addAll(node.values);
+        }
+        return result;
+    }
+
+    private static final class Node<V>
+    {
+        final Map<Character, Node<V>> children = new HashMap<Character, Node<V>>(4);
+        final List<V> values = new ArrayList<V>(1);
+    }
+}
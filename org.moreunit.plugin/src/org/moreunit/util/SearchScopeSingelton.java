@@ -1,38 +1,96 @@
 package org.moreunit.util;
 
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.search.IJavaSearchScope;
 import org.eclipse.jdt.core.search.SearchEngine;
 import org.moreunit.SourceFolderContext;
+import org.moreunit.core.util.LRUCache;
+import org.moreunit.matching.TestCorrespondenceIndex;
 
 /**
+ * Caches the search scope of each source folder. The cache is bounded and may
+ * be accessed concurrently. Scopes involving a project are dropped when its
+ * source folders or its classpath change.
+ *
  * @author vera 14.03.2008 20:52:17
  */
-public class SearchScopeSingelton
+public class SearchScopeSingelton implements IElementChangedListener
 {
+    static final int MAX_CACHED_SCOPES = 500;
 
     private static final SearchScopeSingelton instance = new SearchScopeSingelton();
 
-    private Map<IPackageFragmentRoot, IJavaSearchScope> searchScopeMap = new HashMap<IPackageFragmentRoot, IJavaSearchScope>();
+    // guarded by itself, since reading from a LRUCache modifies it
+    private final Map<IPackageFragmentRoot, IJavaSearchScope> searchScopeMap = new LRUCache<IPackageFragmentRoot, IJavaSearchScope>(MAX_CACHED_SCOPES);
+    // incremented on reset, so that scopes computed in the meantime are not
+    // cached
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
 
     public static SearchScopeSingelton getInstance()
     {
         return instance;
     }
 
+    /**
+     * Starts to listen to Java element changes.
+     */
+    public void start()
+    {
+        JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+    }
+
+    public void stop()
+    {
+        JavaCore.removeElementChangedListener(this);
+    }
+
+    public void elementChanged(ElementChangedEvent event)
+    {
+        for (IJavaElement container : JavaElementUtils.getStructurallyChangedContainers(event.getDelta()))
+        {
+            // the correspondence index drops the types found in those scopes
+            // by itself on such changes
+            dropSearchScopes(container.getJavaProject());
+        }
+    }
+
     public IJavaSearchScope getSearchScope(IPackageFragmentRoot sourceFolder)
     {
-        if(searchScopeMap.containsKey(sourceFolder))
-            return searchScopeMap.get(sourceFolder);
-        else
+        synchronized (searchScopeMap)
         {
-            IJavaSearchScope scope = getSearchScopeFromContext(sourceFolder);
-            searchScopeMap.put(sourceFolder, scope);
-            return scope;
+            IJavaSearchScope scope = searchScopeMap.get(sourceFolder);
+            if(scope != null)
+            {
+                hitCount.incrementAndGet();
+                return scope;
+            }
+        }
+
+        missCount.incrementAndGet();
+        long generationBeforeComputation = generation.get();
+        IJavaSearchScope scope = getSearchScopeFromContext(sourceFolder);
+
+        synchronized (searchScopeMap)
+        {
+            if(generation.get() != generationBeforeComputation)
+            {
+                return scope;
+            }
+            IJavaSearchScope existingScope = searchScopeMap.putIfAbsent(sourceFolder, scope);
+            return existingScope != null ? existingScope : scope;
         }
     }
 
@@ -43,10 +101,81 @@ public class SearchScopeSingelton
     }
 
     /**
-     * This method gets called if the user changed global settings.
+     * This method gets called if the user changed global settings. Since
+     * corresponding types were searched for in the previous scopes, they are
+     * dropped as well.
      */
     public void resetCachedSearchScopes()
     {
-        searchScopeMap = new HashMap<IPackageFragmentRoot, IJavaSearchScope>();
+        synchronized (searchScopeMap)
+        {
+            generation.incrementAndGet();
+            searchScopeMap.clear();
+        }
+        TestCorrespondenceIndex.getInstance().clear();
+    }
+
+    /**
+     * Drops the scopes involving the given project, to be called when its
+     * classpath or its MoreUnit settings change. Corresponding types searched
+     * for in those scopes are dropped as well.
+     */
+    public void resetCachedSearchScopes(IJavaProject project)
+    {
+        dropSearchScopes(project);
+        TestCorrespondenceIndex.getInstance().invalidateProject(project.getElementName());
+    }
+
+    private void dropSearchScopes(IJavaProject project)
+    {
+        synchronized (searchScopeMap)
+        {
+            generation.incrementAndGet();
+            for (Iterator<Map.Entry<IPackageFragmentRoot, IJavaSearchScope>> it = searchScopeMap.entrySet().iterator(); it.hasNext();)
+            {
+                Map.Entry<IPackageFragmentRoot, IJavaSearchScope> entry = it.next();
+                if(entry.getKey().getJavaProject().equals(project) || encloses(entry.getValue(), project))
+                {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static boolean encloses(IJavaSearchScope scope, IJavaProject project)
+    {
+        IPath projectPath = project.getPath();
+        for (IPath path : scope.enclosingProjectsAndJars())
+        {
+            if(projectPath.equals(path))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of scopes served from the cache so far.
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of scopes that had to be computed so far.
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    public int size()
+    {
+        synchronized (searchScopeMap)
+        {
+            return searchScopeMap.size();
+        }
     }
 }
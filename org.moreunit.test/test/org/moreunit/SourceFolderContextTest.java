@@ -0,0 +1,73 @@
+package org.moreunit;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.elements.SourceFolderMapping;
+import org.moreunit.preferences.Preferences;
+import org.moreunit.test.context.Context;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.configs.SimpleJUnit3Project;
+import org.moreunit.test.workspace.WorkspaceHelper;
+
+@Context(SimpleJUnit3Project.class)
+public class SourceFolderContextTest extends ContextTestCase
+{
+    private IJavaProject project;
+    private IPackageFragmentRoot unit1SourceFolder;
+    private IPackageFragmentRoot unit2SourceFolder;
+    private IPackageFragmentRoot unit3SourceFolder;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        project = context.getProjectHandler().get();
+        unit1SourceFolder = WorkspaceHelper.createSourceFolderInProject(project, "unit1");
+        unit2SourceFolder = WorkspaceHelper.createSourceFolderInProject(project, "unit2");
+        unit3SourceFolder = WorkspaceHelper.createSourceFolderInProject(project, "unit3");
+
+        Preferences.getInstance().setHasProjectSpecificSettings(project, true);
+        Preferences.getInstance().setMappingList(project, asList(new SourceFolderMapping(project, unit1SourceFolder, unit2SourceFolder)));
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        unit1SourceFolder.delete(IResource.FORCE, IPackageFragmentRoot.ORIGINATING_PROJECT_CLASSPATH, null);
+        unit2SourceFolder.delete(IResource.FORCE, IPackageFragmentRoot.ORIGINATING_PROJECT_CLASSPATH, null);
+        unit3SourceFolder.delete(IResource.FORCE, IPackageFragmentRoot.ORIGINATING_PROJECT_CLASSPATH, null);
+    }
+
+    @Test
+    public void should_return_folders_mapped_to_given_folder() throws Exception
+    {
+        assertThat(SourceFolderContext.getInstance().getSourceFolderToSearch(unit1SourceFolder)).containsExactly(unit2SourceFolder);
+        assertThat(SourceFolderContext.getInstance().getSourceFolderToSearch(unit2SourceFolder)).containsExactly(unit1SourceFolder);
+    }
+
+    @Test
+    public void should_follow_mapping_changes_without_being_reinitialized() throws Exception
+    {
+        // given
+        assertThat(SourceFolderContext.getInstance().getSourceFolderToSearch(unit1SourceFolder)).containsExactly(unit2SourceFolder);
+
+        // when
+        Preferences.getInstance().setMappingList(project, asList(new SourceFolderMapping(project, unit1SourceFolder, unit3SourceFolder)));
+
+        // then
+        assertThat(SourceFolderContext.getInstance().getSourceFolderToSearch(unit1SourceFolder)).containsExactly(unit3SourceFolder);
+        assertThat(SourceFolderContext.getInstance().getSourceFolderToSearch(unit3SourceFolder)).containsExactly(unit1SourceFolder);
+    }
+
+    @Test
+    public void should_fall_back_to_all_source_folders_of_project_when_folder_is_not_mapped() throws Exception
+    {
+        assertThat(SourceFolderContext.getInstance().getSourceFolderToSearch(unit3SourceFolder)).contains(unit1SourceFolder, unit2SourceFolder, unit3SourceFolder);
+    }
+}
@@ -0,0 +1,137 @@
+package org.moreunit.annotation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IWorkbenchPartReference;
+import org.eclipse.ui.texteditor.ITextEditor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnnotationUpdateListenerTest
+{
+    private static final IPath FOO_PATH = IPath.fromPortableString("/proj/src/org/Foo.java");
+    private static final IPath BAR_PATH = IPath.fromPortableString("/proj/src/org/Bar.java");
+
+    private final List<ITextEditor> updatedEditors = new ArrayList<ITextEditor>();
+    private final AnnotationUpdateListener listener = new AnnotationUpdateListener(new AnnotationUpdateScheduler(0), updatedEditors::add);
+
+    private ITextEditor fooEditor;
+
+    @Before
+    public void openEditors() throws Exception
+    {
+        fooEditor = openJavaEditor(FOO_PATH);
+        openJavaEditor(BAR_PATH);
+    }
+
+    @Test
+    public void should_update_annotations_of_editor_which_file_content_changed() throws Exception
+    {
+        IResourceDelta fooDelta = fileDelta(IResourceDelta.CHANGED, IResourceDelta.CONTENT);
+        IResourceDelta delta = rootDelta();
+        when(delta.findMember(FOO_PATH)).thenReturn(fooDelta);
+
+        listener.resourceChanged(postChange(delta));
+
+        assertThat(updatedEditors).containsExactly(fooEditor);
+    }
+
+    @Test
+    public void should_not_update_annotations_when_only_markers_change() throws Exception
+    {
+        IResourceDelta fooDelta = fileDelta(IResourceDelta.CHANGED, IResourceDelta.MARKERS);
+        IResourceDelta barDelta = fileDelta(IResourceDelta.CHANGED, IResourceDelta.MARKERS);
+        IResourceDelta delta = rootDelta();
+        when(delta.findMember(FOO_PATH)).thenReturn(fooDelta);
+        when(delta.findMember(BAR_PATH)).thenReturn(barDelta);
+
+        listener.resourceChanged(postChange(delta));
+
+        assertThat(updatedEditors).isEmpty();
+    }
+
+    @Test
+    public void should_not_update_annotations_when_only_build_output_changes() throws Exception
+    {
+        // class files are written under the output folder: the delta holds
+        // none of the files of the editors
+        IResourceDelta delta = rootDelta();
+
+        listener.resourceChanged(postChange(delta));
+
+        assertThat(updatedEditors).isEmpty();
+    }
+
+    @Test
+    public void should_follow_moved_file() throws Exception
+    {
+        IPath newPath = IPath.fromPortableString("/proj/src/org/Baz.java");
+        IResourceDelta delta = rootDelta();
+        IResourceDelta fooDelta = fileDelta(IResourceDelta.REMOVED, IResourceDelta.MOVED_TO);
+        when(fooDelta.getMovedToPath()).thenReturn(newPath);
+        when(delta.findMember(FOO_PATH)).thenReturn(fooDelta);
+
+        listener.resourceChanged(postChange(delta));
+
+        assertThat(updatedEditors).containsExactly(fooEditor);
+
+        updatedEditors.clear();
+        IResourceDelta movedFooDelta = fileDelta(IResourceDelta.CHANGED, IResourceDelta.CONTENT);
+        IResourceDelta nextDelta = rootDelta();
+        when(nextDelta.findMember(newPath)).thenReturn(movedFooDelta);
+
+        listener.resourceChanged(postChange(nextDelta));
+
+        assertThat(updatedEditors).containsExactly(fooEditor);
+    }
+
+    private ITextEditor openJavaEditor(IPath path)
+    {
+        IFile file = mock(IFile.class);
+        when(file.getFullPath()).thenReturn(path);
+        when(file.getFileExtension()).thenReturn(path.getFileExtension());
+
+        IEditorInput input = mock(IEditorInput.class);
+        when(input.getAdapter(IFile.class)).thenReturn(file);
+
+        ITextEditor editor = mock(ITextEditor.class);
+        when(editor.getEditorInput()).thenReturn(input);
+
+        IWorkbenchPartReference partRef = mock(IWorkbenchPartReference.class);
+        when(partRef.getPart(false)).thenReturn(editor);
+        listener.partOpened(partRef);
+        return editor;
+    }
+
+    private static IResourceDelta rootDelta()
+    {
+        // finds no member unless told otherwise
+        return mock(IResourceDelta.class);
+    }
+
+    private static IResourceDelta fileDelta(int kind, int flags)
+    {
+        IResourceDelta delta = mock(IResourceDelta.class);
+        when(delta.getKind()).thenReturn(kind);
+        when(delta.getFlags()).thenReturn(flags);
+        return delta;
+    }
+
+    private static IResourceChangeEvent postChange(IResourceDelta delta)
+    {
+        IResourceChangeEvent event = mock(IResourceChangeEvent.class);
+        when(event.getType()).thenReturn(IResourceChangeEvent.POST_CHANGE);
+        when(event.getDelta()).thenReturn(delta);
+        return event;
+    }
+}
@@ -0,0 +1,59 @@
+package org.moreunit.annotation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.texteditor.ITextEditor;
+import org.junit.Test;
+
+public class AnnotationUpdateSchedulerTest
+{
+    private final AnnotationUpdateScheduler scheduler = new AnnotationUpdateScheduler(100);
+
+    @Test
+    public void should_wait_for_quiet_period_after_last_request() throws Exception
+    {
+        assertThat(scheduler.getRemainingDelay(1000, 1000, 1000)).isEqualTo(100);
+        assertThat(scheduler.getRemainingDelay(1000, 1050, 1100)).isEqualTo(50);
+        assertThat(scheduler.getRemainingDelay(1000, 1050, 1150)).isZero();
+    }
+
+    @Test
+    public void should_not_postpone_update_indefinitely() throws Exception
+    {
+        long maxDelay = AnnotationUpdateScheduler.MAX_DELAY_FACTOR * 100;
+
+        assertThat(scheduler.getRemainingDelay(1000, 1000 + maxDelay - 10, 1000 + maxDelay - 10)).isEqualTo(10);
+        assertThat(scheduler.getRemainingDelay(1000, 1000 + maxDelay, 1000 + maxDelay)).isZero();
+    }
+
+    @Test
+    public void should_give_priority_to_active_editor() throws Exception
+    {
+        ITextEditor activeEditor = mock(ITextEditor.class);
+        ITextEditor otherEditor = mock(ITextEditor.class);
+
+        scheduler.editorActivated(activeEditor);
+
+        assertThat(scheduler.getUpdatePriority(activeEditor)).isEqualTo(Job.SHORT);
+        assertThat(scheduler.getUpdatePriority(otherEditor)).isEqualTo(Job.DECORATE);
+
+        scheduler.editorClosed(activeEditor);
+
+        assertThat(scheduler.getUpdatePriority(activeEditor)).isEqualTo(Job.DECORATE);
+    }
+
+    @Test
+    public void should_know_hidden_editors() throws Exception
+    {
+        ITextEditor editor = mock(ITextEditor.class);
+        assertThat(scheduler.isHidden(editor)).isFalse();
+
+        scheduler.editorHidden(editor);
+        assertThat(scheduler.isHidden(editor)).isTrue();
+
+        scheduler.editorShown(editor);
+        assertThat(scheduler.isHidden(editor)).isFalse();
+    }
+}
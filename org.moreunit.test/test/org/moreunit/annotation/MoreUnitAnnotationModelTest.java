@@ -0,0 +1,239 @@
+package org.moreunit.annotation;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.SourceRange;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.source.AnnotationModelEvent;
+import org.eclipse.ui.texteditor.ITextEditor;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.moreunit.elements.ClassTypeFacade;
+import org.moreunit.preferences.Preferences.MethodSearchMode;
+import org.moreunit.preferences.TestAnnotationMode;
+
+public class MoreUnitAnnotationModelTest
+{
+    private static final String CU_HANDLE = "=proj/src<pack{Foo.java";
+
+    private final ClassTypeFacade classTypeFacade = mock(ClassTypeFacade.class);
+    private final IType type = mock(IType.class);
+    private final IMethod testMethod = mock(IMethod.class);
+    private final Map<IMethod, Set<IMethod>> testMethodsByMethod = new HashMap<>();
+
+    private MoreUnitAnnotationModel model;
+
+    @Before
+    public void createModel() throws Exception
+    {
+        model = new MoreUnitAnnotationModel(mock(IDocument.class), mock(ITextEditor.class), new AnnotationUpdateScheduler(0));
+
+        when(classTypeFacade.getType()).thenReturn(type);
+        when(testMethod.getAnnotations()).thenReturn(new IAnnotation[0]);
+        when(classTypeFacade.getCorrespondingTestMethods(anyCollection(), any(MethodSearchMode.class), any(IProgressMonitor.class))).thenAnswer(invocation -> {
+            Map<IMethod, Set<IMethod>> result = new HashMap<>();
+            for (Object method : (Collection< ? >) invocation.getArgument(0))
+            {
+                Set<IMethod> testMethods = testMethodsByMethod.get(method);
+                result.put((IMethod) method, testMethods == null ? emptySet() : testMethods);
+            }
+            return result;
+        });
+    }
+
+    @Test
+    public void should_only_search_tests_of_methods_not_evaluated_yet() throws Exception
+    {
+        IMethod foo = method("foo", 10);
+        IMethod bar = method("bar", 30);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo, bar });
+
+        update();
+
+        IMethod baz = method("baz", 50);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo, bar, baz });
+
+        update();
+
+        List<Collection<IMethod>> searches = searchedMethods();
+        assertThat(searches).hasSize(2);
+        assertThat(searches.get(0)).containsOnly(foo, bar);
+        assertThat(searches.get(1)).containsOnly(baz);
+    }
+
+    @Test
+    public void should_search_tests_of_method_again_when_its_signature_changes() throws Exception
+    {
+        IMethod foo = method("foo", 10);
+        IMethod bar = method("bar", 30);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo, bar });
+
+        update();
+
+        IMethod newBar = method("bar", "QString;", 30);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo, newBar });
+
+        update();
+
+        List<Collection<IMethod>> searches = searchedMethods();
+        assertThat(searches).hasSize(2);
+        assertThat(searches.get(1)).containsOnly(newBar);
+    }
+
+    @Test
+    public void should_search_tests_of_all_methods_again_when_annotation_mode_changes() throws Exception
+    {
+        IMethod foo = method("foo", 10);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo });
+
+        update(TestAnnotationMode.BY_NAME);
+        update(TestAnnotationMode.BY_CALL_AND_BY_NAME);
+
+        List<Collection<IMethod>> searches = searchedMethods();
+        assertThat(searches).hasSize(2);
+        assertThat(searches.get(1)).containsOnly(foo);
+    }
+
+    @Test
+    public void should_not_report_anything_when_annotations_did_not_change() throws Exception
+    {
+        IMethod foo = method("foo", 10);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo });
+        testMethodsByMethod.put(foo, singleton(testMethod));
+
+        AnnotationModelEvent firstEvent = update();
+
+        assertThat(firstEvent.getAddedAnnotations()).hasSize(1);
+
+        AnnotationModelEvent secondEvent = update();
+
+        assertThat(secondEvent.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void should_only_report_annotations_actually_added_or_removed() throws Exception
+    {
+        IMethod foo = method("foo", 10);
+        IMethod bar = method("bar", 30);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo, bar });
+        testMethodsByMethod.put(foo, singleton(testMethod));
+
+        update();
+        MoreUnitAnnotation fooAnnotation = (MoreUnitAnnotation) model.getAnnotationIterator().next();
+
+        // bar is removed, while baz is added and tested
+        IMethod baz = method("baz", 50);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo, baz });
+        testMethodsByMethod.put(baz, singleton(testMethod));
+
+        AnnotationModelEvent event = update();
+
+        assertThat(event.getRemovedAnnotations()).isEmpty();
+        assertThat(event.getChangedAnnotations()).isEmpty();
+        assertThat(event.getAddedAnnotations()).hasSize(1).doesNotContain(fooAnnotation);
+        assertThat(((MoreUnitAnnotation) event.getAddedAnnotations()[0]).getPosition().getOffset()).isEqualTo(50);
+
+        // foo is removed
+        when(type.getMethods()).thenReturn(new IMethod[] { baz });
+
+        event = update();
+
+        assertThat(event.getAddedAnnotations()).isEmpty();
+        assertThat(event.getChangedAnnotations()).isEmpty();
+        assertThat(event.getRemovedAnnotations()).containsOnly(fooAnnotation);
+    }
+
+    @Test
+    public void should_report_moved_annotations_as_changed() throws Exception
+    {
+        IMethod foo = method("foo", 10);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo });
+        testMethodsByMethod.put(foo, singleton(testMethod));
+
+        update();
+        MoreUnitAnnotation fooAnnotation = (MoreUnitAnnotation) model.getAnnotationIterator().next();
+
+        // same method, moved down by a few lines
+        when(foo.getNameRange()).thenReturn(new SourceRange(25, 3));
+
+        AnnotationModelEvent event = update();
+
+        assertThat(event.getAddedAnnotations()).isEmpty();
+        assertThat(event.getRemovedAnnotations()).isEmpty();
+        assertThat(event.getChangedAnnotations()).containsOnly(fooAnnotation);
+        assertThat(fooAnnotation.getPosition().getOffset()).isEqualTo(25);
+    }
+
+    @Test
+    public void should_search_tests_of_methods_again_when_search_was_canceled() throws Exception
+    {
+        IMethod foo = method("foo", 10);
+        when(type.getMethods()).thenReturn(new IMethod[] { foo });
+        when(classTypeFacade.getCorrespondingTestMethods(anyCollection(), any(MethodSearchMode.class), any(IProgressMonitor.class)))
+                .thenThrow(new OperationCanceledException())
+                .thenReturn(singletonMap(foo, emptySet()));
+
+        Map<String, MoreUnitAnnotationModel.ExpectedAnnotation> annotations = model.computeExpectedAnnotations(classTypeFacade, CU_HANDLE, TestAnnotationMode.BY_NAME, new NullProgressMonitor());
+
+        assertThat(annotations).isEmpty();
+
+        update();
+
+        List<Collection<IMethod>> searches = searchedMethods();
+        assertThat(searches).hasSize(2);
+        assertThat(searches.get(1)).containsOnly(foo);
+    }
+
+    private AnnotationModelEvent update() throws Exception
+    {
+        return update(TestAnnotationMode.BY_NAME);
+    }
+
+    private AnnotationModelEvent update(TestAnnotationMode mode) throws Exception
+    {
+        return model.applyAnnotations(model.computeExpectedAnnotations(classTypeFacade, CU_HANDLE, mode, new NullProgressMonitor()), emptySet());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private List<Collection<IMethod>> searchedMethods() throws Exception
+    {
+        ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(classTypeFacade, atLeastOnce()).getCorrespondingTestMethods(captor.capture(), any(MethodSearchMode.class), any(IProgressMonitor.class));
+        return (List) captor.getAllValues();
+    }
+
+    private static IMethod method(String name, int offset) throws Exception
+    {
+        return method(name, "", offset);
+    }
+
+    private static IMethod method(String name, String parameterSignature, int offset) throws Exception
+    {
+        IMethod method = mock(IMethod.class);
+        when(method.getHandleIdentifier()).thenReturn(CU_HANDLE + "[Foo~" + name + (parameterSignature.isEmpty() ? "" : "~" + parameterSignature));
+        when(method.getNameRange()).thenReturn(new SourceRange(offset, name.length()));
+        return method;
+    }
+}
@@ -0,0 +1,147 @@
+package org.moreunit.codemining;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Test;
+
+public class CodeMiningExecutorTest
+{
+    private final CodeMiningExecutor executor = new CodeMiningExecutor(1);
+
+    @After
+    public void disposeExecutor()
+    {
+        executor.dispose();
+    }
+
+    @Test
+    public void should_cancel_superseded_computation() throws Exception
+    {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocking = executor.submit("other viewer", new NullProgressMonitor(), m -> {
+            started.countDown();
+            return await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicBoolean supersededComputationRan = new AtomicBoolean();
+        CompletableFuture<String> superseded = executor.submit("viewer", new NullProgressMonitor(), m -> {
+            supersededComputationRan.set(true);
+            return "superseded";
+        });
+        assertThat(executor.getQueueDepth()).isEqualTo(1);
+
+        // when
+        CompletableFuture<String> latest = executor.submit("viewer", new NullProgressMonitor(), m -> "latest");
+        release.countDown();
+
+        // then
+        assertThat(latest.get(5, TimeUnit.SECONDS)).isEqualTo("latest");
+        assertThat(blocking.get(5, TimeUnit.SECONDS)).isEqualTo("released");
+        assertThat(superseded.isCancelled()).isTrue();
+        assertThat(supersededComputationRan.get()).isFalse();
+        assertThat(executor.getCompletedCount()).isEqualTo(2);
+        assertThat(executor.getCanceledCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_cancel_computation_when_its_monitor_is_canceled() throws Exception
+    {
+        // given
+        NullProgressMonitor monitor = new NullProgressMonitor();
+
+        // when
+        CompletableFuture<String> future = executor.submit("viewer", monitor, m -> {
+            monitor.setCanceled(true);
+            return m.isCanceled() ? "canceled" : "not canceled";
+        });
+
+        // then
+        assertThat(future.handle((result, error) -> error).get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(future.isCancelled()).isTrue();
+        assertThat(executor.getCompletedCount()).isZero();
+    }
+
+    @Test
+    public void should_run_background_computations_last_and_cancel_them_on_next_submission() throws Exception
+    {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("other viewer", new NullProgressMonitor(), m -> {
+            started.countDown();
+            return await(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<String> executionOrder = new CopyOnWriteArrayList<String>();
+        CompletableFuture<String> background = executor.submitInBackground("viewer", new NullProgressMonitor(), m -> {
+            executionOrder.add("background");
+            return "background";
+        });
+        CompletableFuture<String> otherBackground = executor.submitInBackground("third viewer", new NullProgressMonitor(), m -> {
+            executionOrder.add("other background");
+            return "other background";
+        });
+        CompletableFuture<String> regular = executor.submit("fourth viewer", new NullProgressMonitor(), m -> {
+            executionOrder.add("regular");
+            return "regular";
+        });
+
+        // when
+        executor.submit("viewer", new NullProgressMonitor(), m -> "next");
+        release.countDown();
+
+        // then
+        assertThat(otherBackground.get(5, TimeUnit.SECONDS)).isEqualTo("other background");
+        assertThat(regular.get(5, TimeUnit.SECONDS)).isEqualTo("regular");
+        assertThat(background.isCancelled()).isTrue();
+        assertThat(executionOrder).containsExactly("regular", "other background");
+    }
+
+    @Test
+    public void should_create_new_shared_instance_once_disposed() throws Exception
+    {
+        // given
+        CodeMiningExecutor disposedInstance = CodeMiningExecutor.getInstance();
+
+        // when
+        CodeMiningExecutor.disposeInstance();
+
+        // then
+        CodeMiningExecutor newInstance = CodeMiningExecutor.getInstance();
+        try
+        {
+            assertThat(newInstance).isNotSameAs(disposedInstance);
+            assertThat(newInstance.submit("viewer", new NullProgressMonitor(), m -> "computed").get(5, TimeUnit.SECONDS)).isEqualTo("computed");
+        }
+        finally
+        {
+            CodeMiningExecutor.disposeInstance();
+        }
+    }
+
+    private static String await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return "released";
+    }
+}
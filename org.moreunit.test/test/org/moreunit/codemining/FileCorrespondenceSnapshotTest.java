@@ -0,0 +1,59 @@
+package org.moreunit.codemining;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IMethod;
+import org.junit.Test;
+import org.moreunit.test.context.Context;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.configs.SimpleJUnit3Project;
+import org.moreunit.test.workspace.TypeHandler;
+
+@Context(SimpleJUnit3Project.class)
+public class FileCorrespondenceSnapshotTest extends ContextTestCase
+{
+    @Test
+    public void should_resolve_test_methods_of_all_methods_of_class_under_test() throws Exception
+    {
+        IMethod testedByName = cutHandler().addMethod("public int getNumberOne()", "return 1;").get();
+        IMethod testedByCall = cutHandler().addMethod("public int getNumberTwo()", "return 2;").get();
+        IMethod untested = cutHandler().addMethod("public int getNumberThree()", "return 3;").get();
+        IMethod testOfFirstMethod = testCaseHandler().addMethod("public void testGetNumberOne()").get();
+        IMethod testOfSecondMethod = testCaseHandler().addMethod("public void testSomethingElse()", "new SomeClass().getNumberTwo();").get();
+
+        FileCorrespondenceSnapshot snapshot = FileCorrespondenceSnapshot.create(cutHandler().getCompilationUnit(), asList(testedByName, testedByCall, untested), new NullProgressMonitor());
+
+        assertThat(snapshot.isTestCase()).isFalse();
+        assertThat(snapshot.getCorrespondingClasses()).containsExactly(testCaseHandler().get());
+        assertThat(snapshot.getCorrespondingMethods(testedByName)).containsExactly(testOfFirstMethod);
+        assertThat(snapshot.getCorrespondingMethods(testedByCall)).containsExactly(testOfSecondMethod);
+        assertThat(snapshot.hasCorrespondingMethods(untested)).isFalse();
+    }
+
+    @Test
+    public void should_resolve_tested_methods_of_all_methods_of_test_case() throws Exception
+    {
+        IMethod testedMethod = cutHandler().addMethod("public int getNumberOne()", "return 1;").get();
+        IMethod testMethod = testCaseHandler().addMethod("public void testGetNumberOne()").get();
+        IMethod otherTestMethod = testCaseHandler().addMethod("public void testSomethingElse()").get();
+
+        FileCorrespondenceSnapshot snapshot = FileCorrespondenceSnapshot.create(testCaseHandler().getCompilationUnit(), asList(testMethod, otherTestMethod), new NullProgressMonitor());
+
+        assertThat(snapshot.isTestCase()).isTrue();
+        assertThat(snapshot.getCorrespondingClasses()).containsExactly(cutHandler().get());
+        assertThat(snapshot.getCorrespondingMethods(testMethod)).containsExactly(testedMethod);
+        assertThat(snapshot.hasCorrespondingMethods(otherTestMethod)).isFalse();
+    }
+
+    private TypeHandler cutHandler()
+    {
+        return context.getPrimaryTypeHandler("org.SomeClass");
+    }
+
+    private TypeHandler testCaseHandler()
+    {
+        return context.getPrimaryTypeHandler("org.SomeClassTest");
+    }
+}
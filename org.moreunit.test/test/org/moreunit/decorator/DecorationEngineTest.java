@@ -0,0 +1,125 @@
+package org.moreunit.decorator;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.junit.After;
+import org.junit.Test;
+
+public class DecorationEngineTest
+{
+    // long enough for the dispatch job never to run: tests dispatch pending
+    // decorations themselves
+    private static final long NO_AUTOMATIC_DISPATCH = TimeUnit.HOURS.toMillis(1);
+
+    private final List<IResource[]> labelUpdates = new ArrayList<IResource[]>();
+    private final AtomicInteger resolutionCount = new AtomicInteger();
+    private final List<ICompilationUnit> testedUnits = new ArrayList<ICompilationUnit>();
+
+    private final DecorationEngine engine = new DecorationEngine(cu -> {
+        resolutionCount.incrementAndGet();
+        return testedUnits.contains(cu);
+    }, resources -> labelUpdates.add(resources), NO_AUTOMATIC_DISPATCH);
+
+    @After
+    public void disposeEngine()
+    {
+        engine.dispose();
+    }
+
+    @Test
+    public void should_report_resolved_decorations_in_a_single_update() throws Exception
+    {
+        // given
+        ICompilationUnit cu1 = compilationUnit("cu1");
+        ICompilationUnit cu2 = compilationUnit("cu2");
+        ICompilationUnit cu3 = compilationUnit("cu3");
+        testedUnits.addAll(asList(cu1, cu3));
+
+        IResource res1 = mock(IResource.class);
+        IResource res3 = mock(IResource.class);
+
+        // when
+        engine.schedule(cu1, res1);
+        engine.schedule(cu2, mock(IResource.class));
+        engine.schedule(cu3, res3);
+        engine.dispatchPendingDecorations();
+
+        // then
+        assertThat(labelUpdates).hasSize(1);
+        assertThat(labelUpdates.get(0)).containsOnly(res1, res3);
+
+        assertThat(engine.getVerdict(cu1)).isTrue();
+        assertThat(engine.getVerdict(cu2)).isFalse();
+        assertThat(engine.getVerdict(cu3)).isTrue();
+    }
+
+    @Test
+    public void should_resolve_compilation_unit_only_once_when_scheduled_several_times() throws Exception
+    {
+        // given
+        ICompilationUnit cu = compilationUnit("cu");
+        testedUnits.add(cu);
+        IResource resource = mock(IResource.class);
+
+        // when
+        engine.schedule(cu, resource);
+        engine.schedule(cu, resource);
+        engine.schedule(cu, resource);
+        engine.dispatchPendingDecorations();
+
+        // then
+        assertThat(labelUpdates).hasSize(1);
+        assertThat(resolutionCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_not_resolve_anything_once_disposed() throws Exception
+    {
+        // given
+        engine.dispose();
+
+        // when
+        engine.schedule(compilationUnit("cu"), mock(IResource.class));
+        engine.dispatchPendingDecorations();
+
+        // then
+        assertThat(labelUpdates).isEmpty();
+        assertThat(resolutionCount.get()).isZero();
+    }
+
+    @Test
+    public void should_forget_verdicts_of_removed_project() throws Exception
+    {
+        // given
+        ICompilationUnit cuOfProject = compilationUnit("=project/src<org{Foo.java");
+        ICompilationUnit cuOfOtherProject = compilationUnit("=project2/src<org{Foo.java");
+        engine.schedule(cuOfProject, mock(IResource.class));
+        engine.schedule(cuOfOtherProject, mock(IResource.class));
+        engine.dispatchPendingDecorations();
+
+        // when
+        engine.removeVerdictsOfProject("=project");
+
+        // then
+        assertThat(engine.getVerdict(cuOfProject)).isNull();
+        assertThat(engine.getVerdict(cuOfOtherProject)).isFalse();
+    }
+
+    private static ICompilationUnit compilationUnit(String handle)
+    {
+        ICompilationUnit cu = mock(ICompilationUnit.class);
+        when(cu.getHandleIdentifier()).thenReturn(handle);
+        when(cu.exists()).thenReturn(true);
+        return cu;
+    }
+}
@@ -8,9 +8,12 @@ import static org.assertj.core.api.Assertions.assertThat;
  * 23.05.2006 21:22:53
  */
 
+import static java.util.Arrays.asList;
 import static org.moreunit.elements.CorrespondingMemberRequest.newCorrespondingMemberRequest;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.IMember;
@@ -119,6 +122,25 @@ public class ClassTypeFacadeTest extends ContextTestCase
             assertThat(correspondingTestMethods).containsExactly(getNumberOneTestMethod, getNumberOneTestMethod2);
         }
 
+    @Test
+    public void getCorrespondingTestMethods_should_resolve_several_methods_at_once() throws Exception
+    {
+        IMethod getNumberMethod = cutHandler().addMethod("public int getNumber()", "return 0;").get();
+        IMethod getNumberOneMethod = cutHandler().addMethod("public int getNumberOne()", "return 1;").get();
+        IMethod getNumberTwoMethod = cutHandler().addMethod("public int getNumberTwo()", "return 2;").get();
+        IMethod getNumberTestMethod = testCaseHandler().addMethod("public void testGetNumber()").get();
+        IMethod getNumberOneTestMethod = testCaseHandler().addMethod("public void testGetNumberOne()").get();
+
+        ClassTypeFacade classTypeFacade = new ClassTypeFacade(cutHandler().getCompilationUnit());
+        Map<IMethod, Set<IMethod>> testMethods = classTypeFacade.getCorrespondingTestMethods(asList(getNumberMethod, getNumberOneMethod, getNumberTwoMethod), MethodSearchMode.BY_NAME);
+
+        assertThat(testMethods.keySet()).containsExactly(getNumberMethod, getNumberOneMethod, getNumberTwoMethod);
+        // name matching is prefix-based
+        assertThat(testMethods.get(getNumberMethod)).containsOnly(getNumberTestMethod, getNumberOneTestMethod);
+        assertThat(testMethods.get(getNumberOneMethod)).containsOnly(getNumberOneTestMethod);
+        assertThat(testMethods.get(getNumberTwoMethod)).isEmpty();
+    }
+
     @Test
     public void getOneCorrespondingMember_should_return_testcase_when_no_testmethod_given() throws Exception
     {
@@ -0,0 +1,115 @@
+package org.moreunit.elements;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.junit.After;
+import org.junit.Test;
+import org.moreunit.elements.MissingTestsFinder.VerdictUpdate;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.Preferences;
+import org.moreunit.test.context.Project;
+
+@Preferences(testClassNameTemplate = "${srcFile}Test", testSrcFolder = "test")
+public class MissingTestsFinderTest extends ContextTestCase
+{
+    private final MissingTestsFinder finder = new MissingTestsFinder();
+
+    @After
+    public void disposeFinder()
+    {
+        finder.dispose();
+    }
+
+    @Project(mainCls = "org:Foo; org:Bar", testCls = "org:FooTest")
+    @Test
+    public void should_report_classes_without_test_case() throws Exception
+    {
+        assertThat(search()).extracting("elementName").containsOnly("Bar.java");
+    }
+
+    @Project(mainCls = "org:Foo; org:Bar", testCls = "org:FooTest")
+    @Test
+    public void should_update_verdicts_when_test_case_is_added() throws Exception
+    {
+        assertThat(search()).extracting("elementName").containsOnly("Bar.java");
+
+        context.getProjectHandler().getTestSrcFolderHandler().createClass("org.BarTest");
+
+        assertThat(search()).isEmpty();
+    }
+
+    @Project(mainCls = "org:Foo; org:Bar", testCls = "org:FooTest")
+    @Test
+    public void should_evaluate_only_given_compilation_units() throws Exception
+    {
+        ICompilationUnit foo = context.getCompilationUnit("org.Foo");
+        ICompilationUnit bar = context.getCompilationUnit("org.Bar");
+
+        VerdictUpdate update = finder.evaluate(context.getProjectHandler().get(), asList(bar.getHandleIdentifier()), new NullProgressMonitor());
+        assertThat(update.untested).containsOnly(bar);
+        assertThat(update.tested).isEmpty();
+
+        update = finder.evaluate(context.getProjectHandler().get(), asList(foo.getHandleIdentifier()), new NullProgressMonitor());
+        assertThat(update.untested).isEmpty();
+        assertThat(update.tested).containsOnly(foo);
+    }
+
+    @Project(mainCls = "org:Foo; org:Bar", testCls = "org:FooTest")
+    @Test
+    public void should_report_deleted_compilation_units_as_tested() throws Exception
+    {
+        ICompilationUnit bar = context.getCompilationUnit("org.Bar");
+        String barHandle = bar.getHandleIdentifier();
+        bar.delete(true, null);
+
+        VerdictUpdate update = finder.evaluate(context.getProjectHandler().get(), asList(barHandle), new NullProgressMonitor());
+
+        assertThat(update.untested).isEmpty();
+        assertThat(update.tested).extracting("elementName").containsOnly("Bar.java");
+    }
+
+    @Project(mainCls = "org:Foo; com:Bar; com:Baz", testCls = "org:FooTest; com:BazTest")
+    @Test
+    public void should_evaluate_compilation_units_of_given_package() throws Exception
+    {
+        IPackageFragment com = context.getProjectHandler().getMainSrcFolderHandler().get().getPackageFragment("com");
+
+        VerdictUpdate update = finder.evaluate(context.getProjectHandler().get(), asList(com.getHandleIdentifier()), new NullProgressMonitor());
+
+        assertThat(update.untested).extracting("elementName").containsOnly("Bar.java");
+        assertThat(update.tested).extracting("elementName").containsOnly("Baz.java");
+        assertThat(update.removedPackages).isEmpty();
+    }
+
+    @Project(mainCls = "org:Foo; com:Bar", testCls = "org:FooTest")
+    @Test
+    public void should_report_removed_packages() throws Exception
+    {
+        IPackageFragment com = context.getProjectHandler().getMainSrcFolderHandler().get().getPackageFragment("com");
+        com.delete(true, null);
+
+        VerdictUpdate update = finder.evaluate(context.getProjectHandler().get(), asList(com.getHandleIdentifier()), new NullProgressMonitor());
+
+        assertThat(update.untested).isEmpty();
+        assertThat(update.tested).isEmpty();
+        assertThat(update.removedPackages).containsOnly(com);
+    }
+
+    private List<ICompilationUnit> search() throws InterruptedException
+    {
+        final List<ICompilationUnit> result = Collections.synchronizedList(new ArrayList<ICompilationUnit>());
+        Job job = finder.createSearchJob(context.getProjectHandler().get(), chunk -> result.addAll(chunk));
+        job.schedule();
+        job.join();
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package org.moreunit.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.junit.Test;
+
+public class JumpPrefetcherTest
+{
+    private final List<ICompilationUnit> prefetchedUnits = new CopyOnWriteArrayList<ICompilationUnit>();
+
+    private final JumpPrefetcher prefetcher = new JumpPrefetcher(200, (cu, monitor) -> prefetchedUnits.add(cu));
+
+    @Test
+    public void should_only_prefetch_last_requested_compilation_unit() throws Exception
+    {
+        // given
+        ICompilationUnit cu1 = compilationUnit(true);
+        ICompilationUnit cu2 = compilationUnit(true);
+
+        // when
+        prefetcher.prefetch(cu1);
+        prefetcher.prefetch(cu2);
+        prefetcher.getJob().join();
+
+        // then
+        assertThat(prefetchedUnits).containsExactly(cu2);
+    }
+
+    @Test
+    public void should_not_prefetch_compilation_unit_that_does_not_exist() throws Exception
+    {
+        // when
+        prefetcher.prefetch(compilationUnit(false));
+        prefetcher.getJob().join();
+
+        // then
+        assertThat(prefetchedUnits).isEmpty();
+    }
+
+    private static ICompilationUnit compilationUnit(boolean exists)
+    {
+        ICompilationUnit cu = mock(ICompilationUnit.class);
+        when(cu.exists()).thenReturn(exists);
+        return cu;
+    }
+}
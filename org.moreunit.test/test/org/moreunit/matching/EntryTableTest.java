@@ -0,0 +1,97 @@
+package org.moreunit.matching;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.moreunit.matching.TestCorrespondenceIndex.Entry;
+import org.moreunit.matching.TestCorrespondenceIndex.EntryTable;
+
+public class EntryTableTest
+{
+    private static final String FOO_CU = "=proj/src<org{Foo.java";
+    private static final String BAR_CU = "=proj/src<com{Bar.java";
+    private static final String FOO_TEST_CU = "=proj/test<org{FooTest.java";
+
+    private final EntryTable table = new EntryTable();
+
+    @Test
+    public void should_remove_entries_of_changed_compilation_unit_and_entries_referencing_it() throws Exception
+    {
+        table.put("P" + FOO_CU, entry(asList("org.Foo*Test"), asList(FOO_TEST_CU + "[FooTest")));
+        table.put("P" + FOO_TEST_CU, entry(asList("org.Foo"), asList(FOO_CU + "[Foo")));
+        table.put("P" + BAR_CU, entry(asList("com.Bar*Test"), emptyList()));
+
+        Set<String> removed = removeEntriesAffectedBy(FOO_TEST_CU, "Unrelated");
+
+        assertThat(removed).containsOnly(FOO_CU, FOO_TEST_CU);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_remove_entries_which_patterns_match_type_name() throws Exception
+    {
+        table.put("P" + FOO_CU, entry(asList("org.Foo*Test", "org.*Foo*Spec"), emptyList()));
+        table.put("L" + FOO_CU, entry(asList("*Foo*"), emptyList()));
+        table.put("P" + BAR_CU, entry(asList("com.Bar*Test"), emptyList()));
+
+        assertThat(removeEntriesAffectedBy("=proj/test<org{Unrelated.java", "FooIT")).containsOnly(FOO_CU);
+        assertThat(table.size()).isEqualTo(2);
+
+        assertThat(removeEntriesAffectedBy("=proj/test<org{MyFooSpec.java", "MyFooSpec")).containsOnly(FOO_CU);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_not_remove_entries_which_anchor_is_contained_but_patterns_do_not_match() throws Exception
+    {
+        table.put("P" + FOO_CU, entry(asList("org.Foo*Test"), emptyList()));
+
+        assertThat(removeEntriesAffectedBy("=proj/test<org{TestFoo.java", "TestFoo")).isEmpty();
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_remove_entries_located_in_or_referencing_package() throws Exception
+    {
+        table.put("P" + FOO_CU, entry(asList("org.Foo*Test"), asList(FOO_TEST_CU + "[FooTest")));
+        table.put("P" + BAR_CU, entry(asList("com.Bar*Test"), emptyList()));
+
+        Set<String> removed = new LinkedHashSet<String>();
+        table.removeEntriesOfPackage("=proj/test<org", emptyList(), removed);
+
+        assertThat(removed).containsOnly(FOO_CU);
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void should_forget_dependencies_of_replaced_entry() throws Exception
+    {
+        table.put("P" + FOO_CU, entry(asList("org.Foo*Test"), asList(FOO_TEST_CU + "[FooTest")));
+        table.put("P" + FOO_CU, entry(asList("org.Foo*Test"), emptyList()));
+
+        assertThat(removeEntriesAffectedBy(FOO_TEST_CU, "Unrelated")).isEmpty();
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    private Set<String> removeEntriesAffectedBy(String cuHandle, String typeName)
+    {
+        Set<String> removed = new LinkedHashSet<String>();
+        Collection<String> typeNames = singleton(typeName);
+        table.removeEntriesAffectedBy(singleton(cuHandle), typeNames, removed);
+        return removed;
+    }
+
+    private static Entry entry(List<String> patterns, List<String> typeHandles)
+    {
+        List<String> scopeProjectNames = asList("proj");
+        return new Entry(patterns, typeHandles, scopeProjectNames);
+    }
+}
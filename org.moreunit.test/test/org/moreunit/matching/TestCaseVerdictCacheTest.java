@@ -0,0 +1,78 @@
+package org.moreunit.matching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.Preferences;
+import org.moreunit.test.context.Project;
+
+@Preferences(testClassNameTemplate = "${srcFile}Test")
+public class TestCaseVerdictCacheTest extends ContextTestCase
+{
+    private final TestCaseVerdictCache verdicts = TestCaseVerdictCache.getInstance();
+
+    @Before
+    public void clearVerdicts()
+    {
+        verdicts.clear();
+    }
+
+    @Project(mainCls = "HelloTest")
+    @Test
+    public void should_count_hits_and_misses() throws Exception
+    {
+        ICompilationUnit cu = context.getCompilationUnit("HelloTest");
+        long hitsBefore = verdicts.getHitCount();
+        long missesBefore = verdicts.getMissCount();
+
+        assertThat(verdicts.isTestCase(cu)).isTrue();
+        assertThat(verdicts.isTestCase(cu)).isTrue();
+
+        assertThat(verdicts.getMissCount() - missesBefore).isEqualTo(1);
+        assertThat(verdicts.getHitCount() - hitsBefore).isEqualTo(1);
+    }
+
+    @Project(mainCls = "HelloTest")
+    @Test
+    public void should_evaluate_again_when_test_class_name_pattern_changes() throws Exception
+    {
+        ICompilationUnit cu = context.getCompilationUnit("HelloTest");
+        IJavaProject project = cu.getJavaProject();
+        assertThat(verdicts.isTestCase(cu)).isTrue();
+
+        org.moreunit.preferences.Preferences.getInstance().setHasProjectSpecificSettings(project, true);
+        org.moreunit.preferences.Preferences.forProject(project).setTestClassNameTemplate("Test${srcFile}");
+
+        assertThat(verdicts.isTestCase(cu)).isFalse();
+    }
+
+    @Project(mainCls = "HelloTest")
+    @Test
+    public void should_drop_verdicts_of_invalidated_elements() throws Exception
+    {
+        ICompilationUnit cu = context.getCompilationUnit("HelloTest");
+        verdicts.isTestCase(cu);
+        assertThat(verdicts.size()).isEqualTo(1);
+
+        verdicts.invalidateChildrenOf(cu.getJavaProject());
+
+        assertThat(verdicts.size()).isEqualTo(0);
+    }
+
+    @Project(mainCls = "HelloTest")
+    @Test
+    public void should_drop_verdict_of_deleted_compilation_unit() throws Exception
+    {
+        ICompilationUnit cu = context.getCompilationUnit("HelloTest");
+        verdicts.isTestCase(cu);
+        assertThat(verdicts.size()).isEqualTo(1);
+
+        cu.delete(true, null);
+
+        assertThat(verdicts.size()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,240 @@
+package org.moreunit.matching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.Preferences;
+import org.moreunit.test.context.Project;
+import org.moreunit.util.SearchScopeSingelton;
+
+@Preferences(testClassNameTemplate = "${srcFile}(Test|TestNG)", testSrcFolder = "test")
+public class TestCorrespondenceIndexTest extends ContextTestCase
+{
+    private final TestCorrespondenceIndex index = TestCorrespondenceIndex.getInstance();
+
+    @Before
+    public void clearIndex()
+    {
+        index.clear();
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest")
+    @Test
+    public void should_answer_from_index_once_corresponding_types_have_been_searched() throws Exception
+    {
+        Collection<IType> firstMatches = new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        assertThat(index.size()).isEqualTo(1);
+
+        Collection<IType> secondMatches = new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+
+        assertThat(secondMatches).containsExactlyElementsOf(firstMatches);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest")
+    @Test
+    public void should_invalidate_entry_when_matching_type_is_added() throws Exception
+    {
+        Collection<IType> matches = new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        assertThat(matches).extracting("elementName").containsOnly("FooTest");
+
+        context.getProjectHandler().getTestSrcFolderHandler().createClass("org.FooTestNG");
+
+        matches = new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        assertThat(matches).extracting("elementName").containsOnly("FooTest", "FooTestNG");
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest; org:BarTest")
+    @Test
+    public void should_invalidate_entry_when_referenced_type_is_deleted() throws Exception
+    {
+        Collection<IType> matches = new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        assertThat(matches).extracting("elementName").containsOnly("FooTest");
+
+        context.getCompilationUnit("org.FooTest").delete(true, null);
+
+        matches = new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        assertThat(matches).isEmpty();
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest")
+    @Test
+    public void should_keep_entries_of_other_compilation_units_when_unrelated_type_is_added() throws Exception
+    {
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        assertThat(index.size()).isEqualTo(1);
+
+        context.getProjectHandler().getMainSrcFolderHandler().createClass("org.Unrelated");
+
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest")
+    @Test
+    public void should_notify_listeners_of_entries_invalidated_by_a_change() throws Exception
+    {
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+
+        final List<String> changedCuHandles = new ArrayList<String>();
+        final Set<String> invalidatedCuHandles = new HashSet<String>();
+        TestCorrespondenceIndex.InvalidationListener listener = new TestCorrespondenceIndex.InvalidationListener()
+        {
+            public void entriesInvalidated(String changedCuHandle, Set<String> cuHandles)
+            {
+                changedCuHandles.add(changedCuHandle);
+                invalidatedCuHandles.addAll(cuHandles);
+            }
+
+            public void indexCleared()
+            {
+            }
+        };
+        index.addInvalidationListener(listener);
+        try
+        {
+            context.getCompilationUnit("org.FooTest").delete(true, null);
+        }
+        finally
+        {
+            index.removeInvalidationListener(listener);
+        }
+
+        String testCuHandle = context.getProjectHandler().getTestSrcFolderHandler().get().getPackageFragment("org").getCompilationUnit("FooTest.java").getHandleIdentifier();
+        assertThat(changedCuHandles).contains(testCuHandle);
+        assertThat(invalidatedCuHandles).contains(context.getCompilationUnit("org.Foo").getHandleIdentifier());
+    }
+
+    @Project(mainCls = "org:Foo; com:Bar", testCls = "org:FooTest; com:BarTest")
+    @Test
+    public void should_only_drop_entries_related_to_removed_package() throws Exception
+    {
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        new CorrespondingTypeSearcher(context.getCompilationUnit("com.Bar"), getPreferences()).getMatches(false);
+        assertThat(index.size()).isEqualTo(2);
+
+        IPackageFragment testPackage = context.getProjectHandler().getTestSrcFolderHandler().get().getPackageFragment("com");
+        final List<String> changedHandles = new ArrayList<String>();
+        final Set<String> invalidatedCuHandles = new HashSet<String>();
+        TestCorrespondenceIndex.InvalidationListener listener = new TestCorrespondenceIndex.InvalidationListener()
+        {
+            public void entriesInvalidated(String changedCuHandle, Set<String> cuHandles)
+            {
+                changedHandles.add(changedCuHandle);
+                invalidatedCuHandles.addAll(cuHandles);
+            }
+
+            public void indexCleared()
+            {
+            }
+        };
+        index.addInvalidationListener(listener);
+        try
+        {
+            testPackage.delete(true, null);
+        }
+        finally
+        {
+            index.removeInvalidationListener(listener);
+        }
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(changedHandles).contains(testPackage.getHandleIdentifier()).doesNotContain(context.getProjectHandler().get().getHandleIdentifier());
+        assertThat(invalidatedCuHandles).contains(context.getCompilationUnit("com.Bar").getHandleIdentifier()).doesNotContain(context.getCompilationUnit("org.Foo").getHandleIdentifier());
+    }
+
+    @Project(mainCls = "org:Foo; org:Bar", testCls = "org:FooTest")
+    @Test
+    public void should_only_drop_entries_matching_types_of_added_package() throws Exception
+    {
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Bar"), getPreferences()).getMatches(false);
+        assertThat(index.size()).isEqualTo(2);
+
+        context.getProjectHandler().getTestSrcFolderHandler().createClass("net.BarTest");
+
+        // only the entry of Bar, which search may now find BarTest, is dropped
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest")
+    @Test
+    public void should_drop_entries_of_project_when_its_search_scopes_are_reset() throws Exception
+    {
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        assertThat(index.size()).isEqualTo(1);
+
+        SearchScopeSingelton.getInstance().resetCachedSearchScopes(context.getProjectHandler().get());
+
+        assertThat(index.size()).isEqualTo(0);
+    }
+
+    @Project(mainCls = "org:Foo; org:Bar", testCls = "org:FooTest")
+    @Test
+    public void should_not_restore_entries_without_corresponding_type() throws Exception
+    {
+        makeOlder("org.Foo", "org.Bar", "org.FooTest");
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Bar"), getPreferences()).getMatches(false);
+        assertThat(index.size()).isEqualTo(2);
+
+        saveAndRestore();
+
+        // only the entry of Foo is restored
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest")
+    @Test
+    public void should_drop_restored_entries_affected_by_files_modified_since_index_was_saved() throws Exception
+    {
+        makeOlder("org.Foo", "org.FooTest");
+        new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        File storageFile = File.createTempFile("correspondence", ".index");
+        storageFile.deleteOnExit();
+        index.saveTo(storageFile);
+        index.clear();
+
+        // as if created while the plug-in was inactive
+        context.getProjectHandler().getTestSrcFolderHandler().createClass("org.FooTestNG");
+        index.restoreFrom(storageFile);
+        assertThat(index.size()).isEqualTo(0);
+
+        index.reconcileRestoredEntries(new NullProgressMonitor());
+
+        assertThat(index.size()).isEqualTo(0);
+        Collection<IType> matches = new CorrespondingTypeSearcher(context.getCompilationUnit("org.Foo"), getPreferences()).getMatches(false);
+        assertThat(matches).extracting("elementName").containsOnly("FooTest", "FooTestNG");
+    }
+
+    private void saveAndRestore() throws Exception
+    {
+        File storageFile = File.createTempFile("correspondence", ".index");
+        storageFile.deleteOnExit();
+        index.saveTo(storageFile);
+        index.clear();
+        index.restoreFrom(storageFile);
+        index.reconcileRestoredEntries(new NullProgressMonitor());
+    }
+
+    private void makeOlder(String... typeNames) throws CoreException
+    {
+        long oneHourAgo = System.currentTimeMillis() - 3600 * 1000;
+        for (String typeName : typeNames)
+        {
+            context.getCompilationUnit(typeName).getResource().setLocalTimeStamp(oneHourAgo);
+        }
+    }
+}
@@ -143,6 +143,14 @@ public class PreferencesConverterTest extends ContextTestCase
         assertThat(firstMapping.getTestFolder()).isEqualTo(testUnitSourceFolder);
     }
 
+    @Test
+    public void getProjectNames_should_return_projects_of_all_mappings_without_resolving_them()
+    {
+        assertThat(PreferencesConverter.getProjectNames("main:src:main-test:test#other:src:main-test:test2")).containsExactly("main", "main-test", "other");
+        assertThat(PreferencesConverter.getProjectNames("")).isEmpty();
+        assertThat(PreferencesConverter.getProjectNames(null)).isEmpty();
+    }
+
     @Test
         public void convertArrayToStringWithListValueDelimiter_array_with_two_elements()
         {
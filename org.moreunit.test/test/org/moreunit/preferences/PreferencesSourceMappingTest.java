@@ -0,0 +1,99 @@
+package org.moreunit.preferences;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.elements.SourceFolderMapping;
+import org.moreunit.test.context.Context;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.configs.SimpleJUnit3Project;
+import org.moreunit.test.workspace.WorkspaceHelper;
+
+@Context(SimpleJUnit3Project.class)
+public class PreferencesSourceMappingTest extends ContextTestCase
+{
+    private IJavaProject project;
+    private IPackageFragmentRoot unit1SourceFolder;
+    private IPackageFragmentRoot unit2SourceFolder;
+    private Preferences preferences;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        project = context.getProjectHandler().get();
+        unit1SourceFolder = WorkspaceHelper.createSourceFolderInProject(project, "unit1");
+        unit2SourceFolder = WorkspaceHelper.createSourceFolderInProject(project, "unit2");
+
+        preferences = Preferences.getInstance();
+        preferences.setHasProjectSpecificSettings(project, true);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        unit1SourceFolder.delete(IResource.FORCE, IPackageFragmentRoot.ORIGINATING_PROJECT_CLASSPATH, null);
+        unit2SourceFolder.delete(IResource.FORCE, IPackageFragmentRoot.ORIGINATING_PROJECT_CLASSPATH, null);
+    }
+
+    @Test
+    public void should_reuse_mappings_until_they_change() throws Exception
+    {
+        // given
+        preferences.setMappingList(project, asList(new SourceFolderMapping(project, unit1SourceFolder, unit2SourceFolder)));
+        SourceFolderMappingGraph graph = preferences.getSourceMappingGraph(project);
+
+        // then
+        assertThat(preferences.getSourceMappingGraph(project)).isSameAs(graph);
+        assertThat(preferences.getTestSourceFolder(project, unit1SourceFolder)).isEqualTo(unit2SourceFolder);
+        assertThat(preferences.getMainSourceFolder(project, unit2SourceFolder)).isEqualTo(unit1SourceFolder);
+
+        // when
+        preferences.setMappingList(project, asList(new SourceFolderMapping(project, unit2SourceFolder, unit1SourceFolder)));
+
+        // then
+        assertThat(preferences.getSourceMappingGraph(project)).isNotSameAs(graph);
+        assertThat(preferences.getTestSourceFolder(project, unit2SourceFolder)).isEqualTo(unit1SourceFolder);
+        assertThat(preferences.getMainSourceFolder(project, unit1SourceFolder)).isEqualTo(unit2SourceFolder);
+    }
+
+    @Test
+    public void should_drop_mappings_when_source_folders_change() throws Exception
+    {
+        // given
+        preferences.setMappingList(project, asList(new SourceFolderMapping(project, unit1SourceFolder, unit2SourceFolder)));
+        SourceFolderMappingGraph graph = preferences.getSourceMappingGraph(project);
+
+        // when
+        preferences.sourceFoldersChanged(project);
+
+        // then
+        assertThat(preferences.getSourceMappingGraph(project)).isNotSameAs(graph);
+        assertThat(preferences.getSourceMappingList(project)).hasSize(1);
+    }
+
+    @Test
+    public void should_drop_mappings_when_instance_is_replaced() throws Exception
+    {
+        // given
+        preferences.setMappingList(project, asList(new SourceFolderMapping(project, unit1SourceFolder, unit2SourceFolder)));
+        SourceFolderMappingGraph graph = preferences.getSourceMappingGraph(project);
+
+        // when
+        Preferences.setInstance(new Preferences());
+        try
+        {
+            // then
+            assertThat(Preferences.getInstance().getSourceMappingGraph(project)).isNotSameAs(graph);
+        }
+        finally
+        {
+            Preferences.setInstance(preferences);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.moreunit.preferences;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.test.context.Context;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.configs.SimpleJUnit3Project;
+
+@Context(SimpleJUnit3Project.class)
+public class ProjectConfigSnapshotTest extends ContextTestCase
+{
+    private IJavaProject project;
+    private Preferences preferences;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        project = context.getProjectHandler().get();
+        preferences = Preferences.getInstance();
+        preferences.setHasProjectSpecificSettings(project, true);
+    }
+
+    @Test
+    public void should_reuse_snapshot_until_a_preference_changes() throws Exception
+    {
+        // given
+        ProjectConfigSnapshot snapshot = preferences.getConfigSnapshot(project);
+
+        // then
+        assertThat(preferences.getConfigSnapshot(project)).isSameAs(snapshot);
+
+        // when
+        preferences.setTestPackagePrefix(project, "unittest");
+
+        // then
+        ProjectConfigSnapshot newSnapshot = preferences.getConfigSnapshot(project);
+        assertThat(newSnapshot).isNotSameAs(snapshot);
+        assertThat(newSnapshot.getPackagePrefix()).isEqualTo("unittest");
+        assertThat(Preferences.forProject(project).getPackagePrefix()).isEqualTo("unittest");
+    }
+
+    @Test
+    public void should_follow_test_class_name_template_changes() throws Exception
+    {
+        // when
+        Preferences.forProject(project).setTestClassNameTemplate("${srcFile}Spec");
+
+        // then
+        assertThat(Preferences.forProject(project).getTestClassNameTemplate()).isEqualTo("${srcFile}Spec");
+        assertThat(preferences.getConfigSnapshot(project).getTestClassNamePattern()).isSameAs(Preferences.forProject(project).getTestClassNamePattern());
+    }
+
+    @Test
+    public void should_return_null_for_blank_package_prefix_and_suffix() throws Exception
+    {
+        // when
+        preferences.setTestPackagePrefix(project, " ");
+        preferences.setTestPackageSuffix(project, "");
+
+        // then
+        assertThat(Preferences.forProject(project).getPackagePrefix()).isNull();
+        assertThat(Preferences.forProject(project).getPackageSuffix()).isNull();
+    }
+}
@@ -0,0 +1,91 @@
+package org.moreunit.preferences;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.junit.Test;
+import org.moreunit.elements.SourceFolderMapping;
+
+public class SourceFolderMappingGraphTest
+{
+    private final IJavaProject project = mock(IJavaProject.class);
+    private final IPackageFragmentRoot main1 = mock(IPackageFragmentRoot.class, "main1");
+    private final IPackageFragmentRoot main2 = mock(IPackageFragmentRoot.class, "main2");
+    private final IPackageFragmentRoot test1 = mock(IPackageFragmentRoot.class, "test1");
+    private final IPackageFragmentRoot test2 = mock(IPackageFragmentRoot.class, "test2");
+
+    @Test
+    public void should_look_up_folders_in_both_directions() throws Exception
+    {
+        // given
+        SourceFolderMappingGraph graph = new SourceFolderMappingGraph(asList(mapping(main1, test1), mapping(main2, test2)));
+
+        // then
+        assertThat(graph.getTestFolder(main1)).isSameAs(test1);
+        assertThat(graph.getTestFolder(main2)).isSameAs(test2);
+        assertThat(graph.getMainFolder(test1)).isSameAs(main1);
+        assertThat(graph.getMainFolder(test2)).isSameAs(main2);
+
+        assertThat(graph.getTestFolder(test1)).isNull();
+        assertThat(graph.getMainFolder(main1)).isNull();
+
+        assertThat(graph.isTestFolder(test2)).isTrue();
+        assertThat(graph.isTestFolder(main2)).isFalse();
+    }
+
+    @Test
+    public void first_mapping_should_win_when_folder_is_mapped_several_times() throws Exception
+    {
+        // given
+        SourceFolderMappingGraph graph = new SourceFolderMappingGraph(asList(mapping(main1, test1), mapping(main2, test1), mapping(main1, test2)));
+
+        // then
+        assertThat(graph.getTestFolder(main1)).isSameAs(test1);
+        assertThat(graph.getMainFolder(test1)).isSameAs(main1);
+        assertThat(graph.getFirstTestFolder()).isSameAs(test1);
+        assertThat(graph.getFirstMainFolder()).isSameAs(main1);
+
+        assertThat(graph.getCorrespondingFolders().get(test1)).containsExactly(main1, main2);
+        assertThat(graph.getCorrespondingFolders().get(main1)).containsExactly(test1, test2);
+    }
+
+    @Test
+    public void should_be_empty_without_mappings() throws Exception
+    {
+        // given
+        SourceFolderMappingGraph graph = new SourceFolderMappingGraph(asList());
+
+        // then
+        assertThat(graph.isEmpty()).isTrue();
+        assertThat(graph.getFirstTestFolder()).isNull();
+        assertThat(graph.getFirstMainFolder()).isNull();
+        assertThat(graph.getMappings()).isEmpty();
+    }
+
+    @Test
+    public void should_not_be_affected_by_changes_to_returned_mappings() throws Exception
+    {
+        // given
+        SourceFolderMappingGraph graph = new SourceFolderMappingGraph(asList(mapping(main1, test1)));
+
+        // when
+        List<SourceFolderMapping> mappings = graph.getMappings();
+        mappings.get(0).setSourceFolderList(asList(main2));
+        mappings.add(mapping(main2, test2));
+
+        // then
+        assertThat(graph.getMappings()).hasSize(1);
+        assertThat(graph.getMappings().get(0).getSourceFolderList()).containsExactly(main1);
+        assertThat(graph.getTestFolder(main2)).isNull();
+    }
+
+    private SourceFolderMapping mapping(IPackageFragmentRoot mainFolder, IPackageFragmentRoot testFolder)
+    {
+        return new SourceFolderMapping(project, mainFolder, testFolder);
+    }
+}
@@ -0,0 +1,59 @@
+package org.moreunit.ui;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.jdt.core.ISourceReference;
+import org.eclipse.jdt.core.SourceRange;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.junit.Test;
+
+public class VisibleLineRangeTest
+{
+    @Test
+    public void should_extend_shown_lines_by_one_page_above_and_below() throws Exception
+    {
+        VisibleLineRange range = VisibleLineRange.forShownLines(20, 29);
+
+        assertThat(range.contains(9)).isFalse();
+        assertThat(range.contains(10)).isTrue();
+        assertThat(range.contains(39)).isTrue();
+        assertThat(range.contains(40)).isFalse();
+    }
+
+    @Test
+    public void should_not_extend_range_before_first_line() throws Exception
+    {
+        VisibleLineRange range = VisibleLineRange.forShownLines(0, 9);
+
+        assertThat(range.contains(0)).isTrue();
+        assertThat(range.contains(19)).isTrue();
+    }
+
+    @Test
+    public void should_return_null_when_shown_lines_are_unknown() throws Exception
+    {
+        assertThat(VisibleLineRange.forShownLines(- 1, - 1)).isNull();
+    }
+
+    @Test
+    public void should_tell_whether_element_name_is_in_range() throws Exception
+    {
+        IDocument document = new Document("line 0\nline 1\nline 2\nline 3\nline 4\nline 5\nline 6\n");
+        VisibleLineRange range = VisibleLineRange.forShownLines(2, 2);
+
+        assertThat(range.contains(document, elementAt(document.getLineOffset(1)))).isTrue();
+        assertThat(range.contains(document, elementAt(document.getLineOffset(3) + 2))).isTrue();
+        assertThat(range.contains(document, elementAt(document.getLineOffset(4)))).isFalse();
+        assertThat(range.contains(document, elementAt(- 1))).isFalse();
+    }
+
+    private static ISourceReference elementAt(int offset) throws Exception
+    {
+        ISourceReference element = mock(ISourceReference.class);
+        when(element.getNameRange()).thenReturn(new SourceRange(offset, 4));
+        return element;
+    }
+}
@@ -0,0 +1,57 @@
+package org.moreunit.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.junit.Test;
+
+public class JavaElementUtilsTest
+{
+    @Test
+    public void should_return_project_which_classpath_changed() throws Exception
+    {
+        IJavaElementDelta projectDelta = delta(IJavaElement.JAVA_PROJECT, IJavaElementDelta.CHANGED, IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED);
+        IJavaElementDelta modelDelta = delta(IJavaElement.JAVA_MODEL, IJavaElementDelta.CHANGED, IJavaElementDelta.F_CHILDREN, projectDelta);
+
+        assertThat(JavaElementUtils.getStructurallyChangedContainers(modelDelta)).containsExactly(projectDelta.getElement());
+    }
+
+    @Test
+    public void should_return_added_and_removed_source_folders() throws Exception
+    {
+        IJavaElementDelta addedFolderDelta = delta(IJavaElement.PACKAGE_FRAGMENT_ROOT, IJavaElementDelta.ADDED, 0);
+        IJavaElementDelta removedFolderDelta = delta(IJavaElement.PACKAGE_FRAGMENT_ROOT, IJavaElementDelta.REMOVED, 0);
+        IJavaElementDelta projectDelta = delta(IJavaElement.JAVA_PROJECT, IJavaElementDelta.CHANGED, IJavaElementDelta.F_CHILDREN, addedFolderDelta, removedFolderDelta);
+        IJavaElementDelta modelDelta = delta(IJavaElement.JAVA_MODEL, IJavaElementDelta.CHANGED, IJavaElementDelta.F_CHILDREN, projectDelta);
+
+        assertThat(JavaElementUtils.getStructurallyChangedContainers(modelDelta)).containsExactly(addedFolderDelta.getElement(), removedFolderDelta.getElement());
+    }
+
+    @Test
+    public void should_ignore_changes_of_packages_and_compilation_units() throws Exception
+    {
+        IJavaElementDelta cuDelta = delta(IJavaElement.COMPILATION_UNIT, IJavaElementDelta.ADDED, 0);
+        IJavaElementDelta packageDelta = delta(IJavaElement.PACKAGE_FRAGMENT, IJavaElementDelta.ADDED, 0, cuDelta);
+        IJavaElementDelta folderDelta = delta(IJavaElement.PACKAGE_FRAGMENT_ROOT, IJavaElementDelta.CHANGED, IJavaElementDelta.F_CHILDREN, packageDelta);
+        IJavaElementDelta projectDelta = delta(IJavaElement.JAVA_PROJECT, IJavaElementDelta.CHANGED, IJavaElementDelta.F_CHILDREN, folderDelta);
+        IJavaElementDelta modelDelta = delta(IJavaElement.JAVA_MODEL, IJavaElementDelta.CHANGED, IJavaElementDelta.F_CHILDREN, projectDelta);
+
+        assertThat(JavaElementUtils.getStructurallyChangedContainers(modelDelta)).isEmpty();
+    }
+
+    private static IJavaElementDelta delta(int elementType, int kind, int flags, IJavaElementDelta... children)
+    {
+        IJavaElement element = mock(IJavaElement.class);
+        when(element.getElementType()).thenReturn(elementType);
+
+        IJavaElementDelta delta = mock(IJavaElementDelta.class);
+        when(delta.getElement()).thenReturn(element);
+        when(delta.getKind()).thenReturn(kind);
+        when(delta.getFlags()).thenReturn(flags);
+        when(delta.getAffectedChildren()).thenReturn(children);
+        return delta;
+    }
+}
@@ -0,0 +1,73 @@
+package org.moreunit.util;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaModelException;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.test.context.Context;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.Preferences;
+import org.moreunit.test.context.configs.SimpleJUnit3Preferences;
+import org.moreunit.test.workspace.MethodHandler;
+import org.moreunit.test.workspace.TypeHandler;
+
+@Context(mainCls = "testing:Hello", testCls = "testing:HelloTest", preferences = @Preferences(SimpleJUnit3Preferences.class))
+public class MethodReferenceSearchEngineTest extends ContextTestCase
+{
+    private TypeHandler cutType;
+    private TypeHandler testcaseType;
+    private MethodHandler getNumberOneMethod;
+    private MethodHandler getNumberTwoMethod;
+
+    @Before
+    public void setUp() throws JavaModelException
+    {
+        cutType = context.getCompilationUnitHandler("testing.Hello").getPrimaryTypeHandler();
+        testcaseType = context.getCompilationUnitHandler("testing.HelloTest").getPrimaryTypeHandler();
+        getNumberOneMethod = cutType.addMethod("public int getNumberOne()", "return 1;");
+        getNumberTwoMethod = cutType.addMethod("public int getNumberTwo()", "return 2;");
+    }
+
+    @Test
+    public void findTestCallers_should_return_empty_sets_when_no_testmethod_exists() throws JavaModelException
+    {
+        Map<IMethod, Set<IMethod>> callers = new MethodReferenceSearchEngine(Set.of(testcaseType.get())).findTestCallers(asList(getNumberOneMethod.get(), getNumberTwoMethod.get()), new NullProgressMonitor());
+
+        assertThat(callers.keySet()).containsExactly(getNumberOneMethod.get(), getNumberTwoMethod.get());
+        assertThat(callers.get(getNumberOneMethod.get())).isEmpty();
+        assertThat(callers.get(getNumberTwoMethod.get())).isEmpty();
+    }
+
+    @Test
+    public void findTestCallers_should_group_callers_by_called_method() throws JavaModelException
+    {
+        MethodHandler giveMe1TestMethod = testcaseType.addMethod("public void testGiveMe1()", "new Hello().getNumberOne();");
+        MethodHandler giveMe2TestMethod = testcaseType.addMethod("public void testGiveMe2()", "new Hello().getNumberTwo();");
+        MethodHandler giveMeBothTestMethod = testcaseType.addMethod("public void testGiveMeBoth()", "new Hello().getNumberOne(); new Hello().getNumberTwo();");
+
+        Map<IMethod, Set<IMethod>> callers = new MethodReferenceSearchEngine(Set.of(testcaseType.get())).findTestCallers(asList(getNumberOneMethod.get(), getNumberTwoMethod.get()), new NullProgressMonitor());
+
+        assertThat(callers.get(getNumberOneMethod.get())).containsOnly(giveMe1TestMethod.get(), giveMeBothTestMethod.get());
+        assertThat(callers.get(getNumberTwoMethod.get())).containsOnly(giveMe2TestMethod.get(), giveMeBothTestMethod.get());
+    }
+
+    @Test
+    public void findTestCallers_should_distinguish_overloaded_methods() throws JavaModelException
+    {
+        MethodHandler getNumberOneWithArgMethod = cutType.addMethod("public int getNumberOne(int factor)", "return factor;");
+        MethodHandler noArgTestMethod = testcaseType.addMethod("public void testNoArg()", "new Hello().getNumberOne();");
+        MethodHandler withArgTestMethod = testcaseType.addMethod("public void testWithArg()", "new Hello().getNumberOne(3);");
+
+        Map<IMethod, Set<IMethod>> callers = new MethodReferenceSearchEngine(Set.of(testcaseType.get())).findTestCallers(asList(getNumberOneMethod.get(), getNumberOneWithArgMethod.get()), new NullProgressMonitor());
+
+        assertThat(callers.get(getNumberOneMethod.get())).containsOnly(noArgTestMethod.get());
+        assertThat(callers.get(getNumberOneWithArgMethod.get())).containsOnly(withArgTestMethod.get());
+    }
+}
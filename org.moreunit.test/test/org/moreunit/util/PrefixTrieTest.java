@@ -0,0 +1,49 @@
+package org.moreunit.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class PrefixTrieTest
+{
+    private final PrefixTrie<String> trie = new PrefixTrie<String>();
+
+    @Test
+    public void should_return_values_which_key_prefixes_given_string() throws Exception
+    {
+        trie.put("testGet", "get");
+        trie.put("testGetName", "getName");
+        trie.put("testSet", "set");
+
+        assertThat(trie.getValuesForPrefixesOf("testGetNameWhenNull")).containsExactly("get", "getName");
+        assertThat(trie.getValuesForPrefixesOf("testGet")).containsExactly("get");
+        assertThat(trie.getValuesForPrefixesOf("testSetter")).containsExactly("set");
+    }
+
+    @Test
+    public void should_return_nothing_when_no_key_prefixes_given_string() throws Exception
+    {
+        trie.put("testGet", "get");
+
+        assertThat(trie.getValuesForPrefixesOf("testGe")).isEmpty();
+        assertThat(trie.getValuesForPrefixesOf("somethingElse")).isEmpty();
+        assertThat(trie.getValuesForPrefixesOf("")).isEmpty();
+    }
+
+    @Test
+    public void should_keep_all_values_associated_to_same_key() throws Exception
+    {
+        trie.put("testFoo", "foo()");
+        trie.put("testFoo", "foo(int)");
+
+        assertThat(trie.getValuesForPrefixesOf("testFooWithArgument")).containsExactly("foo()", "foo(int)");
+    }
+
+    @Test
+    public void should_match_any_string_with_empty_key() throws Exception
+    {
+        trie.put("", "any");
+
+        assertThat(trie.getValuesForPrefixesOf("whatever")).containsExactly("any");
+    }
+}
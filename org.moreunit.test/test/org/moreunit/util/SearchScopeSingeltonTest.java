@@ -0,0 +1,54 @@
+package org.moreunit.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.junit.Before;
+import org.junit.Test;
+import org.moreunit.test.context.ContextTestCase;
+import org.moreunit.test.context.Preferences;
+import org.moreunit.test.context.Project;
+
+@Preferences(testClassNameTemplate = "${srcFile}Test", testSrcFolder = "test")
+public class SearchScopeSingeltonTest extends ContextTestCase
+{
+    private final SearchScopeSingelton scopes = SearchScopeSingelton.getInstance();
+
+    @Before
+    public void resetScopes()
+    {
+        scopes.resetCachedSearchScopes();
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest")
+    @Test
+    public void should_count_hits_and_misses() throws Exception
+    {
+        IPackageFragmentRoot mainSrcFolder = context.getProjectHandler().getMainSrcFolderHandler().get();
+        long hitsBefore = scopes.getHitCount();
+        long missesBefore = scopes.getMissCount();
+
+        IJavaSearchScope firstScope = scopes.getSearchScope(mainSrcFolder);
+        IJavaSearchScope secondScope = scopes.getSearchScope(mainSrcFolder);
+
+        assertThat(secondScope).isSameAs(firstScope);
+        assertThat(scopes.getMissCount() - missesBefore).isEqualTo(1);
+        assertThat(scopes.getHitCount() - hitsBefore).isEqualTo(1);
+    }
+
+    @Project(mainCls = "org:Foo", testCls = "org:FooTest")
+    @Test
+    public void should_drop_scopes_of_reset_project() throws Exception
+    {
+        IPackageFragmentRoot mainSrcFolder = context.getProjectHandler().getMainSrcFolderHandler().get();
+        IJavaSearchScope scopeBeforeReset = scopes.getSearchScope(mainSrcFolder);
+        scopes.getSearchScope(context.getProjectHandler().getTestSrcFolderHandler().get());
+        assertThat(scopes.size()).isEqualTo(2);
+
+        scopes.resetCachedSearchScopes(context.getProjectHandler().get());
+
+        assertThat(scopes.size()).isEqualTo(0);
+        assertThat(scopes.getSearchScope(mainSrcFolder)).isNotSameAs(scopeBeforeReset);
+    }
+}